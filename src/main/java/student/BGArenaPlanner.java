@@ -1,5 +1,8 @@
 package student;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Set;
 
 /**
  * Main entry point for the program.
@@ -8,6 +11,9 @@ public final class BGArenaPlanner {
     /** default location of collection - relative to the resources directory. */
     private static final String DEFAULT_COLLECTION = "/collection.csv";
 
+    /** option to keep the games off the java heap. */
+    private static final String OFF_HEAP_OPTION = "--off-heap";
+
     /** private constructor as static class. */
     private BGArenaPlanner() {
 
@@ -16,15 +22,54 @@ public final class BGArenaPlanner {
     /**
      * Main entry point for the program.
      * 
-     * @param args command line arguments - not used at this time.
+     * @param args command line arguments - optionally the path of a collection csv on the
+     *             file system, otherwise the bundled collection is used. A csv on the file
+     *             system is watched, and changes to it are picked up while running.
+     *             Adding --off-heap first keeps the games outside of the java heap.
      */
     public static void main(String[] args) {
-        IPlanner planner = new Planner(GamesLoader.loadGamesFile(DEFAULT_COLLECTION));
-        IGameList list = new GameList();
+        boolean offHeap = args.length > 0 && args[0].equals(OFF_HEAP_OPTION);
+        String csv = args.length > (offHeap ? 1 : 0) ? args[offHeap ? 1 : 0] : null;
+
+        Planner planner = new Planner(loadTable(csv, offHeap));
+        if (csv != null) {
+            try {
+                new CollectionWatcher(Path.of(csv), planner).start();
+            } catch (IOException e) {
+                System.err.println("Error watching file: " + e.getMessage());
+            }
+        }
+        IGameList list = new GameList(planner::findByName);
         ConsoleApp app = new ConsoleApp(list, planner);
         app.start();
     }
 
+    /**
+     * Loads the collection into a table.
+     *
+     * An off heap table is filled straight from the csv rows, so the games are never all on
+     * the java heap at once. The bundled collection is small, and is loaded as games first.
+     *
+     * @param csv     the path of the collection csv, or null for the bundled collection
+     * @param offHeap true to keep the games outside of the java heap
+     * @return the table
+     */
+    private static IGameTable loadTable(String csv, boolean offHeap) {
+        if (csv == null) {
+            Set<BoardGame> games = GamesLoader.loadGamesFile(DEFAULT_COLLECTION);
+            return offHeap ? new OffHeapGameTable(games) : new GameTable(games);
+        }
+        if (!offHeap) {
+            return new GameTable(GamesLoader.loadGamesFileCached(Path.of(csv)));
+        }
+        try {
+            return OffHeapGameTable.load(Path.of(csv), Runtime.getRuntime().availableProcessors());
+        } catch (IOException e) {
+            System.err.println("Error reading file: " + e.getMessage());
+            return new OffHeapGameTable(Set.of());
+        }
+    }
+
 
 
 }
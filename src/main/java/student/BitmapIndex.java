@@ -0,0 +1,180 @@
+package student;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * A bitmap index over one low cardinality int column, such as YEAR or MIN_PLAYERS.
+ *
+ * Each distinct value has a {@link CompressedBitmap} of the rows holding it. Any comparison
+ * picks a run of the sorted distinct values and unites their bitmaps, and several predicates
+ * are combined by intersecting the results instead of checking each row.
+ */
+public final class BitmapIndex {
+    /** The distinct values of the column, sorted. */
+    private final int[] values;
+    /** The rows holding each value, in the same order as values. */
+    private final CompressedBitmap[] bitmaps;
+
+    /**
+     * Constructor for the index.
+     *
+     * @param values  the distinct values, sorted
+     * @param bitmaps the rows of each value
+     */
+    private BitmapIndex(int[] values, CompressedBitmap[] bitmaps) {
+        this.values = values;
+        this.bitmaps = bitmaps;
+    }
+
+    /**
+     * Builds the index for an int column of a table.
+     *
+     * @param table  the table
+     * @param column an int column
+     * @return the index
+     * @throws IllegalArgumentException if the column is not an int column
+     */
+    public static BitmapIndex build(IGameTable table, GameData column) {
+        IntUnaryOperator ints = table.intColumn(column);
+        if (ints == null) {
+            throw new IllegalArgumentException("The column " + column.getColumnName() + " is not an int column");
+        }
+        Map<Integer, CompressedBitmap.Builder> builders = new TreeMap<>();
+        for (int row = 0; row < table.size(); row++) {
+            builders.computeIfAbsent(ints.applyAsInt(row), value -> new CompressedBitmap.Builder()).add(row);
+        }
+        int[] values = new int[builders.size()];
+        CompressedBitmap[] bitmaps = new CompressedBitmap[builders.size()];
+        int i = 0;
+        for (Map.Entry<Integer, CompressedBitmap.Builder> entry : builders.entrySet()) {
+            values[i] = entry.getKey();
+            bitmaps[i++] = entry.getValue().build();
+        }
+        return new BitmapIndex(values, bitmaps);
+    }
+
+    /**
+     * Checks if the index can answer an operation.
+     *
+     * @param op the operation
+     * @return true for every operation but CONTAINS
+     */
+    public static boolean supports(Operations op) {
+        return op != Operations.CONTAINS;
+    }
+
+    /**
+     * Get the number of distinct values.
+     *
+     * @return the number of bitmaps
+     */
+    public int distinctValues() {
+        return values.length;
+    }
+
+    /**
+     * Get one of the distinct values.
+     *
+     * @param position the position, from 0 to distinctValues() - 1
+     * @return the value, values are ascending by position
+     */
+    public int valueAt(int position) {
+        return values[position];
+    }
+
+    /**
+     * Get the rows holding one of the distinct values.
+     *
+     * @param position the position, from 0 to distinctValues() - 1
+     * @return the rows holding {@link #valueAt(int)}
+     */
+    public CompressedBitmap rowsAt(int position) {
+        return bitmaps[position];
+    }
+
+    /**
+     * Finds the first distinct value greater than or equal to the given value.
+     *
+     * @param value the value
+     * @return its position, or the number of distinct values if every value is smaller
+     */
+    private int lowerBound(double value) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Finds the first distinct value greater than the given value.
+     *
+     * @param value the value
+     * @return its position, or the number of distinct values if no value is greater
+     */
+    private int upperBound(double value) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Gets the rows that match a predicate.
+     *
+     * @param op    the operation, see {@link #supports(Operations)}
+     * @param value the value to compare against
+     * @return the matching rows
+     * @throws IllegalArgumentException if the operation is CONTAINS
+     */
+    public CompressedBitmap select(Operations op, double value) {
+        if (Double.isNaN(value)) {
+            // every comparison with NaN is false but !=, like the scan
+            if (op == Operations.CONTAINS) {
+                throw new IllegalArgumentException("The index can't answer " + op.getOperator());
+            }
+            return op == Operations.NOT_EQUALS ? union(0, values.length) : CompressedBitmap.EMPTY;
+        }
+        int lower = lowerBound(value);
+        int upper = upperBound(value);
+        return switch (op) {
+            case EQUALS -> union(lower, upper);
+            case NOT_EQUALS -> union(0, lower).or(union(upper, values.length));
+            case LESS_THAN -> union(0, lower);
+            case LESS_THAN_EQUALS -> union(0, upper);
+            case GREATER_THAN -> union(upper, values.length);
+            case GREATER_THAN_EQUALS -> union(lower, values.length);
+            default -> throw new IllegalArgumentException("The index can't answer " + op.getOperator());
+        };
+    }
+
+    /**
+     * Unites the bitmaps of a run of distinct values.
+     *
+     * @param from the first position
+     * @param to   the position after the last one
+     * @return the rows holding any of the values
+     */
+    private CompressedBitmap union(int from, int to) {
+        CompressedBitmap rows = CompressedBitmap.EMPTY;
+        for (int i = from; i < to; i++) {
+            rows = rows.or(bitmaps[i]);
+        }
+        return rows;
+    }
+}
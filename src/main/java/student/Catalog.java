@@ -0,0 +1,182 @@
+package student;
+
+import java.util.Set;
+
+/**
+ * One immutable version of the game collection, shared by any number of planner sessions.
+ *
+ * A catalog holds the {@link IGameTable}, its {@link GameIndexes}, the {@link ParallelExecutor}
+ * that runs large queries, and the caches of compiled filters and sorted results. None of it
+ * changes once built, and the caches don't lock on reads, so sessions on different threads
+ * read a catalog at the same time without waiting on each other. Each {@link Planner} is one
+ * session: it only holds its own refinement state, the rows its filters left.
+ *
+ * Changes to the collection build a new catalog with {@link #applyDelta(GameDelta)}. Compiled
+ * filters don't depend on the games, so the new catalog shares the filter cache; it starts
+ * with no cached results.
+ */
+public final class Catalog {
+    /** The default most number of cached results, and of cached plans. */
+    public static final int DEFAULT_CACHE_ENTRIES = 256;
+    /** The default most number of bytes held by cached results. */
+    public static final long DEFAULT_CACHE_BYTES = 16L * 1024 * 1024;
+    /** The estimated bytes a cached result takes on top of its row ids. */
+    private static final long RESULT_OVERHEAD = 64;
+
+    /** The games, one row each. */
+    private final IGameTable table;
+    /** The secondary indexes of the table. */
+    private final GameIndexes indexes;
+    /** Runs large scans and sorts in parallel. */
+    private final ParallelExecutor executor;
+    /** Compiled filters, keyed by the filter string as written. */
+    private final LruCache<String, FilterPlan> plans;
+    /** Sorted row ids, keyed by the normalized filters, sort column and direction. */
+    private final LruCache<String, int[]> results;
+    /** The most results to cache. */
+    private final int cacheEntries;
+    /** The most bytes of row ids to cache. */
+    private final long cacheBytes;
+
+    /**
+     * Constructs a catalog of a set of games, kept on the heap, with the default settings.
+     *
+     * @param games the games
+     */
+    public Catalog(Set<BoardGame> games) {
+        this(new GameTable(games));
+    }
+
+    /**
+     * Constructs a catalog over a game table, with the default settings.
+     *
+     * @param table the games
+     */
+    public Catalog(IGameTable table) {
+        this(table, DEFAULT_CACHE_ENTRIES, DEFAULT_CACHE_BYTES, ParallelExecutor.shared());
+    }
+
+    /**
+     * Constructs a catalog over a game table.
+     *
+     * @param table        the games
+     * @param cacheEntries the most results, and the most plans, to cache; 0 turns caching off
+     * @param cacheBytes   the most bytes of row ids to cache
+     * @param executor     runs large scans and sorts, {@link ParallelExecutor#SEQUENTIAL} to stay on one thread
+     */
+    public Catalog(IGameTable table, int cacheEntries, long cacheBytes, ParallelExecutor executor) {
+        this(table, cacheEntries, cacheBytes, executor, new LruCache<>(cacheEntries, cacheEntries, plan -> 1));
+    }
+
+    /**
+     * Constructs a catalog, sharing a filter cache.
+     *
+     * @param table        the games
+     * @param cacheEntries the most results to cache
+     * @param cacheBytes   the most bytes of row ids to cache
+     * @param executor     runs large scans and sorts
+     * @param plans        the compiled filter cache
+     */
+    private Catalog(IGameTable table, int cacheEntries, long cacheBytes, ParallelExecutor executor,
+                    LruCache<String, FilterPlan> plans) {
+        this.table = table;
+        this.indexes = new GameIndexes(table);
+        this.executor = executor;
+        this.cacheEntries = cacheEntries;
+        this.cacheBytes = cacheBytes;
+        this.plans = plans;
+        this.results = new LruCache<>(cacheEntries, cacheBytes,
+                rows -> (long) rows.length * Integer.BYTES + RESULT_OVERHEAD);
+    }
+
+    /**
+     * Get the games.
+     *
+     * @return the table
+     */
+    public IGameTable getTable() {
+        return table;
+    }
+
+    /**
+     * Get the indexes of the games.
+     *
+     * @return the indexes
+     */
+    public GameIndexes getIndexes() {
+        return indexes;
+    }
+
+    /**
+     * Get the executor running large queries.
+     *
+     * @return the executor
+     */
+    public ParallelExecutor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Compiles a filter, or gets it from the filter cache.
+     *
+     * @param filter the filter string
+     * @return the compiled plan
+     * @throws IllegalArgumentException if the filter is invalid
+     */
+    public FilterPlan compile(String filter) {
+        FilterPlan plan = plans.get(filter);
+        if (plan == null) {
+            plan = FilterPlan.compile(filter);
+            plans.put(filter, plan);
+        }
+        return plan;
+    }
+
+    /**
+     * Gets a cached result.
+     *
+     * @param key the result key
+     * @return the sorted row ids, not to be changed, or null if not cached
+     */
+    public int[] getResult(String key) {
+        return results.get(key);
+    }
+
+    /**
+     * Caches a result.
+     *
+     * @param key    the result key
+     * @param sorted the sorted row ids, not to be changed afterwards
+     */
+    public void putResult(String key, int[] sorted) {
+        results.put(key, sorted);
+    }
+
+    /**
+     * Get the number of results found in the cache.
+     *
+     * @return the cache hit count
+     */
+    public long getCacheHits() {
+        return results.getHits();
+    }
+
+    /**
+     * Get the number of results that were not cached.
+     *
+     * @return the cache miss count
+     */
+    public long getCacheMisses() {
+        return results.getMisses();
+    }
+
+    /**
+     * Builds the next version of the catalog with a delta applied. This catalog is not changed.
+     *
+     * @param delta the changes to apply
+     * @return the new catalog, with the same settings and filter cache and no cached results
+     */
+    public Catalog applyDelta(GameDelta delta) {
+        return new Catalog(table.applyDelta(delta), cacheEntries, cacheBytes, executor, plans);
+    }
+}
@@ -0,0 +1,199 @@
+package student;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The current version of a {@link Catalog}, swapped atomically when the collection changes.
+ *
+ * Each version is an immutable {@link Snapshot}. A query pins the current snapshot when it
+ * starts with {@link #acquire()}, and reads only that one until it closes it, whatever is
+ * published meanwhile. A reload builds the next catalog beside the current one, with no lock
+ * that queries wait on, and publishes it with one atomic swap. Snapshots are reference
+ * counted: the store holds one reference to the current snapshot, and each pinned query
+ * another, so an old snapshot is freed as soon as the last query using it closes it.
+ *
+ * Reloads are serialized among themselves, so no change is lost, but never block queries.
+ */
+public final class CatalogStore {
+    /** The current snapshot. */
+    private final AtomicReference<Snapshot> current;
+    /** The number of snapshots not yet freed. */
+    private final AtomicInteger live = new AtomicInteger();
+    /** Serializes reloads, queries never take it. */
+    private final Object reloadLock = new Object();
+
+    /**
+     * Constructs a store holding a first version.
+     *
+     * @param initial the first catalog
+     */
+    public CatalogStore(Catalog initial) {
+        this.current = new AtomicReference<>(new Snapshot(1, initial, live));
+    }
+
+    /**
+     * Pins the current snapshot. The caller must close it when done.
+     *
+     * @return the snapshot, pinned until closed
+     */
+    public Snapshot acquire() {
+        while (true) {
+            Snapshot snapshot = current.get();
+            if (snapshot.retain()) {
+                if (snapshot == current.get()) {
+                    return snapshot;
+                }
+                // a newer version was published meanwhile, start on that one
+                snapshot.close();
+            }
+        }
+    }
+
+    /**
+     * Get the current catalog, without pinning it.
+     *
+     * @return the catalog of the current snapshot
+     */
+    public Catalog current() {
+        try (Snapshot snapshot = acquire()) {
+            return snapshot.getCatalog();
+        }
+    }
+
+    /**
+     * Get the version of the current snapshot.
+     *
+     * @return the version, 1 for the first catalog and one more for each publish
+     */
+    public long getVersion() {
+        return current.get().getVersion();
+    }
+
+    /**
+     * Get the number of snapshots not yet freed, the current one plus any old ones still pinned.
+     *
+     * @return the live snapshot count
+     */
+    public int getLiveSnapshots() {
+        return live.get();
+    }
+
+    /**
+     * Publishes a new version. Queries already running keep their snapshot, queries starting
+     * afterwards get the new one.
+     *
+     * @param next the new catalog
+     * @return the version of the new snapshot
+     */
+    public long publish(Catalog next) {
+        synchronized (reloadLock) {
+            Snapshot old = current.get();
+            Snapshot snapshot = new Snapshot(old.getVersion() + 1, next, live);
+            current.set(snapshot);
+            old.close();
+            return snapshot.getVersion();
+        }
+    }
+
+    /**
+     * Applies a delta to the current version and publishes the result. The new catalog is
+     * built while queries go on reading the current one.
+     *
+     * @param delta the changes to apply
+     * @return the version of the new snapshot
+     */
+    public long applyDelta(GameDelta delta) {
+        synchronized (reloadLock) {
+            return publish(current.get().catalog.applyDelta(delta));
+        }
+    }
+
+    /**
+     * One immutable version of the catalog, freed when nothing references it any more.
+     */
+    public static final class Snapshot implements AutoCloseable {
+        /** The version number. */
+        private final long version;
+        /** The references held: the store's while current, plus one per pinning query. */
+        private final AtomicInteger references = new AtomicInteger(1);
+        /** The store's count of live snapshots. */
+        private final AtomicInteger live;
+        /** The catalog, null once freed. */
+        private volatile Catalog catalog;
+
+        /**
+         * Constructor for a snapshot, with the store's reference.
+         *
+         * @param version the version number
+         * @param catalog the catalog
+         * @param live    the store's count of live snapshots
+         */
+        private Snapshot(long version, Catalog catalog, AtomicInteger live) {
+            this.version = version;
+            this.catalog = catalog;
+            this.live = live;
+            live.incrementAndGet();
+        }
+
+        /**
+         * Adds a reference, unless the snapshot is already freed.
+         *
+         * @return true if the reference was added
+         */
+        private boolean retain() {
+            while (true) {
+                int count = references.get();
+                if (count == 0) {
+                    return false;
+                }
+                if (references.compareAndSet(count, count + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * Get the version number.
+         *
+         * @return the version
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * Get the catalog.
+         *
+         * @return the catalog
+         * @throws IllegalStateException if the snapshot has been freed
+         */
+        public Catalog getCatalog() {
+            Catalog pinned = catalog;
+            if (pinned == null) {
+                throw new IllegalStateException("Snapshot " + version + " has been freed");
+            }
+            return pinned;
+        }
+
+        /**
+         * Check if the snapshot has been freed.
+         *
+         * @return true once the last reference is released
+         */
+        public boolean isFreed() {
+            return references.get() == 0;
+        }
+
+        /**
+         * Releases a reference. The last release frees the snapshot, dropping its catalog.
+         */
+        @Override
+        public void close() {
+            if (references.decrementAndGet() == 0) {
+                catalog = null;
+                live.decrementAndGet();
+            }
+        }
+    }
+}
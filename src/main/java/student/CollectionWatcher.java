@@ -0,0 +1,137 @@
+package student;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches a collection csv and applies any changes to a running Planner.
+ *
+ * When the file is created or modified, it is parsed again into an off heap table and
+ * diffed against the planner's table by objectid (see {@link GameDelta#diff(IGameTable, IGameTable)}).
+ * Only the inserts, updates and deletes are built as games and applied, through
+ * {@link Planner#applyDelta(GameDelta)}. When the planner's table is off heap and has not
+ * changed meanwhile, the loaded table becomes the next version as it is, so no third copy
+ * of the collection is built.
+ *
+ * Exports are usually written in several steps, so the watcher waits until the
+ * file has been quiet for a moment before reloading it.
+ */
+public class CollectionWatcher implements AutoCloseable {
+    /** How long the file has to be quiet before it is reloaded. */
+    private static final long QUIET_MILLIS = 250;
+
+    /** The csv file to watch. */
+    private final Path csv;
+    /** The planner to keep up to date. */
+    private final Planner planner;
+    /** Watches the directory holding the csv. */
+    private final WatchService watchService;
+    /** The thread running the watch loop, null until started. */
+    private Thread thread;
+
+    /**
+     * Constructor for the watcher.
+     *
+     * @param csv     the csv file to watch
+     * @param planner the planner to apply changes to
+     * @throws IOException if the directory cannot be watched
+     */
+    public CollectionWatcher(Path csv, Planner planner) throws IOException {
+        this.csv = csv.toAbsolutePath();
+        this.planner = planner;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.csv.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+    }
+
+    /**
+     * Starts watching on a daemon thread, so it does not keep the program running.
+     */
+    public synchronized void start() {
+        if (thread == null) {
+            thread = new Thread(this::watch, "collection-watcher");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Reloads the csv and applies the changes to the planner.
+     *
+     * If the file cannot be read (for example, it is halfway through being replaced),
+     * nothing is applied and the planner keeps its current games.
+     *
+     * @return the changes that were applied, or null if the file could not be read
+     */
+    public GameDelta reload() {
+        try {
+            GameDelta delta = GameDelta.diff(planner.getCatalog().getTable(),
+                    OffHeapGameTable.load(csv, Runtime.getRuntime().availableProcessors()));
+            if (!delta.isEmpty()) {
+                planner.applyDelta(delta);
+            }
+            return delta;
+        } catch (IOException e) {
+            System.err.println("Error reloading file: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * The watch loop, runs until the watcher is closed.
+     */
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = touchesCsv(key);
+                // wait for the writer to finish, then reload once for the whole burst
+                while (changed && (key = watchService.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    touchesCsv(key);
+                }
+                if (changed) {
+                    reload();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // closed, stop watching
+        }
+    }
+
+    /**
+     * Checks a watch key for events on the csv, and resets it for the next events.
+     *
+     * @param key the signalled key
+     * @return true if any event was for the csv
+     */
+    private boolean touchesCsv(WatchKey key) {
+        boolean found = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (csv.getFileName().equals(event.context())) {
+                found = true;
+            }
+        }
+        key.reset();
+        return found;
+    }
+
+    /**
+     * Stops watching the csv.
+     *
+     * @throws IOException if the watch service cannot be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        watchService.close();
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package student;
+
+import java.util.Arrays;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Statistics of one numeric column, used to estimate how many rows a predicate matches.
+ *
+ * Besides the min, max and number of distinct values, the column is summarized by an
+ * equi-depth histogram: bucket boundaries chosen so each bucket holds the same number of
+ * rows. Estimates assume values are spread evenly inside a bucket. A value that fills
+ * whole buckets shows up as repeated boundaries, so frequent values are estimated well too.
+ *
+ * The statistics of a heap table come from its sorted indexes. An off heap table has none, so
+ * its statistics are taken from an evenly spread sample of rows, which keeps the heap they need
+ * the same whatever the size of the table.
+ */
+public final class ColumnStatistics {
+    /** The default number of histogram buckets. */
+    public static final int DEFAULT_BUCKETS = 32;
+    /** The default number of rows read by {@link #sample(IGameTable, GameData, int, int)}. */
+    public static final int DEFAULT_SAMPLES = 1 << 14;
+
+    /** The number of rows. */
+    private final int rows;
+    /** The number of distinct values. */
+    private final int distinct;
+    /** The bucket boundaries, buckets + 1 values from the min to the max. */
+    private final double[] bounds;
+
+    /**
+     * Constructor for the statistics.
+     *
+     * @param rows     the number of rows
+     * @param distinct the number of distinct values
+     * @param bounds   the bucket boundaries
+     */
+    private ColumnStatistics(int rows, int distinct, double[] bounds) {
+        this.rows = rows;
+        this.distinct = distinct;
+        this.bounds = bounds;
+    }
+
+    /**
+     * Collects the statistics of a column from its sorted index.
+     *
+     * @param index   the column's sorted index
+     * @param buckets the number of histogram buckets
+     * @return the statistics
+     */
+    public static ColumnStatistics build(SortedColumnIndex index, int buckets) {
+        int rows = index.size();
+        if (rows == 0) {
+            return new ColumnStatistics(0, 0, new double[0]);
+        }
+        int distinct = 1;
+        for (int i = 1; i < rows; i++) {
+            if (index.valueAt(i) != index.valueAt(i - 1)) {
+                distinct++;
+            }
+        }
+        return new ColumnStatistics(rows, distinct, bounds(index::valueAt, rows, buckets));
+    }
+
+    /**
+     * Collects the statistics of a column from a sample of evenly spread rows, reading the
+     * column directly. The histogram is taken from the sample. The number of distinct values
+     * is scaled up from the values seen only once in the sample, see Charikar et al., "Towards
+     * Estimation Error Guarantees for Distinct Values". When the table has no more rows than
+     * the sample, every row is read and the statistics are the same as from a sorted index.
+     *
+     * @param table   the table
+     * @param column  a numeric column
+     * @param buckets the number of histogram buckets
+     * @param samples the most rows to read
+     * @return the statistics
+     * @throws IllegalArgumentException if the column is not numeric
+     */
+    public static ColumnStatistics sample(IGameTable table, GameData column, int buckets, int samples) {
+        IntUnaryOperator ints = table.intColumn(column);
+        IntToDoubleFunction doubles = ints == null ? table.doubleColumn(column) : null;
+        if (ints == null && doubles == null) {
+            throw new IllegalArgumentException("The column " + column.getColumnName() + " is not numeric");
+        }
+        int size = table.size();
+        int count = Math.min(samples, size);
+        double[] values = new double[count];
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            int row = (int) ((long) i * size / count);
+            double value = ints != null ? ints.applyAsInt(row) : doubles.applyAsDouble(row);
+            // like the sorted index, NaN rows are left out
+            if (!Double.isNaN(value)) {
+                values[kept++] = value;
+            }
+        }
+        if (kept == 0) {
+            return new ColumnStatistics(0, 0, new double[0]);
+        }
+        Arrays.sort(values, 0, kept);
+        int seen = 0;
+        int once = 0;
+        for (int i = 0; i < kept; i++) {
+            if (i == 0 || values[i] != values[i - 1]) {
+                seen++;
+                if (i + 1 == kept || values[i + 1] != values[i]) {
+                    once++;
+                }
+            }
+        }
+        int rows = (int) ((long) kept * size / count);
+        long distinct = count == size ? seen : Math.round(Math.sqrt((double) size / count) * once) + seen - once;
+        return new ColumnStatistics(rows, (int) Math.max(seen, Math.min(rows, distinct)),
+                bounds(position -> values[position], kept, buckets));
+    }
+
+    /**
+     * Picks the bucket boundaries of an equi-depth histogram from sorted values.
+     *
+     * @param valueAt gets a value by its position, ascending
+     * @param count   the number of values, at least one
+     * @param buckets the number of buckets
+     * @return the boundaries, one more than the buckets
+     */
+    private static double[] bounds(IntToDoubleFunction valueAt, int count, int buckets) {
+        int used = Math.min(buckets, count);
+        double[] bounds = new double[used + 1];
+        for (int b = 0; b < used; b++) {
+            bounds[b] = valueAt.applyAsDouble((int) ((long) b * count / used));
+        }
+        bounds[used] = valueAt.applyAsDouble(count - 1);
+        return bounds;
+    }
+
+    /**
+     * Get the number of rows.
+     *
+     * @return the row count
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Get the number of distinct values.
+     *
+     * @return the distinct count
+     */
+    public int getDistinct() {
+        return distinct;
+    }
+
+    /**
+     * Get the smallest value.
+     *
+     * @return the min, NaN if there are no rows
+     */
+    public double getMin() {
+        return rows == 0 ? Double.NaN : bounds[0];
+    }
+
+    /**
+     * Get the largest value.
+     *
+     * @return the max, NaN if there are no rows
+     */
+    public double getMax() {
+        return rows == 0 ? Double.NaN : bounds[bounds.length - 1];
+    }
+
+    /**
+     * Get the number of histogram buckets.
+     *
+     * @return the bucket count
+     */
+    public int getBuckets() {
+        return Math.max(0, bounds.length - 1);
+    }
+
+    /**
+     * Estimates the fraction of rows equal to a value.
+     *
+     * @param value the value
+     * @return the estimated fraction, from 0 to 1, 0 for NaN
+     */
+    public double equalFraction(double value) {
+        if (rows == 0 || Double.isNaN(value) || value < getMin() || value > getMax()) {
+            return 0;
+        }
+        int buckets = getBuckets();
+        int full = 0;
+        for (int b = 0; b < buckets; b++) {
+            if (bounds[b] == value && bounds[b + 1] == value) {
+                full++;
+            }
+        }
+        return Math.max((double) full / buckets, 1.0 / distinct);
+    }
+
+    /**
+     * Estimates the fraction of rows less than a value.
+     *
+     * @param value the value
+     * @return the estimated fraction, from 0 to 1, 0 for NaN
+     */
+    public double lessFraction(double value) {
+        if (rows == 0 || Double.isNaN(value) || value <= getMin()) {
+            return 0;
+        }
+        if (value > getMax()) {
+            return 1;
+        }
+        int buckets = getBuckets();
+        // the first bucket whose upper bound is at least the value
+        int b = 0;
+        while (bounds[b + 1] < value) {
+            b++;
+        }
+        double width = bounds[b + 1] - bounds[b];
+        double inside = width == 0 ? 0 : (value - bounds[b]) / width;
+        return Math.min(1, (b + inside) / buckets);
+    }
+
+    /**
+     * Estimates the fraction of rows that match a comparison.
+     *
+     * @param op    the comparison, not CONTAINS
+     * @param value the value
+     * @return the estimated fraction, from 0 to 1
+     */
+    public double selectivity(Operations op, double value) {
+        if (Double.isNaN(value)) {
+            // every comparison with NaN is false but !=
+            return op == Operations.NOT_EQUALS ? 1 : 0;
+        }
+        double equal = equalFraction(value);
+        double less = lessFraction(value);
+        double fraction = switch (op) {
+            case EQUALS -> equal;
+            case NOT_EQUALS -> 1 - equal;
+            case LESS_THAN -> less;
+            case LESS_THAN_EQUALS -> less + equal;
+            case GREATER_THAN -> 1 - less - equal;
+            case GREATER_THAN_EQUALS -> 1 - less;
+            default -> 1;
+        };
+        return Math.max(0, Math.min(1, fraction));
+    }
+
+    /**
+     * Get a short summary of the statistics.
+     *
+     * @return the row count, distinct count, min and max
+     */
+    @Override
+    public String toString() {
+        return "ColumnStatistics{rows=" + rows + ", distinct=" + distinct + ", min=" + getMin()
+                + ", max=" + getMax() + ", buckets=" + getBuckets() + '}';
+    }
+}
@@ -0,0 +1,120 @@
+package student;
+
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * The count, sum, min and max of a numeric column over a set of rows, and their average.
+ *
+ * Summaries are computed without sorting the rows or building any {@link BoardGame}: either
+ * in one pass over the column with {@link #of(IGameTable, GameData, CompressedBitmap)}, or
+ * straight from the prefix sums of a {@link SortedColumnIndex}. The sum of no rows is 0, and
+ * their min, max and average are NaN.
+ */
+public final class ColumnSummary {
+    /** The number of rows. */
+    private final long count;
+    /** The sum of the values. */
+    private final double sum;
+    /** The smallest value, NaN if there are no rows. */
+    private final double min;
+    /** The largest value, NaN if there are no rows. */
+    private final double max;
+
+    /**
+     * Constructor for a summary.
+     *
+     * @param count the number of rows
+     * @param sum   the sum of the values
+     * @param min   the smallest value
+     * @param max   the largest value
+     */
+    ColumnSummary(long count, double sum, double min, double max) {
+        this.count = count;
+        this.sum = count == 0 ? 0 : sum;
+        this.min = count == 0 ? Double.NaN : min;
+        this.max = count == 0 ? Double.NaN : max;
+    }
+
+    /**
+     * Summarizes a numeric column over some rows, in one pass.
+     *
+     * @param table  the table
+     * @param column a numeric column
+     * @param rows   the rows of the table to summarize
+     * @return the summary
+     * @throws IllegalArgumentException if the column is not numeric
+     */
+    public static ColumnSummary of(IGameTable table, GameData column, CompressedBitmap rows) {
+        IntUnaryOperator ints = table.intColumn(column);
+        IntToDoubleFunction doubles = ints == null ? table.doubleColumn(column) : null;
+        if (ints == null && doubles == null) {
+            throw new IllegalArgumentException("The column " + column.getColumnName() + " is not numeric");
+        }
+        double sum = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int row : rows.toArray()) {
+            double value = ints != null ? ints.applyAsInt(row) : doubles.applyAsDouble(row);
+            sum += value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        return new ColumnSummary(rows.cardinality(), sum, min, max);
+    }
+
+    /**
+     * Get the number of rows.
+     *
+     * @return the count
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Get the sum of the values.
+     *
+     * @return the sum, 0 if there are no rows
+     */
+    public double getSum() {
+        return sum;
+    }
+
+    /**
+     * Get the smallest value.
+     *
+     * @return the min, NaN if there are no rows
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * Get the largest value.
+     *
+     * @return the max, NaN if there are no rows
+     */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Get the average of the values.
+     *
+     * @return the average, NaN if there are no rows
+     */
+    public double getAverage() {
+        return count == 0 ? Double.NaN : sum / count;
+    }
+
+    /**
+     * Get a description of the summary.
+     *
+     * @return the count, sum, min, max and average
+     */
+    @Override
+    public String toString() {
+        return String.format("count=%d sum=%s min=%s max=%s avg=%s", count, sum, min, max, getAverage());
+    }
+}
@@ -0,0 +1,608 @@
+package student;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * An immutable compressed set of row ids, laid out like a Roaring bitmap.
+ *
+ * Row ids are split into chunks of 65536 by their high 16 bits. Each chunk that has any
+ * rows gets a container holding the low 16 bits: a sorted char array when it has at most
+ * 4096 rows, or a 65536 bit set when it has more. Sparse sets stay small, dense sets cost
+ * at most one bit per row, and AND / OR / AND NOT work a chunk at a time.
+ *
+ * The cardinality is kept per container, so counting is free and finding the n-th row
+ * skips whole chunks, see {@link #page(int, int)}.
+ */
+public final class CompressedBitmap {
+    /** The empty set. */
+    public static final CompressedBitmap EMPTY = new CompressedBitmap(new char[0], new Container[0]);
+
+    /** The most rows an array container holds, above this a bit set is smaller. */
+    private static final int ARRAY_MAX = 4096;
+    /** The number of longs in a bit set container. */
+    private static final int WORDS = 1024;
+
+    /** The high 16 bits of each chunk that has rows, sorted. */
+    private final char[] keys;
+    /** The container of each chunk, in the same order as keys. */
+    private final Container[] containers;
+    /** The number of rows. */
+    private final int cardinality;
+
+    /**
+     * Constructor for the bitmap.
+     *
+     * @param keys       the chunk keys, sorted
+     * @param containers the non empty container of each chunk
+     */
+    private CompressedBitmap(char[] keys, Container[] containers) {
+        this.keys = keys;
+        this.containers = containers;
+        int total = 0;
+        for (Container container : containers) {
+            total += container.cardinality;
+        }
+        this.cardinality = total;
+    }
+
+    /**
+     * Builds a bitmap from row ids in any order. Duplicates are ignored.
+     *
+     * @param rows the row ids, none negative
+     * @return the bitmap
+     */
+    public static CompressedBitmap of(int... rows) {
+        int[] sorted = rows.clone();
+        Arrays.sort(sorted);
+        return ofSorted(sorted);
+    }
+
+    /**
+     * Builds a bitmap from row ids in ascending order, without sorting them again.
+     *
+     * @param rows the row ids, ascending, none negative
+     * @return the bitmap
+     * @throws IllegalArgumentException if the rows are not in ascending order
+     */
+    public static CompressedBitmap ofSorted(int[] rows) {
+        Builder builder = new Builder();
+        for (int row : rows) {
+            builder.add(row);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Builds a bitmap from a plain bit set, bit {@code row & 63} of word {@code row >>> 6} for
+     * each row. Each 65536 bit chunk becomes one container directly.
+     *
+     * @param words the bit set, not changed
+     * @return the bitmap
+     */
+    public static CompressedBitmap fromWords(long[] words) {
+        int chunks = (words.length + WORDS - 1) / WORDS;
+        char[] outKeys = new char[chunks];
+        Container[] out = new Container[chunks];
+        int count = 0;
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            long[] bits = Arrays.copyOfRange(words, chunk * WORDS, (chunk + 1) * WORDS);
+            int cardinality = 0;
+            for (long word : bits) {
+                cardinality += Long.bitCount(word);
+            }
+            Container container = Container.fromBits(bits, cardinality);
+            if (container != null) {
+                outKeys[count] = (char) chunk;
+                out[count++] = container;
+            }
+        }
+        return new CompressedBitmap(Arrays.copyOf(outKeys, count), Arrays.copyOf(out, count));
+    }
+
+    /**
+     * Builds the bitmap of a range of row ids.
+     *
+     * @param from the first row id
+     * @param to   the row id after the last one
+     * @return the bitmap
+     */
+    public static CompressedBitmap range(int from, int to) {
+        Builder builder = new Builder();
+        for (int row = from; row < to; row++) {
+            builder.add(row);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Get the number of rows.
+     *
+     * @return the cardinality
+     */
+    public int cardinality() {
+        return cardinality;
+    }
+
+    /**
+     * Check if there are no rows.
+     *
+     * @return true if the set is empty
+     */
+    public boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    /**
+     * Checks if a row is in the set.
+     *
+     * @param row the row id
+     * @return true if the row is in the set
+     */
+    public boolean contains(int row) {
+        int at = Arrays.binarySearch(keys, (char) (row >>> 16));
+        return row >= 0 && at >= 0 && containers[at].contains(row & 0xFFFF);
+    }
+
+    /**
+     * Intersects with another bitmap.
+     *
+     * @param other the other bitmap
+     * @return the rows in both
+     */
+    public CompressedBitmap and(CompressedBitmap other) {
+        int length = Math.min(keys.length, other.keys.length);
+        char[] outKeys = new char[length];
+        Container[] out = new Container[length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < keys.length && j < other.keys.length) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                Container both = containers[i].and(other.containers[j]);
+                if (both != null) {
+                    outKeys[count] = keys[i];
+                    out[count++] = both;
+                }
+                i++;
+                j++;
+            }
+        }
+        return new CompressedBitmap(Arrays.copyOf(outKeys, count), Arrays.copyOf(out, count));
+    }
+
+    /**
+     * Removes the rows of another bitmap, the complement of other within this set.
+     *
+     * @param other the rows to remove
+     * @return the rows in this set but not in other
+     */
+    public CompressedBitmap andNot(CompressedBitmap other) {
+        char[] outKeys = new char[keys.length];
+        Container[] out = new Container[keys.length];
+        int count = 0;
+        int j = 0;
+        for (int i = 0; i < keys.length; i++) {
+            while (j < other.keys.length && other.keys[j] < keys[i]) {
+                j++;
+            }
+            Container kept = j < other.keys.length && other.keys[j] == keys[i]
+                    ? containers[i].andNot(other.containers[j]) : containers[i];
+            if (kept != null) {
+                outKeys[count] = keys[i];
+                out[count++] = kept;
+            }
+        }
+        return new CompressedBitmap(Arrays.copyOf(outKeys, count), Arrays.copyOf(out, count));
+    }
+
+    /**
+     * Unites with another bitmap.
+     *
+     * @param other the other bitmap
+     * @return the rows in either
+     */
+    public CompressedBitmap or(CompressedBitmap other) {
+        int length = keys.length + other.keys.length;
+        char[] outKeys = new char[length];
+        Container[] out = new Container[length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < keys.length || j < other.keys.length) {
+            if (j == other.keys.length || i < keys.length && keys[i] < other.keys[j]) {
+                outKeys[count] = keys[i];
+                out[count++] = containers[i++];
+            } else if (i == keys.length || keys[i] > other.keys[j]) {
+                outKeys[count] = other.keys[j];
+                out[count++] = other.containers[j++];
+            } else {
+                outKeys[count] = keys[i];
+                out[count++] = containers[i++].or(other.containers[j++]);
+            }
+        }
+        return new CompressedBitmap(Arrays.copyOf(outKeys, count), Arrays.copyOf(out, count));
+    }
+
+    /**
+     * Get every row id.
+     *
+     * @return the row ids, ascending
+     */
+    public int[] toArray() {
+        return page(0, cardinality);
+    }
+
+    /**
+     * Get a stream of every row id.
+     *
+     * @return the row ids, ascending
+     */
+    public IntStream stream() {
+        return IntStream.of(toArray());
+    }
+
+    /**
+     * Get a page of row ids, skipping whole chunks before the offset.
+     *
+     * @param offset the number of rows to skip
+     * @param limit  the most rows to return
+     * @return the row ids, ascending
+     */
+    public int[] page(int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Offset and limit can't be negative");
+        }
+        int[] rows = new int[Math.max(0, Math.min(limit, cardinality - offset))];
+        int skip = offset;
+        int count = 0;
+        for (int c = 0; c < containers.length && count < rows.length; c++) {
+            Container container = containers[c];
+            if (skip >= container.cardinality) {
+                skip -= container.cardinality;
+                continue;
+            }
+            count = container.copyTo(keys[c] << 16, skip, rows, count);
+            skip = 0;
+        }
+        return rows;
+    }
+
+    /**
+     * Estimates the memory the bitmap takes.
+     *
+     * @return the estimated size in bytes
+     */
+    public long sizeInBytes() {
+        long bytes = 16L + keys.length * 2L;
+        for (Container container : containers) {
+            bytes += container.sizeInBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Get a short description of the bitmap.
+     *
+     * @return the cardinality and the number of chunks
+     */
+    @Override
+    public String toString() {
+        return "CompressedBitmap{cardinality=" + cardinality + ", chunks=" + keys.length + '}';
+    }
+
+    /**
+     * Builds a bitmap from row ids added in ascending order.
+     */
+    public static final class Builder {
+        /** The keys of the finished chunks. */
+        private char[] keys = new char[4];
+        /** The finished containers. */
+        private final List<Container> containers = new ArrayList<>();
+        /** The bits of the chunk being filled. */
+        private final long[] scratch = new long[WORDS];
+        /** The key of the chunk being filled, -1 before the first row. */
+        private int key = -1;
+        /** The number of rows in the chunk being filled. */
+        private int count;
+        /** The last row added. */
+        private int last = -1;
+
+        /**
+         * Adds a row. Adding the last row again does nothing.
+         *
+         * @param row the row id, greater than or equal to the last one added
+         * @return this builder
+         * @throws IllegalArgumentException if the row is negative or out of order
+         */
+        public Builder add(int row) {
+            if (row < 0) {
+                throw new IllegalArgumentException("Row ids can't be negative: " + row);
+            }
+            if (row <= last) {
+                if (row == last) {
+                    return this;
+                }
+                throw new IllegalArgumentException("Rows must be added in ascending order");
+            }
+            last = row;
+            if (row >>> 16 != key) {
+                flush();
+                key = row >>> 16;
+            }
+            scratch[(row & 0xFFFF) >>> 6] |= 1L << row;
+            count++;
+            return this;
+        }
+
+        /**
+         * Finishes the chunk being filled.
+         */
+        private void flush() {
+            if (count > 0) {
+                if (containers.size() == keys.length) {
+                    keys = Arrays.copyOf(keys, keys.length * 2);
+                }
+                keys[containers.size()] = (char) key;
+                containers.add(Container.fromBits(scratch.clone(), count));
+                Arrays.fill(scratch, 0);
+                count = 0;
+            }
+        }
+
+        /**
+         * Builds the bitmap. The builder should not be used afterwards.
+         *
+         * @return the bitmap of every row added
+         */
+        public CompressedBitmap build() {
+            flush();
+            return new CompressedBitmap(Arrays.copyOf(keys, containers.size()), containers.toArray(new Container[0]));
+        }
+    }
+
+    /**
+     * The low 16 bits of the rows in one chunk, either a sorted array or a bit set.
+     */
+    private static final class Container {
+        /** The sorted values, or null for a bit set. */
+        private final char[] array;
+        /** The bits, or null for an array. */
+        private final long[] bits;
+        /** The number of values. */
+        private final int cardinality;
+
+        /**
+         * Constructor for a container, only one of array and bits is set.
+         *
+         * @param array       the sorted values, or null
+         * @param bits        the bits, or null
+         * @param cardinality the number of values
+         */
+        private Container(char[] array, long[] bits, int cardinality) {
+            this.array = array;
+            this.bits = bits;
+            this.cardinality = cardinality;
+        }
+
+        /**
+         * Builds the smaller container for a bit set.
+         *
+         * @param bits        the bits, owned by the container from now on
+         * @param cardinality the number of bits set
+         * @return the container, or null if it is empty
+         */
+        static Container fromBits(long[] bits, int cardinality) {
+            if (cardinality == 0) {
+                return null;
+            }
+            if (cardinality > ARRAY_MAX) {
+                return new Container(null, bits, cardinality);
+            }
+            char[] values = new char[cardinality];
+            int count = 0;
+            for (int w = 0; w < WORDS; w++) {
+                long word = bits[w];
+                while (word != 0) {
+                    values[count++] = (char) (w << 6 | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return new Container(values, null, cardinality);
+        }
+
+        /**
+         * Checks if a value is in the container.
+         *
+         * @param low the low 16 bits of a row
+         * @return true if it is in the container
+         */
+        boolean contains(int low) {
+            if (bits != null) {
+                return (bits[low >>> 6] & 1L << low) != 0;
+            }
+            return Arrays.binarySearch(array, (char) low) >= 0;
+        }
+
+        /**
+         * Sets the container's values in a bit set.
+         *
+         * @param words the bit set to add to
+         */
+        void orInto(long[] words) {
+            if (bits != null) {
+                for (int w = 0; w < WORDS; w++) {
+                    words[w] |= bits[w];
+                }
+            } else {
+                for (char value : array) {
+                    words[value >>> 6] |= 1L << value;
+                }
+            }
+        }
+
+        /**
+         * Intersects with another container.
+         *
+         * @param other the other container
+         * @return the values in both, or null if there are none
+         */
+        Container and(Container other) {
+            if (array != null && other.array != null) {
+                char[] both = new char[Math.min(array.length, other.array.length)];
+                int count = 0;
+                int i = 0;
+                int j = 0;
+                while (i < array.length && j < other.array.length) {
+                    if (array[i] < other.array[j]) {
+                        i++;
+                    } else if (array[i] > other.array[j]) {
+                        j++;
+                    } else {
+                        both[count++] = array[i];
+                        i++;
+                        j++;
+                    }
+                }
+                return count == 0 ? null : new Container(Arrays.copyOf(both, count), null, count);
+            }
+            if (array != null || other.array != null) {
+                Container small = array != null ? this : other;
+                Container large = array != null ? other : this;
+                char[] both = new char[small.cardinality];
+                int count = 0;
+                for (char value : small.array) {
+                    if ((large.bits[value >>> 6] & 1L << value) != 0) {
+                        both[count++] = value;
+                    }
+                }
+                return count == 0 ? null : new Container(Arrays.copyOf(both, count), null, count);
+            }
+            long[] words = new long[WORDS];
+            int count = 0;
+            for (int w = 0; w < WORDS; w++) {
+                words[w] = bits[w] & other.bits[w];
+                count += Long.bitCount(words[w]);
+            }
+            return fromBits(words, count);
+        }
+
+        /**
+         * Removes the values of another container.
+         *
+         * @param other the values to remove
+         * @return the values only in this container, or null if there are none
+         */
+        Container andNot(Container other) {
+            if (array != null) {
+                char[] kept = new char[array.length];
+                int count = 0;
+                for (char value : array) {
+                    if (!other.contains(value)) {
+                        kept[count++] = value;
+                    }
+                }
+                return count == 0 ? null : new Container(Arrays.copyOf(kept, count), null, count);
+            }
+            long[] words = bits.clone();
+            if (other.array != null) {
+                for (char value : other.array) {
+                    words[value >>> 6] &= ~(1L << value);
+                }
+            } else {
+                for (int w = 0; w < WORDS; w++) {
+                    words[w] &= ~other.bits[w];
+                }
+            }
+            int count = 0;
+            for (long word : words) {
+                count += Long.bitCount(word);
+            }
+            return fromBits(words, count);
+        }
+
+        /**
+         * Unites with another container.
+         *
+         * @param other the other container
+         * @return the values in either
+         */
+        Container or(Container other) {
+            if (array != null && other.array != null && array.length + other.array.length <= ARRAY_MAX) {
+                char[] either = new char[array.length + other.array.length];
+                int count = 0;
+                int i = 0;
+                int j = 0;
+                while (i < array.length || j < other.array.length) {
+                    if (j == other.array.length || i < array.length && array[i] < other.array[j]) {
+                        either[count++] = array[i++];
+                    } else if (i == array.length || array[i] > other.array[j]) {
+                        either[count++] = other.array[j++];
+                    } else {
+                        either[count++] = array[i++];
+                        j++;
+                    }
+                }
+                return new Container(Arrays.copyOf(either, count), null, count);
+            }
+            long[] words = new long[WORDS];
+            orInto(words);
+            other.orInto(words);
+            int count = 0;
+            for (long word : words) {
+                count += Long.bitCount(word);
+            }
+            return fromBits(words, count);
+        }
+
+        /**
+         * Copies values into an array of row ids, after skipping some.
+         *
+         * @param high the high bits of the chunk, already shifted
+         * @param skip the number of values to skip
+         * @param out  the array to fill
+         * @param at   the first position to fill
+         * @return the position after the last one filled
+         */
+        int copyTo(int high, int skip, int[] out, int at) {
+            if (array != null) {
+                for (int i = skip; i < array.length && at < out.length; i++) {
+                    out[at++] = high | array[i];
+                }
+                return at;
+            }
+            for (int w = 0; w < WORDS && at < out.length; w++) {
+                long word = bits[w];
+                int inWord = Long.bitCount(word);
+                if (skip >= inWord) {
+                    skip -= inWord;
+                    continue;
+                }
+                while (word != 0 && at < out.length) {
+                    if (skip > 0) {
+                        skip--;
+                    } else {
+                        out[at++] = high | w << 6 | Long.numberOfTrailingZeros(word);
+                    }
+                    word &= word - 1;
+                }
+            }
+            return at;
+        }
+
+        /**
+         * Estimates the memory the container takes.
+         *
+         * @return the estimated size in bytes
+         */
+        long sizeInBytes() {
+            return 32L + (array != null ? array.length * 2L : WORDS * 8L);
+        }
+    }
+}
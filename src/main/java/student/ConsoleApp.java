@@ -83,7 +83,8 @@ public class ConsoleApp {
      * Generate a random number based on the current filter.
      */
     private void randomNumber() {
-        int max = (int) planner.filter("").count();
+        // a Planner counts without sorting, other planners only offer filter
+        int max = (int) (planner instanceof Planner counter ? counter.count("") : planner.filter("").count());
         if (max > 0) {
             int random = RND.nextInt(max) + 1; // random is 0-(max-1) so add 1.
             printOutput("%s %d%n", ConsoleText.EASTER_EGG, random);
@@ -156,9 +157,20 @@ public class ConsoleApp {
                     }
                 }
 
-                result = planner.filter(parts[0], sortON, ascending);  // NOTICE: sortON and ascending are used here.
+                try {
+                    // NOTICE: sortON and ascending are used here.
+                    result = planner.filter(parts[0], sortON, ascending);
+                } catch (IllegalArgumentException e) {
+                    printOutput("%s%n", ConsoleText.INVALID);
+                    return; // leave early.
+                }
             } else {
-                result = planner.filter(filter); // default sort
+                try {
+                    result = planner.filter(filter); // default sort
+                } catch (IllegalArgumentException e) {
+                    printOutput("%s%n", ConsoleText.INVALID);
+                    return; // leave early.
+                }
             }
         } else {
             printOutput("%s%n", ConsoleText.NO_FILTER);
@@ -0,0 +1,143 @@
+package student;
+
+import java.util.Map;
+
+/**
+ * The columns of a collection csv that the loaders actually need.
+ *
+ * Built once from the header, it lines up each field index with its GameData column,
+ * and knows the last field that is needed. Rows are tokenized only up to that field,
+ * so wide trailing columns (comments, wishlists and so on) are skipped without being
+ * split or copied.
+ */
+public final class CsvProjection {
+    /** The column of each field up to the last needed one, null for fields that are not used. */
+    private final GameData[] fields;
+
+    /** Number of columns that have to be found for a row to be valid. */
+    private static final int COLUMN_COUNT = GameData.values().length;
+
+    /**
+     * Constructor for the projection.
+     *
+     * @param fields the column of each field, ending with the last needed field
+     */
+    private CsvProjection(GameData[] fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * Builds the projection from the header line.
+     *
+     * @param header the header line
+     * @return the projection for rows under this header
+     */
+    public static CsvProjection fromHeader(String header) {
+        Map<GameData, Integer> columnMap = GamesLoader.processHeader(header);
+        int width = columnMap.values().stream().max(Integer::compareTo).orElse(-1) + 1;
+        GameData[] fields = new GameData[width];
+        columnMap.forEach((col, index) -> fields[index] = col);
+        return new CsvProjection(fields);
+    }
+
+    /**
+     * Get the index of the last field that is needed. Tokenizing can stop after it.
+     *
+     * @return the last needed field index, -1 if no fields are needed
+     */
+    public int getLastField() {
+        return fields.length - 1;
+    }
+
+    /**
+     * Get the column that a field holds.
+     *
+     * @param field the field index
+     * @return the column, or null if the field is not needed
+     */
+    public GameData columnAt(int field) {
+        return field < fields.length ? fields[field] : null;
+    }
+
+    /**
+     * Converts a line from the csv file into a BoardGame object.
+     *
+     * Fields are found with indexOf, only up to the last needed field, and ints are
+     * parsed straight from the line without a substring.
+     *
+     * @param line the line to convert
+     * @return a BoardGame object, or null if the row is missing columns or a number does not parse
+     */
+    public BoardGame parse(String line) {
+        double[] values = new double[COLUMN_COUNT];
+        String name = null;
+        int found = 0;
+        int start = 0;
+        try {
+            for (int field = 0; field < fields.length; field++) {
+                int comma = line.indexOf(',', start);
+                int end = comma < 0 ? line.length() : comma;
+                GameData col = fields[field];
+                if (col != null) {
+                    switch (col) {
+                        case NAME -> name = line.substring(start, end);
+                        case RATING, DIFFICULTY -> values[col.ordinal()] =
+                                Double.parseDouble(line.substring(start, end));
+                        default -> values[col.ordinal()] = Integer.parseInt(line, start, end, 10);
+                    }
+                    found++;
+                }
+                if (comma < 0) {
+                    break;
+                }
+                start = comma + 1;
+            }
+        } catch (NumberFormatException e) {
+            // skip if there is an issue
+            return null;
+        }
+        return toBoardGame(name, values, found);
+    }
+
+    /**
+     * Builds the game once all columns of a row are parsed.
+     *
+     * @param name   the name column
+     * @param values the numeric columns, indexed by GameData ordinal
+     * @param found  how many columns were found in the row
+     * @return a BoardGame object, or null if any column was missing
+     */
+    static BoardGame toBoardGame(String name, double[] values, int found) {
+        return isComplete(found) ? toBoardGame(name, values) : null;
+    }
+
+    /**
+     * Checks that a row had every column.
+     *
+     * @param found how many columns were found in the row
+     * @return true if no column was missing
+     */
+    static boolean isComplete(int found) {
+        return found >= COLUMN_COUNT;
+    }
+
+    /**
+     * Builds the game from a row that has every column.
+     *
+     * @param name   the name column
+     * @param values the numeric columns, indexed by GameData ordinal
+     * @return a BoardGame object
+     */
+    static BoardGame toBoardGame(String name, double[] values) {
+        return new BoardGame(name,
+                (int) values[GameData.ID.ordinal()],
+                (int) values[GameData.MIN_PLAYERS.ordinal()],
+                (int) values[GameData.MAX_PLAYERS.ordinal()],
+                (int) values[GameData.MIN_TIME.ordinal()],
+                (int) values[GameData.MAX_TIME.ordinal()],
+                values[GameData.DIFFICULTY.ordinal()],
+                (int) values[GameData.RANK.ordinal()],
+                values[GameData.RATING.ordinal()],
+                (int) values[GameData.YEAR.ordinal()]);
+    }
+}
@@ -0,0 +1,235 @@
+package student;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * How to bucket one numeric column when counting a selection of games by it, such as by
+ * player count, by decade or by rating.
+ *
+ * A bucket is named by its lower bound. There are three kinds of facets:
+ * <ul>
+ *     <li>{@link #distinct(GameData)}: one bucket per value</li>
+ *     <li>{@link #width(GameData, double)}: buckets of the same width, from 0, so
+ *     {@code width(YEAR, 10)} counts by decade</li>
+ *     <li>{@link #bounds(GameData, double...)}: buckets from each bound up to the next one, the
+ *     last one open ended; values below the first bound are not counted</li>
+ * </ul>
+ *
+ * {@link #count(List, CompressedBitmap, IGameTable, GameIndexes)} counts every facet at once.
+ * A column with a {@link BitmapIndex} is counted by intersecting the selection with the bitmap
+ * of each value, without reading any row. The other columns are counted together in a single
+ * pass over the selection.
+ */
+public final class Facet {
+    /** The column. */
+    private final GameData column;
+    /** The width of the buckets, or 0 for one bucket per value or by bounds. */
+    private final double width;
+    /** The ascending lower bounds of the buckets, or null. */
+    private final double[] bounds;
+
+    /**
+     * Constructor for a facet.
+     *
+     * @param column the column
+     * @param width  the width of the buckets, 0 if not by width
+     * @param bounds the lower bounds of the buckets, null if not by bounds
+     * @throws IllegalArgumentException if the column is not numeric
+     */
+    private Facet(GameData column, double width, double[] bounds) {
+        if (column == GameData.NAME) {
+            throw new IllegalArgumentException("The column " + column.getColumnName() + " is not numeric");
+        }
+        this.column = column;
+        this.width = width;
+        this.bounds = bounds;
+    }
+
+    /**
+     * Builds a facet with one bucket per value of a column.
+     *
+     * @param column a numeric column
+     * @return the facet
+     * @throws IllegalArgumentException if the column is not numeric
+     */
+    public static Facet distinct(GameData column) {
+        return new Facet(column, 0, null);
+    }
+
+    /**
+     * Builds a facet with buckets of the same width, starting from 0.
+     *
+     * @param column a numeric column
+     * @param width  the width of each bucket
+     * @return the facet
+     * @throws IllegalArgumentException if the column is not numeric or the width is not positive
+     */
+    public static Facet width(GameData column, double width) {
+        if (!(width > 0) || Double.isInfinite(width)) {
+            throw new IllegalArgumentException("The bucket width must be positive, was " + width);
+        }
+        return new Facet(column, width, null);
+    }
+
+    /**
+     * Builds a facet with buckets between bounds.
+     *
+     * @param column a numeric column
+     * @param bounds the lower bound of each bucket, ascending
+     * @return the facet
+     * @throws IllegalArgumentException if the column is not numeric, or the bounds are missing
+     *                                  or not ascending
+     */
+    public static Facet bounds(GameData column, double... bounds) {
+        if (bounds.length == 0) {
+            throw new IllegalArgumentException("A facet needs at least one bound");
+        }
+        for (int i = 1; i < bounds.length; i++) {
+            if (!(bounds[i - 1] < bounds[i])) {
+                throw new IllegalArgumentException("The bounds must be ascending: " + Arrays.toString(bounds));
+            }
+        }
+        return new Facet(column, 0, bounds.clone());
+    }
+
+    /**
+     * Get the column.
+     *
+     * @return the column the facet buckets
+     */
+    public GameData getColumn() {
+        return column;
+    }
+
+    /**
+     * Finds the bucket of a value.
+     *
+     * @param value the value
+     * @return the lower bound of its bucket, or NaN if the value is below every bound
+     */
+    public double bucketOf(double value) {
+        if (bounds != null) {
+            int at = Arrays.binarySearch(bounds, value);
+            // a miss returns -(insertion point) - 1, and the bucket is the bound before that point
+            int bucket = at >= 0 ? at : -at - 2;
+            return bucket < 0 ? Double.NaN : bounds[bucket];
+        }
+        if (width > 0) {
+            return Math.floor(value / width) * width;
+        }
+        return value;
+    }
+
+    /**
+     * Counts a selection of rows by several facets.
+     *
+     * @param facets  the facets
+     * @param rows    the selected rows
+     * @param table   the table the row ids belong to
+     * @param indexes the table's indexes, or null to always read the rows
+     * @return the buckets of each facet in the order given, each from its lower bound to its
+     *         number of rows; empty buckets are left out
+     * @throws IllegalArgumentException if a facet's column is not in the table
+     */
+    public static Map<Facet, SortedMap<Double, Integer>> count(List<Facet> facets, CompressedBitmap rows,
+                                                               IGameTable table, GameIndexes indexes) {
+        Map<Facet, SortedMap<Double, Integer>> counts = new LinkedHashMap<>();
+        List<Facet> scanned = new ArrayList<>();
+        for (Facet facet : facets) {
+            BitmapIndex index = indexes == null ? null : indexes.bitmapIndex(facet.column);
+            // an intersection per value only pays off when the selection has more rows than values
+            if (index != null && rows.cardinality() >= index.distinctValues()) {
+                counts.put(facet, facet.intersect(index, rows));
+            } else {
+                // keeps the facet's place in the order, filled in after the pass
+                counts.put(facet, null);
+                scanned.add(facet);
+            }
+        }
+        if (scanned.isEmpty()) {
+            return counts;
+        }
+        IntToDoubleFunction[] readers = new IntToDoubleFunction[scanned.size()];
+        List<Map<Double, int[]>> tallies = new ArrayList<>();
+        for (int f = 0; f < readers.length; f++) {
+            readers[f] = scanned.get(f).values(table);
+            tallies.add(new HashMap<>());
+        }
+        for (int row : rows.toArray()) {
+            for (int f = 0; f < readers.length; f++) {
+                double bucket = scanned.get(f).bucketOf(readers[f].applyAsDouble(row));
+                if (!Double.isNaN(bucket)) {
+                    tallies.get(f).computeIfAbsent(bucket, key -> new int[1])[0]++;
+                }
+            }
+        }
+        for (int f = 0; f < readers.length; f++) {
+            SortedMap<Double, Integer> buckets = new TreeMap<>();
+            tallies.get(f).forEach((bucket, count) -> buckets.put(bucket, count[0]));
+            counts.put(scanned.get(f), buckets);
+        }
+        return counts;
+    }
+
+    /**
+     * Counts a selection by intersecting it with the bitmap of each value of the column.
+     *
+     * @param index the column's bitmap index
+     * @param rows  the selected rows
+     * @return the non-empty buckets
+     */
+    private SortedMap<Double, Integer> intersect(BitmapIndex index, CompressedBitmap rows) {
+        SortedMap<Double, Integer> buckets = new TreeMap<>();
+        for (int i = 0; i < index.distinctValues(); i++) {
+            double bucket = bucketOf(index.valueAt(i));
+            if (!Double.isNaN(bucket)) {
+                int count = rows.and(index.rowsAt(i)).cardinality();
+                if (count > 0) {
+                    buckets.merge(bucket, count, Integer::sum);
+                }
+            }
+        }
+        return buckets;
+    }
+
+    /**
+     * Gets the reader of the column's values.
+     *
+     * @param table the table
+     * @return a function from row id to value, ints widened to doubles
+     * @throws IllegalArgumentException if the column is not in the table
+     */
+    private IntToDoubleFunction values(IGameTable table) {
+        IntUnaryOperator ints = table.intColumn(column);
+        if (ints != null) {
+            return ints::applyAsInt;
+        }
+        IntToDoubleFunction doubles = table.doubleColumn(column);
+        if (doubles == null) {
+            throw new IllegalArgumentException("The column " + column.getColumnName() + " is not numeric");
+        }
+        return doubles;
+    }
+
+    /**
+     * Get a description of the facet.
+     *
+     * @return the column and how it is bucketed
+     */
+    @Override
+    public String toString() {
+        if (bounds != null) {
+            return column.getColumnName() + " by bounds " + Arrays.toString(bounds);
+        }
+        return column.getColumnName() + (width > 0 ? " by width " + width : " by value");
+    }
+}
@@ -0,0 +1,222 @@
+package student;
+
+import java.util.List;
+import java.util.function.IntPredicate;
+import java.util.stream.Collectors;
+
+/**
+ * A compiled OR or NOT in a filter, one term of the AND held by a {@link FilterPlan}.
+ *
+ * The operands are plans themselves, so groups nest to any depth. Testing one row stops at
+ * the first alternative that matches, or the operand of a NOT. Selecting from a set of rows
+ * works with set operations on {@link CompressedBitmap}s: an OR unites what each alternative
+ * selects, and only offers the next alternative the rows still unmatched; a NOT removes what
+ * its operand selects. Each operand can use the indexes like any other plan.
+ */
+public abstract class FilterExpression {
+
+    /**
+     * Constructor for the subclasses in this file.
+     */
+    private FilterExpression() {
+    }
+
+    /**
+     * Builds the OR of some plans.
+     *
+     * @param alternatives the plans, at least two
+     * @return the expression
+     */
+    static FilterExpression or(List<FilterPlan> alternatives) {
+        return new Or(List.copyOf(alternatives));
+    }
+
+    /**
+     * Builds the NOT of a plan.
+     *
+     * @param operand the plan
+     * @return the expression
+     */
+    static FilterExpression not(FilterPlan operand) {
+        return new Not(operand);
+    }
+
+    /**
+     * Builds the test for the expression over the rows of a table.
+     *
+     * @param table the table the row ids belong to
+     * @return a predicate over row ids
+     */
+    public abstract IntPredicate bind(IGameTable table);
+
+    /**
+     * Selects the rows that match from a set of rows.
+     *
+     * @param candidates the candidate rows
+     * @param table      the table the row ids belong to
+     * @param indexes    the table's indexes, or null to always scan
+     * @param executor   runs the scans
+     * @return the candidates that match
+     */
+    public abstract CompressedBitmap select(CompressedBitmap candidates, IGameTable table, GameIndexes indexes,
+                                            ParallelExecutor executor);
+
+    /**
+     * Get the plans the expression is built from.
+     *
+     * @return the alternatives of an OR, or the single operand of a NOT
+     */
+    public abstract List<FilterPlan> getOperands();
+
+    /**
+     * Wraps a plan in parentheses when it has more than one term.
+     *
+     * @param plan the plan
+     * @return the plan as it can be written inside an OR or after a NOT
+     */
+    private static String group(FilterPlan plan) {
+        String text = plan.toString();
+        return plan.getPredicates().size() + plan.getExpressions().size() > 1 ? "(" + text + ")" : text;
+    }
+
+    /**
+     * Rows matching any of several plans.
+     */
+    private static final class Or extends FilterExpression {
+        /** The alternatives, in the order they were written. */
+        private final List<FilterPlan> alternatives;
+
+        /**
+         * Constructor for an OR.
+         *
+         * @param alternatives the alternatives
+         */
+        private Or(List<FilterPlan> alternatives) {
+            this.alternatives = alternatives;
+        }
+
+        /**
+         * Builds the test for the OR, which stops at the first alternative that matches.
+         *
+         * @param table the table the row ids belong to
+         * @return a predicate over row ids
+         */
+        @Override
+        public IntPredicate bind(IGameTable table) {
+            IntPredicate any = alternatives.get(0).bind(table);
+            for (FilterPlan alternative : alternatives.subList(1, alternatives.size())) {
+                any = any.or(alternative.bind(table));
+            }
+            return any;
+        }
+
+        /**
+         * Unites the rows each alternative selects. An alternative only looks at the rows the
+         * ones before it did not match, and the rest are skipped once every row has matched.
+         *
+         * @param candidates the candidate rows
+         * @param table      the table the row ids belong to
+         * @param indexes    the table's indexes, or null to always scan
+         * @param executor   runs the scans
+         * @return the candidates that match any alternative
+         */
+        @Override
+        public CompressedBitmap select(CompressedBitmap candidates, IGameTable table, GameIndexes indexes,
+                                       ParallelExecutor executor) {
+            CompressedBitmap matched = CompressedBitmap.EMPTY;
+            CompressedBitmap unmatched = candidates;
+            for (FilterPlan alternative : alternatives) {
+                CompressedBitmap found = alternative.select(unmatched, table, indexes, executor);
+                matched = matched.or(found);
+                unmatched = unmatched.andNot(found);
+                if (unmatched.isEmpty()) {
+                    break;
+                }
+            }
+            return matched;
+        }
+
+        /**
+         * Get the alternatives.
+         *
+         * @return the alternatives, in the order they were written
+         */
+        @Override
+        public List<FilterPlan> getOperands() {
+            return alternatives;
+        }
+
+        /**
+         * Get the normalized form of the OR.
+         *
+         * @return the alternatives separated by |, in parentheses
+         */
+        @Override
+        public String toString() {
+            return alternatives.stream().map(FilterExpression::group).collect(Collectors.joining("|", "(", ")"));
+        }
+    }
+
+    /**
+     * Rows not matching a plan.
+     */
+    private static final class Not extends FilterExpression {
+        /** The plan being negated. */
+        private final FilterPlan operand;
+
+        /**
+         * Constructor for a NOT.
+         *
+         * @param operand the plan being negated
+         */
+        private Not(FilterPlan operand) {
+            this.operand = operand;
+        }
+
+        /**
+         * Builds the test for the NOT.
+         *
+         * @param table the table the row ids belong to
+         * @return a predicate over row ids, true when the operand does not match
+         */
+        @Override
+        public IntPredicate bind(IGameTable table) {
+            return operand.bind(table).negate();
+        }
+
+        /**
+         * Removes the rows the operand selects from the candidates.
+         *
+         * @param candidates the candidate rows
+         * @param table      the table the row ids belong to
+         * @param indexes    the table's indexes, or null to always scan
+         * @param executor   runs the scans
+         * @return the candidates that don't match the operand
+         */
+        @Override
+        public CompressedBitmap select(CompressedBitmap candidates, IGameTable table, GameIndexes indexes,
+                                       ParallelExecutor executor) {
+            return candidates.andNot(operand.select(candidates, table, indexes, executor));
+        }
+
+        /**
+         * Get the operand.
+         *
+         * @return a list holding the plan being negated
+         */
+        @Override
+        public List<FilterPlan> getOperands() {
+            return List.of(operand);
+        }
+
+        /**
+         * Get the normalized form of the NOT.
+         *
+         * @return ! and the operand
+         */
+        @Override
+        public String toString() {
+            return "!" + group(operand);
+        }
+    }
+}
@@ -0,0 +1,642 @@
+package student;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntPredicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * A compiled filter string: the comma separated expressions, each compiled into a
+ * {@link FilterPredicate}, all of which must match.
+ *
+ * A filter is compiled once, before any rows are read, so a mistake in any expression is
+ * reported straight away instead of being skipped. Plans are immutable and can be applied
+ * to any table.
+ *
+ * With {@link #select(CompressedBitmap, IGameTable, GameIndexes)} predicates are reordered by
+ * their estimated selectivity, and each is answered from an index or by a scan, whichever is
+ * estimated to be cheaper (see {@link ColumnStatistics}).
+ */
+public final class FilterPlan {
+    /** The cost of checking one row against a predicate in a scan, the unit the other costs use. */
+    private static final double SCAN_COST = 1.0;
+    /** The cost per matching row of a bitmap index, unions of compressed bitmaps. */
+    private static final double BITMAP_COST = 0.1;
+    /** The cost per matching row of copying a slice of row ids out of an index, sorting and packing it. */
+    private static final double SLICE_COST = 1.5;
+    /** The cost of checking one distinct name with String.contains. */
+    private static final double NAME_CHECK_COST = 2.0;
+    /** Whole columns are compared when the candidates are at least 1 / VECTOR_DENSITY of the table. */
+    private static final int VECTOR_DENSITY = 8;
+    /** The selectivity guessed when there is nothing to estimate from. */
+    private static final double UNKNOWN_SELECTIVITY = 0.5;
+
+    /** A plan with no predicates, matching every row. */
+    public static final FilterPlan ALL = new FilterPlan(List.of(), List.of());
+
+    /** The predicates, in the order they were written. */
+    private final List<FilterPredicate> predicates;
+    /** The ORs and NOTs ANDed with the predicates, in the order they were written. */
+    private final List<FilterExpression> expressions;
+
+    /**
+     * Constructor for the plan.
+     *
+     * @param predicates  the predicates
+     * @param expressions the ORs and NOTs
+     */
+    private FilterPlan(List<FilterPredicate> predicates, List<FilterExpression> expressions) {
+        this.predicates = Collections.unmodifiableList(predicates);
+        this.expressions = Collections.unmodifiableList(expressions);
+    }
+
+    /**
+     * Compiles a filter string. Empty expressions, such as an empty filter, are skipped.
+     *
+     * Expressions separated by commas are ANDed. {@code |} ORs the expressions on either side,
+     * and binds looser than a comma, so {@code a,b|c} is {@code (a,b)|c}. {@code !} in front of
+     * an expression or a group negates it, and parentheses group. A {@code (} inside a value,
+     * as in {@code name==catan (2015)}, stays part of the value up to its matching {@code )}.
+     *
+     * @param filter the filter
+     * @return the compiled plan
+     * @throws IllegalArgumentException if any expression is invalid, or the parentheses don't match
+     */
+    public static FilterPlan compile(String filter) {
+        Parser parser = new Parser(filter);
+        FilterPlan plan = parser.or();
+        if (parser.at < filter.length()) {
+            throw new IllegalArgumentException("Unexpected " + filter.charAt(parser.at) + " at " + parser.at
+                    + " in " + filter);
+        }
+        return plan.isEmpty() ? ALL : plan;
+    }
+
+    /**
+     * Get the predicates.
+     *
+     * @return the predicates, in the order they were written
+     */
+    public List<FilterPredicate> getPredicates() {
+        return predicates;
+    }
+
+    /**
+     * Get the ORs and NOTs.
+     *
+     * @return the expressions ANDed with the predicates, in the order they were written
+     */
+    public List<FilterExpression> getExpressions() {
+        return expressions;
+    }
+
+    /**
+     * Check if the plan matches every row.
+     *
+     * @return true if there are no predicates or expressions
+     */
+    public boolean isEmpty() {
+        return predicates.isEmpty() && expressions.isEmpty();
+    }
+
+    /**
+     * Builds the test for the whole plan over the rows of a table.
+     *
+     * @param table the table the row ids belong to
+     * @return a predicate over row ids, true when every predicate and expression matches
+     */
+    public IntPredicate bind(IGameTable table) {
+        IntPredicate all = null;
+        for (FilterPredicate predicate : predicates) {
+            all = all == null ? predicate.bind(table) : all.and(predicate.bind(table));
+        }
+        for (FilterExpression expression : expressions) {
+            all = all == null ? expression.bind(table) : all.and(expression.bind(table));
+        }
+        return all == null ? row -> true : all;
+    }
+
+    /**
+     * Filters a stream of row ids.
+     *
+     * @param rows  the row ids
+     * @param table the table the row ids belong to
+     * @return the rows that match, in the same order
+     */
+    public IntStream apply(IntStream rows, IGameTable table) {
+        for (FilterPredicate predicate : predicates) {
+            rows = rows.filter(predicate.bind(table));
+        }
+        for (FilterExpression expression : expressions) {
+            rows = rows.filter(expression.bind(table));
+        }
+        return rows;
+    }
+
+    /**
+     * Filters row ids, using indexes when they beat a scan.
+     *
+     * @param rows    the candidate row ids, in row order
+     * @param table   the table the row ids belong to
+     * @param indexes the table's indexes, or null to always scan
+     * @return the rows that match, in row order
+     * @see #select(CompressedBitmap, IGameTable, GameIndexes)
+     */
+    public int[] select(int[] rows, IGameTable table, GameIndexes indexes) {
+        return select(CompressedBitmap.ofSorted(rows), table, indexes).toArray();
+    }
+
+    /**
+     * Filters a set of rows, using indexes when they beat a scan.
+     *
+     * The predicates are first put in order by {@link #optimize(int, GameIndexes)}. The ones
+     * it picks an index for are answered by intersecting the bitmaps the indexes return, and
+     * the rest are checked row by row over what is left, most selective first. When what is
+     * left is most of the table, numeric predicates compare the whole column with
+     * {@link IGameTable#numberMask(GameData, Operations, double)} instead, see {@link VectorFilters}.
+     *
+     * @param candidates the candidate rows
+     * @param table      the table the row ids belong to
+     * @param indexes    the table's indexes, or null to always scan
+     * @return the rows that match
+     */
+    public CompressedBitmap select(CompressedBitmap candidates, IGameTable table, GameIndexes indexes) {
+        return select(candidates, table, indexes, ParallelExecutor.SEQUENTIAL);
+    }
+
+    /**
+     * Filters a set of rows like {@link #select(CompressedBitmap, IGameTable, GameIndexes)}, with the
+     * row by row scan split across an executor when there are enough rows.
+     *
+     * @param candidates the candidate rows
+     * @param table      the table the row ids belong to
+     * @param indexes    the table's indexes, or null to always scan
+     * @param executor   runs the scan
+     * @return the rows that match
+     */
+    public CompressedBitmap select(CompressedBitmap candidates, IGameTable table, GameIndexes indexes,
+                                   ParallelExecutor executor) {
+        CompressedBitmap result = selectPredicates(candidates, table, indexes, executor);
+        for (FilterExpression expression : expressions) {
+            if (result.isEmpty()) {
+                break;
+            }
+            result = expression.select(result, table, indexes, executor);
+        }
+        return result;
+    }
+
+    /**
+     * Counts the rows that match, without sorting them. A single range predicate over the whole
+     * table is answered from its sorted index, without reading any row.
+     *
+     * @param candidates the candidate rows
+     * @param table      the table the row ids belong to
+     * @param indexes    the table's indexes, or null to always scan
+     * @param executor   runs the scan
+     * @return the number of candidates that match
+     */
+    public long count(CompressedBitmap candidates, IGameTable table, GameIndexes indexes,
+                      ParallelExecutor executor) {
+        if (isEmpty()) {
+            return candidates.cardinality();
+        }
+        FilterPredicate range = wholeTableRange(candidates, table, indexes);
+        if (range != null) {
+            return indexes.sortedIndex(range.getColumn()).count(range.getOperator(), range.getNumber());
+        }
+        return select(candidates, table, indexes, executor).cardinality();
+    }
+
+    /**
+     * Summarizes a numeric column over the rows that match, without sorting them. Over the whole
+     * table, with no filter or a single range predicate on the same column, the summary comes
+     * from the column's sorted index; otherwise the matching rows are read once.
+     *
+     * @param candidates the candidate rows
+     * @param column     a numeric column
+     * @param table      the table the row ids belong to
+     * @param indexes    the table's indexes, or null to always scan
+     * @param executor   runs the scan
+     * @return the count, sum, min and max of the column over the candidates that match
+     * @throws IllegalArgumentException if the column is not numeric
+     */
+    public ColumnSummary summarize(CompressedBitmap candidates, GameData column, IGameTable table,
+                                   GameIndexes indexes, ParallelExecutor executor) {
+        SortedColumnIndex index = indexes == null ? null : indexes.sortedIndex(column);
+        if (index != null && candidates.cardinality() == table.size()) {
+            if (isEmpty()) {
+                return index.summarize();
+            }
+            FilterPredicate range = wholeTableRange(candidates, table, indexes);
+            if (range != null && range.getColumn() == column) {
+                return index.summarize(range.getOperator(), range.getNumber());
+            }
+        }
+        return ColumnSummary.of(table, column, select(candidates, table, indexes, executor));
+    }
+
+    /**
+     * Finds the predicate of a plan that a sorted index answers on its own.
+     *
+     * @param candidates the candidate rows
+     * @param table      the table the row ids belong to
+     * @param indexes    the table's indexes, or null
+     * @return the only predicate, if it is a range on an indexed column and the candidates are
+     *         the whole table, else null
+     */
+    private FilterPredicate wholeTableRange(CompressedBitmap candidates, IGameTable table, GameIndexes indexes) {
+        if (indexes == null || predicates.size() != 1 || !expressions.isEmpty()
+                || candidates.cardinality() != table.size()) {
+            return null;
+        }
+        FilterPredicate predicate = predicates.get(0);
+        boolean indexed = indexes.sortedIndex(predicate.getColumn()) != null
+                && SortedColumnIndex.supports(predicate.getOperator());
+        return indexed ? predicate : null;
+    }
+
+    /**
+     * Filters a set of rows by the predicates only, see {@link #select(CompressedBitmap, IGameTable, GameIndexes)}.
+     *
+     * @param candidates the candidate rows
+     * @param table      the table the row ids belong to
+     * @param indexes    the table's indexes, or null to always scan
+     * @param executor   runs the scan
+     * @return the rows that match every predicate
+     */
+    private CompressedBitmap selectPredicates(CompressedBitmap candidates, IGameTable table, GameIndexes indexes,
+                                              ParallelExecutor executor) {
+        CompressedBitmap result = candidates;
+        List<FilterPredicate> scanned = new ArrayList<>();
+        for (Step step : optimize(candidates.cardinality(), indexes)) {
+            if (step.indexed) {
+                result = result.and(indexSelect(step.predicate, indexes));
+            } else {
+                scanned.add(step.predicate);
+            }
+        }
+        if (scanned.isEmpty() || result.isEmpty()) {
+            return result;
+        }
+        if ((long) result.cardinality() * VECTOR_DENSITY >= table.size()) {
+            long[] mask = null;
+            for (FilterPredicate predicate : scanned) {
+                if (predicate.getColumn() != GameData.NAME) {
+                    long[] matches = table.numberMask(predicate.getColumn(), predicate.getOperator(),
+                            predicate.getNumber());
+                    if (mask == null) {
+                        mask = matches;
+                    } else {
+                        for (int w = 0; w < mask.length; w++) {
+                            mask[w] &= matches[w];
+                        }
+                    }
+                }
+            }
+            if (mask != null) {
+                result = result.and(CompressedBitmap.fromWords(mask));
+                scanned.removeIf(predicate -> predicate.getColumn() != GameData.NAME);
+                if (scanned.isEmpty() || result.isEmpty()) {
+                    return result;
+                }
+            }
+        }
+        IntPredicate test = scanned.get(0).bind(table);
+        for (FilterPredicate predicate : scanned.subList(1, scanned.size())) {
+            test = test.and(predicate.bind(table));
+        }
+        return CompressedBitmap.ofSorted(executor.filter(result.toArray(), test));
+    }
+
+    /**
+     * Describes how {@link #select(CompressedBitmap, IGameTable, GameIndexes)} would run the plan.
+     *
+     * @param candidates the number of candidate rows
+     * @param indexes    the table's indexes, or null
+     * @return one line per predicate, in the order they run: "index " or "scan " then the predicate,
+     *         then "set " and each OR or NOT, which run last on the rows the predicates leave
+     */
+    public List<String> explain(int candidates, GameIndexes indexes) {
+        List<String> lines = new ArrayList<>();
+        for (Step step : optimize(candidates, indexes)) {
+            lines.add((step.indexed ? "index " : "scan ") + step.predicate);
+        }
+        for (FilterExpression expression : expressions) {
+            lines.add("set " + expression);
+        }
+        return lines;
+    }
+
+    /**
+     * Puts the predicates in the order to run them, and picks between an index and a scan for each.
+     *
+     * The selectivity of each predicate is estimated from the column statistics, or the name
+     * indexes for NAME. Predicates are ordered by selectivity, so the ones dropping the most rows
+     * run first. Walking that order, the number of candidates left is estimated as the product of
+     * the selectivities so far, and a predicate uses its index when reading its matches from the
+     * index is estimated to cost less than checking each remaining candidate.
+     *
+     * @param candidates the number of candidate rows
+     * @param indexes    the table's indexes, or null to scan in the written order
+     * @return the steps, in the order to run them
+     */
+    private List<Step> optimize(int candidates, GameIndexes indexes) {
+        List<Step> steps = new ArrayList<>();
+        for (FilterPredicate predicate : predicates) {
+            steps.add(new Step(predicate, indexes == null ? 1 : selectivity(predicate, indexes)));
+        }
+        if (indexes == null) {
+            return steps;
+        }
+        steps.sort(Comparator.comparingDouble(step -> step.selectivity));
+        double rows = indexes.allRows().cardinality();
+        double left = candidates;
+        for (Step step : steps) {
+            double perRow = indexCost(step.predicate, indexes);
+            double scanCost = left * SCAN_COST + scanSetup(step.predicate, indexes);
+            step.indexed = perRow > 0 && step.selectivity * rows * perRow + indexSetup(step.predicate, indexes)
+                    < scanCost;
+            left *= step.selectivity;
+        }
+        return steps;
+    }
+
+    /**
+     * Estimates the fraction of the table's rows a predicate matches.
+     *
+     * @param predicate the predicate
+     * @param indexes   the table's indexes
+     * @return the estimated fraction, from 0 to 1
+     */
+    private static double selectivity(FilterPredicate predicate, GameIndexes indexes) {
+        if (predicate.getColumn() != GameData.NAME) {
+            return indexes.statistics(predicate.getColumn()).selectivity(predicate.getOperator(),
+                    predicate.getNumber());
+        }
+        int names = indexes.distinctNames();
+        if (names == 0) {
+            return 0;
+        }
+        String text = predicate.getText();
+        return switch (predicate.getOperator()) {
+            case NOT_EQUALS -> 1 - 1.0 / names;
+            case CONTAINS -> indexes.trigramIndex() != null && TrigramIndex.supports(text)
+                    ? (double) indexes.trigramIndex().estimate(text) / names : UNKNOWN_SELECTIVITY;
+            default -> {
+                int[] codes = indexes.nameRange(predicate.getOperator(), text);
+                yield (double) (codes[1] - codes[0]) / names;
+            }
+        };
+    }
+
+    /**
+     * Gets the cost of reading one matching row from a predicate's index.
+     *
+     * @param predicate the predicate
+     * @param indexes   the table's indexes
+     * @return the cost per matching row, or 0 if the predicate has no index
+     */
+    private static double indexCost(FilterPredicate predicate, GameIndexes indexes) {
+        GameData column = predicate.getColumn();
+        Operations op = predicate.getOperator();
+        if (indexes.bitmapIndex(column) != null && BitmapIndex.supports(op)) {
+            return BITMAP_COST;
+        }
+        if (column == GameData.NAME) {
+            boolean indexed = op == Operations.CONTAINS
+                    ? indexes.trigramIndex() != null && TrigramIndex.supports(predicate.getText())
+                    : NameTrie.supports(op);
+            return indexed ? SLICE_COST : 0;
+        }
+        return indexes.sortedIndex(column) != null && SortedColumnIndex.supports(op) ? SLICE_COST : 0;
+    }
+
+    /**
+     * Gets the fixed cost of using a predicate's index, on top of the cost per row.
+     *
+     * @param predicate the predicate
+     * @param indexes   the table's indexes
+     * @return the cost of the index lookup
+     */
+    private static double indexSetup(FilterPredicate predicate, GameIndexes indexes) {
+        if (predicate.getColumn() == GameData.NAME && predicate.getOperator() == Operations.CONTAINS) {
+            // each candidate name is checked with contains
+            return indexes.trigramIndex().estimate(predicate.getText()) * NAME_CHECK_COST;
+        }
+        return 0;
+    }
+
+    /**
+     * Gets the fixed cost of scanning for a predicate, on top of the cost per row.
+     *
+     * @param predicate the predicate
+     * @param indexes   the table's indexes
+     * @return the cost of preparing the scan
+     */
+    private static double scanSetup(FilterPredicate predicate, GameIndexes indexes) {
+        if (predicate.getColumn() == GameData.NAME && predicate.getOperator() == Operations.CONTAINS) {
+            // every distinct name is checked with contains before the scan
+            return indexes.distinctNames() * NAME_CHECK_COST;
+        }
+        return 0;
+    }
+
+    /**
+     * Answers a predicate from its index.
+     *
+     * @param predicate a predicate that {@link #indexCost(FilterPredicate, GameIndexes)} has an index for
+     * @param indexes   the table's indexes
+     * @return the rows of the whole table that match
+     */
+    private static CompressedBitmap indexSelect(FilterPredicate predicate, GameIndexes indexes) {
+        GameData column = predicate.getColumn();
+        Operations op = predicate.getOperator();
+        BitmapIndex bitmap = indexes.bitmapIndex(column);
+        if (bitmap != null && BitmapIndex.supports(op)) {
+            return bitmap.select(op, predicate.getNumber());
+        }
+        if (column == GameData.NAME && op == Operations.CONTAINS) {
+            return indexes.trigramIndex().select(predicate.getText());
+        }
+        if (column == GameData.NAME) {
+            int[] codes = indexes.nameRange(op, predicate.getText());
+            return indexes.nameRows().rows(codes[0], codes[1]);
+        }
+        return CompressedBitmap.ofSorted(indexes.sortedIndex(column).select(op, predicate.getNumber()));
+    }
+
+    /**
+     * Get the normalized form of the filter.
+     *
+     * @return the normalized predicates, then the expressions, separated by commas
+     */
+    @Override
+    public String toString() {
+        return Stream.concat(predicates.stream(), expressions.stream()).map(Object::toString)
+                .collect(Collectors.joining(","));
+    }
+
+    /**
+     * One predicate of an optimized plan.
+     */
+    private static final class Step {
+        /** The predicate. */
+        private final FilterPredicate predicate;
+        /** The estimated fraction of the table's rows it matches. */
+        private final double selectivity;
+        /** True to read it from an index, false to scan. */
+        private boolean indexed;
+
+        /**
+         * Constructor for a step.
+         *
+         * @param predicate   the predicate
+         * @param selectivity the estimated fraction of rows it matches
+         */
+        private Step(FilterPredicate predicate, double selectivity) {
+            this.predicate = predicate;
+            this.selectivity = selectivity;
+        }
+    }
+
+    /**
+     * Reads a filter string left to right, one level of the grammar per method:
+     * {@code or := and ('|' and)*}, {@code and := term (',' term)*} and
+     * {@code term := '!' term | '(' or ')' | predicate}.
+     */
+    private static final class Parser {
+        /** The filter string. */
+        private final String text;
+        /** The position of the next character to read. */
+        private int at;
+
+        /**
+         * Constructor for a parser.
+         *
+         * @param text the filter string
+         */
+        private Parser(String text) {
+            this.text = text;
+        }
+
+        /**
+         * Skips spaces and gets the next character.
+         *
+         * @return the next character, or 0 at the end
+         */
+        private char peek() {
+            while (at < text.length() && Character.isWhitespace(text.charAt(at))) {
+                at++;
+            }
+            return at < text.length() ? text.charAt(at) : 0;
+        }
+
+        /**
+         * Reads alternatives separated by |.
+         *
+         * @return the plan, an OR if there is more than one alternative
+         */
+        private FilterPlan or() {
+            FilterPlan first = and();
+            if (peek() != '|') {
+                return first;
+            }
+            List<FilterPlan> alternatives = new ArrayList<>(List.of(first));
+            while (peek() == '|') {
+                at++;
+                alternatives.add(and());
+            }
+            for (FilterPlan alternative : alternatives) {
+                if (alternative.isEmpty()) {
+                    throw new IllegalArgumentException("Empty alternative in " + text);
+                }
+            }
+            return new FilterPlan(new ArrayList<>(), new ArrayList<>(List.of(FilterExpression.or(alternatives))));
+        }
+
+        /**
+         * Reads terms separated by commas. Empty terms are skipped.
+         *
+         * @return the plan ANDing the terms
+         */
+        private FilterPlan and() {
+            List<FilterPredicate> predicates = new ArrayList<>();
+            List<FilterExpression> expressions = new ArrayList<>();
+            while (true) {
+                char next = peek();
+                if (next != ',' && next != '|' && next != ')' && next != 0) {
+                    term(predicates, expressions);
+                }
+                if (peek() != ',') {
+                    return new FilterPlan(predicates, expressions);
+                }
+                at++;
+            }
+        }
+
+        /**
+         * Reads one term and adds it to the AND being built. A group's terms are added as they are.
+         *
+         * @param predicates  the predicates of the AND
+         * @param expressions the expressions of the AND
+         */
+        private void term(List<FilterPredicate> predicates, List<FilterExpression> expressions) {
+            char next = peek();
+            if (next == '!' && (at + 1 == text.length() || text.charAt(at + 1) != '=')) {
+                at++;
+                List<FilterPredicate> operandPredicates = new ArrayList<>();
+                List<FilterExpression> operandExpressions = new ArrayList<>();
+                char first = peek();
+                if (first == ',' || first == '|' || first == ')' || first == 0) {
+                    throw new IllegalArgumentException("Nothing to negate after ! in " + text);
+                }
+                term(operandPredicates, operandExpressions);
+                expressions.add(FilterExpression.not(new FilterPlan(operandPredicates, operandExpressions)));
+            } else if (next == '(') {
+                at++;
+                FilterPlan group = or();
+                if (peek() != ')') {
+                    throw new IllegalArgumentException("Missing ) in " + text);
+                }
+                at++;
+                if (group.isEmpty()) {
+                    throw new IllegalArgumentException("Empty group in " + text);
+                }
+                predicates.addAll(group.predicates);
+                expressions.addAll(group.expressions);
+            } else {
+                predicates.add(FilterPredicate.compile(predicate()));
+            }
+        }
+
+        /**
+         * Reads a predicate, up to a comma, a | or a ) that closes a group.
+         *
+         * @return the predicate text
+         */
+        private String predicate() {
+            int start = at;
+            int depth = 0;
+            while (at < text.length()) {
+                char c = text.charAt(at);
+                if (c == '(') {
+                    depth++;
+                } else if (c == ')') {
+                    if (depth == 0) {
+                        break;
+                    }
+                    depth--;
+                } else if ((c == ',' || c == '|') && depth == 0) {
+                    break;
+                }
+                at++;
+            }
+            return text.substring(start, at);
+        }
+    }
+}
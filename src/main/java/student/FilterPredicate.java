@@ -0,0 +1,138 @@
+package student;
+
+import java.util.function.IntPredicate;
+
+/**
+ * One compiled filter expression, such as {@code minPlayers>4}.
+ *
+ * The column and operator are resolved and the value is parsed when the predicate is
+ * compiled, so checking a row only reads the column and compares. Name values are kept in
+ * lower case, numeric values as a double.
+ *
+ * Predicates are immutable and do not depend on a table, see {@link #bind(IGameTable)}.
+ */
+public final class FilterPredicate {
+    /** The column to filter on. */
+    private final GameData column;
+    /** The comparison. */
+    private final Operations operator;
+    /** The value for a NAME filter, in lower case, null for numeric columns. */
+    private final String text;
+    /** The value for a numeric filter. */
+    private final double number;
+
+    /**
+     * Constructor for the predicate.
+     *
+     * @param column   the column to filter on
+     * @param operator the comparison
+     * @param text     the lower case value of a NAME filter, or null
+     * @param number   the value of a numeric filter
+     */
+    private FilterPredicate(GameData column, Operations operator, String text, double number) {
+        this.column = column;
+        this.operator = operator;
+        this.text = text;
+        this.number = number;
+    }
+
+    /**
+     * Compiles a single filter expression. Spaces are ignored.
+     *
+     * @param expression the expression, column then operator then value
+     * @return the compiled predicate
+     * @throws IllegalArgumentException if there is no operator, the column is unknown or
+     *                                  can't be filtered on, or the value doesn't fit the column
+     */
+    public static FilterPredicate compile(String expression) {
+        String filter = expression.replace(" ", "");
+        Operations operator = Operations.getOperatorFromStr(filter);
+        if (operator == null) {
+            throw new IllegalArgumentException("No operator in filter " + expression);
+        }
+        int at = filter.indexOf(operator.getOperator());
+        String name = filter.substring(0, at);
+        String value = filter.substring(at + operator.getOperator().length());
+        if (name.isEmpty() || value.isEmpty() || value.contains(operator.getOperator())) {
+            throw new IllegalArgumentException("Invalid filter " + expression);
+        }
+        GameData column = GameData.fromString(name);
+        switch (column) {
+            case NAME -> {
+                return new FilterPredicate(column, operator, value.toLowerCase(), 0);
+            }
+            case ID -> throw new IllegalArgumentException("The column " + column.getColumnName()
+                    + " is not supported in filtering");
+            default -> {
+                if (operator == Operations.CONTAINS) {
+                    throw new IllegalArgumentException("The column " + column.getColumnName()
+                            + " is numeric and can't use " + operator.getOperator());
+                }
+                try {
+                    return new FilterPredicate(column, operator, null, Double.parseDouble(value));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("The value " + value + " is not a number", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds the test for this predicate over the rows of a table.
+     *
+     * @param table the table the row ids belong to
+     * @return a predicate over row ids
+     */
+    public IntPredicate bind(IGameTable table) {
+        if (column == GameData.NAME) {
+            return Filters.nameFilter(table, operator, text);
+        }
+        return Filters.numberFilter(table, column, operator, number);
+    }
+
+    /**
+     * Get the column.
+     *
+     * @return the column to filter on
+     */
+    public GameData getColumn() {
+        return column;
+    }
+
+    /**
+     * Get the operator.
+     *
+     * @return the comparison
+     */
+    public Operations getOperator() {
+        return operator;
+    }
+
+    /**
+     * Get the value of a NAME filter.
+     *
+     * @return the value in lower case, or null for numeric columns
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Get the value of a numeric filter.
+     *
+     * @return the parsed value, 0 for NAME filters
+     */
+    public double getNumber() {
+        return number;
+    }
+
+    /**
+     * Get the normalized form of the expression, the same for every way of writing it.
+     *
+     * @return the column name, operator and value, without spaces
+     */
+    @Override
+    public String toString() {
+        return column.name() + operator.getOperator() + (text != null ? text : Double.toString(number));
+    }
+}
@@ -1,5 +1,9 @@
 package student;
 
+import java.util.function.IntPredicate;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntUnaryOperator;
+
 /**
  * A class that provides filtering logic for BoardGame objects
  * based on various attributes (such as name, players, rating, etc.) and
@@ -54,7 +58,7 @@ public static boolean filter(BoardGame game, GameData column,
      * @return {@code true} if {@code gameData} meets the condition defined by op
      */
     public static boolean filterString(String gameData, Operations op, String value) {
-        gameData = gameData.replaceAll(" ", "");
+        gameData = gameData.replace(" ", "");
         return switch (op) {
             case EQUALS -> gameData.equals(value);
             case NOT_EQUALS -> !gameData.equalsIgnoreCase(value);
@@ -79,18 +83,29 @@ public static boolean filter(BoardGame game, GameData column,
      * @throws IllegalArgumentException if the operation is unknown or unsupported
      */
     public static boolean filterNumberFloat(double gameData, Operations op, String value) {
-        double floatValue = Double.parseDouble(value);
+        return compareNumber(gameData, op, Double.parseDouble(value));
+    }
 
+    /**
+     * Compares a double game data value to an already parsed value.
+     *
+     * @param gameData the numeric value from the BoardGame
+     * @param op       the operation to apply (e.g. GREATER_THAN, EQUALS)
+     * @param value    the value to compare against gameData
+     * @return true if gameData meets the specified condition,
+     * return false otherwise
+     * @throws IllegalArgumentException if the operation is unknown or unsupported
+     */
+    public static boolean compareNumber(double gameData, Operations op, double value) {
         return switch (op) {
-            case EQUALS -> gameData == floatValue;
-            case GREATER_THAN -> gameData > floatValue;
-            case LESS_THAN -> gameData < floatValue;
-            case GREATER_THAN_EQUALS -> gameData >= floatValue;
-            case NOT_EQUALS -> gameData != floatValue;
-            case LESS_THAN_EQUALS -> gameData <= floatValue;
+            case EQUALS -> gameData == value;
+            case GREATER_THAN -> gameData > value;
+            case LESS_THAN -> gameData < value;
+            case GREATER_THAN_EQUALS -> gameData >= value;
+            case NOT_EQUALS -> gameData != value;
+            case LESS_THAN_EQUALS -> gameData <= value;
             default -> throw new IllegalArgumentException("Invalid operation: " + op);
         };
-
     }
 
     /**
@@ -107,4 +122,92 @@ public static boolean filter(BoardGame game, GameData column,
     public static boolean filterNum(int gameData, Operations op, String value) {
         return filterNumberFloat(gameData, op, value);
     }
+
+    /**
+     * Builds a numeric filter over the row ids of a game table, with the value already parsed.
+     *
+     * The operation is resolved here, so each test is a column read and one comparison.
+     *
+     * @param table  the table the row ids belong to
+     * @param column a numeric column
+     * @param op     the comparison operation, not CONTAINS
+     * @param number the value to compare against
+     * @return a predicate over row ids
+     * @throws IllegalArgumentException if the column is not numeric or the operation is CONTAINS
+     */
+    public static IntPredicate numberFilter(IGameTable table, GameData column, Operations op, double number) {
+        IntUnaryOperator ints = table.intColumn(column);
+        if (ints != null) {
+            return switch (op) {
+                case EQUALS -> row -> ints.applyAsInt(row) == number;
+                case NOT_EQUALS -> row -> ints.applyAsInt(row) != number;
+                case GREATER_THAN -> row -> ints.applyAsInt(row) > number;
+                case LESS_THAN -> row -> ints.applyAsInt(row) < number;
+                case GREATER_THAN_EQUALS -> row -> ints.applyAsInt(row) >= number;
+                case LESS_THAN_EQUALS -> row -> ints.applyAsInt(row) <= number;
+                default -> throw new IllegalArgumentException("Invalid operation: " + op);
+            };
+        }
+        IntToDoubleFunction doubles = table.doubleColumn(column);
+        if (doubles == null) {
+            throw new IllegalArgumentException("The column " + column.getColumnName() + " is not numeric");
+        }
+        return switch (op) {
+            case EQUALS -> row -> doubles.applyAsDouble(row) == number;
+            case NOT_EQUALS -> row -> doubles.applyAsDouble(row) != number;
+            case GREATER_THAN -> row -> doubles.applyAsDouble(row) > number;
+            case LESS_THAN -> row -> doubles.applyAsDouble(row) < number;
+            case GREATER_THAN_EQUALS -> row -> doubles.applyAsDouble(row) >= number;
+            case LESS_THAN_EQUALS -> row -> doubles.applyAsDouble(row) <= number;
+            default -> throw new IllegalArgumentException("Invalid operation: " + op);
+        };
+    }
+
+    /**
+     * Builds a name filter over the row ids of a game table, comparing dictionary codes.
+     *
+     * The value is looked up in the table's {@link NameDictionary} once. As codes are in
+     * the same order as the normalized names, every comparison turns into comparing the
+     * row's code with a bound. CONTAINS is checked once per distinct name.
+     *
+     * @param table the table the row ids belong to
+     * @param op    the comparison operation
+     * @param lower the value to compare against, in lower case
+     * @return a predicate over row ids
+     */
+    public static IntPredicate nameFilter(IGameTable table, Operations op, String lower) {
+        NameDictionary dictionary = table.getNameDictionary();
+        IntUnaryOperator codes = table.nameCodeColumn();
+        switch (op) {
+            case EQUALS, NOT_EQUALS -> {
+                int code = dictionary.find(lower);
+                boolean equals = op == Operations.EQUALS;
+                return row -> (codes.applyAsInt(row) == code) == equals;
+            }
+            case LESS_THAN -> {
+                int bound = dictionary.lowerBound(lower);
+                return row -> codes.applyAsInt(row) < bound;
+            }
+            case LESS_THAN_EQUALS -> {
+                int bound = dictionary.upperBound(lower);
+                return row -> codes.applyAsInt(row) < bound;
+            }
+            case GREATER_THAN -> {
+                int bound = dictionary.upperBound(lower);
+                return row -> codes.applyAsInt(row) >= bound;
+            }
+            case GREATER_THAN_EQUALS -> {
+                int bound = dictionary.lowerBound(lower);
+                return row -> codes.applyAsInt(row) >= bound;
+            }
+            default -> {
+                IntPredicate containing = dictionary.containing(lower);
+                boolean[] matches = new boolean[dictionary.size()];
+                for (int code = 0; code < matches.length; code++) {
+                    matches[code] = containing.test(code);
+                }
+                return row -> matches[codes.applyAsInt(row)];
+            }
+        }
+    }
 }
@@ -0,0 +1,319 @@
+package student;
+
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * The changes between two versions of a collection, matched up by objectid.
+ *
+ * A game is an insert if its id is new, a delete if its id is gone, and an update if
+ * the id is in both versions but any of the values changed. Games that did not change
+ * are not part of the delta.
+ */
+public final class GameDelta {
+    /** Games whose id was not in the old collection. */
+    private final List<BoardGame> inserts;
+    /** The new version of games whose values changed. */
+    private final List<BoardGame> updates;
+    /** The old version of the updated games, in the same order as updates. */
+    private final List<BoardGame> replaced;
+    /** Games whose id is not in the new collection. */
+    private final List<BoardGame> deletes;
+    /** The table the delta was diffed from, null if it was diffed from a collection. */
+    private final IGameTable source;
+    /** The table the delta was diffed into, null if it was diffed from a collection. */
+    private final IGameTable target;
+
+    /**
+     * Constructor for the delta.
+     *
+     * @param inserts  the inserted games
+     * @param updates  the new version of the updated games
+     * @param replaced the old version of the updated games
+     * @param deletes  the deleted games
+     * @param source   the table diffed from, or null
+     * @param target   the table diffed into, or null
+     */
+    private GameDelta(List<BoardGame> inserts, List<BoardGame> updates, List<BoardGame> replaced,
+                      List<BoardGame> deletes, IGameTable source, IGameTable target) {
+        this.inserts = Collections.unmodifiableList(inserts);
+        this.updates = Collections.unmodifiableList(updates);
+        this.replaced = Collections.unmodifiableList(replaced);
+        this.deletes = Collections.unmodifiableList(deletes);
+        this.source = source;
+        this.target = target;
+    }
+
+    /**
+     * Works out the changes needed to turn the current collection into the next one.
+     *
+     * @param current the collection as it is now
+     * @param next    the collection as it should be
+     * @return the delta between them
+     */
+    public static GameDelta diff(Collection<BoardGame> current, Collection<BoardGame> next) {
+        Map<Integer, BoardGame> byId = new HashMap<>(current.size() * 4 / 3 + 1);
+        for (BoardGame game : current) {
+            byId.put(game.getId(), game);
+        }
+        List<BoardGame> inserts = new ArrayList<>();
+        List<BoardGame> updates = new ArrayList<>();
+        List<BoardGame> replaced = new ArrayList<>();
+        for (BoardGame game : next) {
+            BoardGame old = byId.remove(game.getId());
+            if (old == null) {
+                inserts.add(game);
+            } else if (!sameValues(old, game)) {
+                updates.add(game);
+                replaced.add(old);
+            }
+        }
+        return new GameDelta(inserts, updates, replaced, new ArrayList<>(byId.values()), null, null);
+    }
+
+    /**
+     * Works out the changes needed to turn the current table into the next one.
+     *
+     * The rows are matched up by sorting (objectid, row) pairs of both tables and walking
+     * them together, and compared through the column accessors, so only the games that
+     * changed are ever built as BoardGame objects. The pairs of an off heap table are sorted
+     * in a direct buffer. The delta remembers both tables, so applying it to the current table
+     * can hand back the next one instead of copying rows, see {@link #target(IGameTable)}.
+     *
+     * @param current the table as it is now
+     * @param next    the table as it should be
+     * @return the delta between them
+     */
+    public static GameDelta diff(IGameTable current, IGameTable next) {
+        LongBuffer currentIds = sortedIds(current);
+        LongBuffer nextIds = sortedIds(next);
+        List<BoardGame> inserts = new ArrayList<>();
+        List<BoardGame> updates = new ArrayList<>();
+        List<BoardGame> replaced = new ArrayList<>();
+        List<BoardGame> deletes = new ArrayList<>();
+        RowComparer rows = new RowComparer(current, next);
+        int i = 0;
+        int j = 0;
+        while (i < currentIds.limit() || j < nextIds.limit()) {
+            int oldRow = (int) (i < currentIds.limit() ? currentIds.get(i) : 0);
+            int newRow = (int) (j < nextIds.limit() ? nextIds.get(j) : 0);
+            int order = i == currentIds.limit() ? 1 : j == nextIds.limit() ? -1
+                    : Integer.compare((int) (currentIds.get(i) >> Integer.SIZE),
+                            (int) (nextIds.get(j) >> Integer.SIZE));
+            if (order < 0) {
+                deletes.add(current.toBoardGame(oldRow));
+                i++;
+            } else if (order > 0) {
+                inserts.add(next.toBoardGame(newRow));
+                j++;
+            } else {
+                if (!rows.same(oldRow, newRow)) {
+                    updates.add(next.toBoardGame(newRow));
+                    replaced.add(current.toBoardGame(oldRow));
+                }
+                i++;
+                j++;
+            }
+        }
+        return new GameDelta(inserts, updates, replaced, deletes, current, next);
+    }
+
+    /**
+     * Packs the objectid and row id of every row into a long, sorted by id. The pairs of an
+     * off heap table are kept in a direct buffer.
+     *
+     * @param table the table
+     * @return the sorted (id, row) pairs
+     */
+    private static LongBuffer sortedIds(IGameTable table) {
+        IntUnaryOperator ids = table.intColumn(GameData.ID);
+        LongBuffer packed = table.isOffHeap() ? OffHeapGameTable.allocate((long) table.size() * Long.BYTES)
+                .asLongBuffer() : LongBuffer.allocate(table.size());
+        for (int row = 0; row < table.size(); row++) {
+            packed.put(row, (long) ids.applyAsInt(row) << Integer.SIZE | row);
+        }
+        Sorting.sort(packed);
+        return packed;
+    }
+
+    /**
+     * Gets the table this delta was diffed into, if it was diffed from the given table. Applying
+     * the delta to that table gives the same games, so the next table can be used as it is.
+     *
+     * @param table the table the delta is applied to
+     * @return the table diffed into, or null if the delta was not diffed from this table
+     */
+    IGameTable target(IGameTable table) {
+        return table == source ? target : null;
+    }
+
+    /**
+     * Tests which rows of a table this delta keeps, the ones that are not deleted or replaced
+     * by an update.
+     *
+     * @param table the table the delta is applied to
+     * @return a test of row ids, true for the kept rows
+     */
+    IntPredicate keeps(IGameTable table) {
+        Set<Integer> dropped = new HashSet<>();
+        deletes.forEach(game -> dropped.add(game.getId()));
+        replaced.forEach(game -> dropped.add(game.getId()));
+        IntUnaryOperator ids = table.intColumn(GameData.ID);
+        return row -> !dropped.contains(ids.applyAsInt(row));
+    }
+
+    /**
+     * Finds the rows of a table that this delta keeps, the ones that are not deleted
+     * or replaced by an update.
+     *
+     * @param table the table the delta is applied to
+     * @return the kept row ids, in order
+     */
+    int[] keptRows(IGameTable table) {
+        IntPredicate keeps = keeps(table);
+        int[] kept = new int[table.size()];
+        int count = 0;
+        for (int row = 0; row < table.size(); row++) {
+            if (keeps.test(row)) {
+                kept[count++] = row;
+            }
+        }
+        return Arrays.copyOf(kept, count);
+    }
+
+    /**
+     * Checks every value of two games, as BoardGame.equals only looks at the name and id.
+     *
+     * @param a a game
+     * @param b another game
+     * @return true if all values are the same
+     */
+    private static boolean sameValues(BoardGame a, BoardGame b) {
+        return a.getId() == b.getId() && a.getName().equals(b.getName())
+                && a.getMinPlayers() == b.getMinPlayers() && a.getMaxPlayers() == b.getMaxPlayers()
+                && a.getMinPlayTime() == b.getMinPlayTime() && a.getMaxPlayTime() == b.getMaxPlayTime()
+                && Double.compare(a.getDifficulty(), b.getDifficulty()) == 0 && a.getRank() == b.getRank()
+                && Double.compare(a.getRating(), b.getRating()) == 0
+                && a.getYearPublished() == b.getYearPublished();
+    }
+
+    /**
+     * Get the inserted games.
+     *
+     * @return games whose id is new
+     */
+    public List<BoardGame> getInserts() {
+        return inserts;
+    }
+
+    /**
+     * Get the new version of the updated games.
+     *
+     * @return the updated games
+     */
+    public List<BoardGame> getUpdates() {
+        return updates;
+    }
+
+    /**
+     * Get the old version of the updated games, in the same order as {@link #getUpdates()}.
+     *
+     * @return the games that the updates replace
+     */
+    public List<BoardGame> getReplaced() {
+        return replaced;
+    }
+
+    /**
+     * Get the deleted games.
+     *
+     * @return games whose id is gone
+     */
+    public List<BoardGame> getDeletes() {
+        return deletes;
+    }
+
+    /**
+     * Check if there is nothing to apply.
+     *
+     * @return true if the collections were the same
+     */
+    public boolean isEmpty() {
+        return inserts.isEmpty() && updates.isEmpty() && deletes.isEmpty();
+    }
+
+    /**
+     * Get a short summary of the delta.
+     *
+     * @return the number of inserts, updates and deletes
+     */
+    @Override
+    public String toString() {
+        return "GameDelta{inserts=" + inserts.size() + ", updates=" + updates.size()
+                + ", deletes=" + deletes.size() + '}';
+    }
+
+    /**
+     * Compares the rows of two tables value by value, through their column accessors.
+     */
+    private static final class RowComparer {
+        /** The table of the old rows. */
+        private final IGameTable current;
+        /** The table of the new rows. */
+        private final IGameTable next;
+        /** The int columns of both tables, old then new. */
+        private final List<IntUnaryOperator[]> ints = new ArrayList<>();
+        /** The double columns of both tables, old then new. */
+        private final List<IntToDoubleFunction[]> doubles = new ArrayList<>();
+
+        /**
+         * Constructor for the comparer.
+         *
+         * @param current the table of the old rows
+         * @param next    the table of the new rows
+         */
+        RowComparer(IGameTable current, IGameTable next) {
+            this.current = current;
+            this.next = next;
+            for (GameData col : GameData.values()) {
+                if (current.intColumn(col) != null) {
+                    ints.add(new IntUnaryOperator[] {current.intColumn(col), next.intColumn(col)});
+                } else if (current.doubleColumn(col) != null) {
+                    doubles.add(new IntToDoubleFunction[] {current.doubleColumn(col), next.doubleColumn(col)});
+                }
+            }
+        }
+
+        /**
+         * Checks every value of an old row against a new row.
+         *
+         * @param oldRow the row in the current table
+         * @param newRow the row in the next table
+         * @return true if all values are the same
+         */
+        boolean same(int oldRow, int newRow) {
+            for (IntUnaryOperator[] col : ints) {
+                if (col[0].applyAsInt(oldRow) != col[1].applyAsInt(newRow)) {
+                    return false;
+                }
+            }
+            for (IntToDoubleFunction[] col : doubles) {
+                if (Double.compare(col[0].applyAsDouble(oldRow), col[1].applyAsDouble(newRow)) != 0) {
+                    return false;
+                }
+            }
+            return current.getName(oldRow).equals(next.getName(newRow));
+        }
+    }
+}
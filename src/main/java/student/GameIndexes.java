@@ -0,0 +1,181 @@
+package student;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * The secondary indexes of one game table, built together when the table is loaded.
+ *
+ * The statistics the planner uses to pick between them are collected at the same time.
+ *
+ * The sorted, bitmap, trigram and name tree indexes are heap arrays and objects that grow with
+ * the table. An off heap table only gets the rows grouped by name code, kept in direct buffers,
+ * and statistics taken from a fixed size sample of rows. Its range filters are answered by vector scans of the
+ * off heap columns, and its name lookups binary search its {@link NameDictionary}.
+ *
+ * Like the table, the indexes are immutable. A changed collection gets a new table and
+ * new indexes.
+ */
+public final class GameIndexes {
+    /** The low cardinality columns that get a {@link BitmapIndex}. */
+    public static final Set<GameData> BITMAP_COLUMNS = EnumSet.of(GameData.MIN_PLAYERS, GameData.MAX_PLAYERS,
+            GameData.YEAR);
+
+    /** Every row of the table. */
+    private final CompressedBitmap allRows;
+    /** The bitmap index of each column in BITMAP_COLUMNS, indexed by GameData ordinal, null for the rest. */
+    private final BitmapIndex[] bitmaps;
+    /** The sorted index of each numeric column, indexed by GameData ordinal, null for the rest. */
+    private final SortedColumnIndex[] sorted;
+    /** The statistics of each numeric column, indexed by GameData ordinal, null for the rest. */
+    private final ColumnStatistics[] statistics;
+    /** The normalized names of the table. */
+    private final NameDictionary dictionary;
+    /** The rows of each name code. */
+    private final NameCodeRows nameRows;
+    /** The radix tree of the names, null for an off heap table. */
+    private final NameTrie trie;
+    /** The trigram index of the names, null for an off heap table. */
+    private final TrigramIndex trigrams;
+
+    /**
+     * Constructor for the indexes, building every index of the table, or only the small ones
+     * for an off heap table.
+     *
+     * @param table the table to index
+     */
+    public GameIndexes(IGameTable table) {
+        boolean full = !table.isOffHeap();
+        allRows = CompressedBitmap.range(0, table.size());
+        sorted = new SortedColumnIndex[GameData.values().length];
+        bitmaps = new BitmapIndex[GameData.values().length];
+        statistics = new ColumnStatistics[GameData.values().length];
+        for (GameData column : GameData.values()) {
+            if (column != GameData.NAME && column != GameData.ID) {
+                if (full) {
+                    sorted[column.ordinal()] = SortedColumnIndex.build(table, column);
+                    statistics[column.ordinal()] = ColumnStatistics.build(sorted[column.ordinal()],
+                            ColumnStatistics.DEFAULT_BUCKETS);
+                } else {
+                    statistics[column.ordinal()] = ColumnStatistics.sample(table, column,
+                            ColumnStatistics.DEFAULT_BUCKETS, ColumnStatistics.DEFAULT_SAMPLES);
+                }
+            }
+            if (full && BITMAP_COLUMNS.contains(column)) {
+                bitmaps[column.ordinal()] = BitmapIndex.build(table, column);
+            }
+        }
+        dictionary = table.getNameDictionary();
+        nameRows = NameCodeRows.build(table);
+        trie = full ? NameTrie.build(dictionary) : null;
+        trigrams = full ? TrigramIndex.build(table, nameRows) : null;
+    }
+
+    /**
+     * Get every row of the table.
+     *
+     * @return the bitmap of all row ids
+     */
+    public CompressedBitmap allRows() {
+        return allRows;
+    }
+
+    /**
+     * Get the bitmap index of a column.
+     *
+     * @param column the column
+     * @return the index, or null if the column has none
+     */
+    public BitmapIndex bitmapIndex(GameData column) {
+        return bitmaps[column.ordinal()];
+    }
+
+    /**
+     * Get the sorted index of a column.
+     *
+     * @param column the column
+     * @return the index, or null if the column has none
+     */
+    public SortedColumnIndex sortedIndex(GameData column) {
+        return sorted[column.ordinal()];
+    }
+
+    /**
+     * Get the statistics of a column.
+     *
+     * @param column the column
+     * @return the statistics, or null for columns that are not numeric
+     */
+    public ColumnStatistics statistics(GameData column) {
+        return statistics[column.ordinal()];
+    }
+
+    /**
+     * Get the number of distinct normalized names.
+     *
+     * @return the distinct name count
+     */
+    public int distinctNames() {
+        return dictionary.size();
+    }
+
+    /**
+     * Looks up the code of a name, in the name tree if there is one, else in the dictionary.
+     *
+     * @param normalized the normalized name
+     * @return the code, or -1 if no game has that name
+     */
+    public int findName(String normalized) {
+        return trie != null ? trie.find(normalized) : dictionary.find(normalized);
+    }
+
+    /**
+     * Finds the codes of the names that match a comparison, in the name tree if there is one,
+     * else in the dictionary.
+     *
+     * @param op    the operation, see {@link NameTrie#supports(Operations)}
+     * @param value the value to compare against
+     * @return the first code and the code after the last one, equal if there are none
+     */
+    public int[] nameRange(Operations op, String value) {
+        return trie != null ? trie.range(op, value) : dictionary.range(op, value);
+    }
+
+    /**
+     * Finds the codes of the names that start with a prefix, in the name tree if there is one,
+     * else in the dictionary.
+     *
+     * @param prefix the normalized prefix
+     * @return the first code and the code after the last one, equal if there are none
+     */
+    public int[] namePrefixRange(String prefix) {
+        return trie != null ? trie.prefixRange(prefix) : dictionary.prefixRange(prefix);
+    }
+
+    /**
+     * Get the rows of each name code.
+     *
+     * @return the rows grouped by name code
+     */
+    public NameCodeRows nameRows() {
+        return nameRows;
+    }
+
+    /**
+     * Get the radix tree of the names.
+     *
+     * @return the tree, or null for an off heap table
+     */
+    public NameTrie nameTrie() {
+        return trie;
+    }
+
+    /**
+     * Get the trigram index of the names.
+     *
+     * @return the index, or null for an off heap table
+     */
+    public TrigramIndex trigramIndex() {
+        return trigrams;
+    }
+}
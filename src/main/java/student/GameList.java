@@ -8,6 +8,7 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -27,11 +28,27 @@ public class GameList implements IGameList {
      */
     private final Set<BoardGame> games;
 
+    /**
+     * Finds a game by name among the filtered games, or null to search the filtered stream.
+     */
+    private final Function<String, BoardGame> nameLookup;
+
     /**
      * Constructor for the GameList.
      */
     public GameList() {
+        this(null);
+    }
+
+    /**
+     * Constructor for a GameList that adds games by name through a lookup, such as
+     * {@link Planner#findByName(String)}, instead of scanning the filtered stream.
+     *
+     * @param nameLookup finds a filtered game by name, ignoring case, or returns null
+     */
+    public GameList(Function<String, BoardGame> nameLookup) {
         this.games = new HashSet<>();
+        this.nameLookup = nameLookup;
     }
 
     /**
@@ -109,7 +126,7 @@ public class GameList implements IGameList {
         } else if (str.matches("\\d+(-\\d+)?")) {
             games.addAll(filterByIndex(str, filtered));
         } else {
-            BoardGame found = findByName(str, filtered);
+            BoardGame found = nameLookup != null ? nameLookup.apply(str) : findByName(str, filtered);
             if (found == null) {
                 throw new IllegalArgumentException(
                         "No game named \"" + str + "\" found in filtered list");
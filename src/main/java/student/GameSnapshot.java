@@ -0,0 +1,329 @@
+package student;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.CRC32C;
+
+/**
+ * A compact binary copy of a parsed collection, so later starts can skip the csv parse.
+ *
+ * The snapshot is column oriented. After a small header, each numeric GameData column
+ * is stored as one block of ints or doubles, followed by the name lengths and the
+ * UTF-8 name bytes:
+ *
+ * <pre>
+ *  int magic, int version, long sourceKey, int count
+ *  int[count] for each int column, double[count] for each double column (GameData order)
+ *  int[count] name lengths, byte[] names
+ * </pre>
+ *
+ * The sourceKey is a hash of the contents of the csv the snapshot was built from (see
+ * {@link #sourceKey(Path)}), and it is checked against the csv on every read, so a snapshot
+ * is only used while its csv is unchanged. The size and modified time of the csv are not
+ * trusted, as an edit that keeps the size can land within the file system's time granularity.
+ * The csv is mapped and hashed with CRC32C, which costs far less than parsing it.
+ */
+public final class GameSnapshot {
+    /** Marks the start of a snapshot file, "BGAS". */
+    private static final int MAGIC = 0x42474153;
+
+    /** Format version, bump when the layout changes. */
+    private static final int VERSION = 3;
+
+    /** Where the hash of the csv starts. */
+    private static final int KEY_OFFSET = 4 + 4;
+
+    /** Where the row count starts. */
+    private static final int COUNT_OFFSET = KEY_OFFSET + 8;
+
+    /** Bytes before the first column. */
+    private static final int HEADER_SIZE = COUNT_OFFSET + 4;
+
+    /** Suffix added to the csv file name for its snapshot. */
+    private static final String SUFFIX = ".snapshot";
+
+    /** Largest region hashed at once. */
+    private static final long MAX_WINDOW = 1L << 30;
+
+    /** private constructor to prevent instantiation. */
+    private GameSnapshot() {
+    }
+
+    /**
+     * Gets the snapshot location for a csv file, which sits next to it.
+     *
+     * @param csv the csv file
+     * @return the path of its snapshot
+     */
+    public static Path snapshotFor(Path csv) {
+        return csv.resolveSibling(csv.getFileName() + SUFFIX);
+    }
+
+    /**
+     * Hashes the csv file, so a snapshot can tell if it was built from it.
+     *
+     * The low 32 bits are the CRC32C of the contents, and the high 32 bits are the
+     * low 32 bits of the file size.
+     *
+     * @param csv the csv file
+     * @return the key for the current contents of the file
+     * @throws IOException if the file cannot be read
+     */
+    public static long sourceKey(Path csv) throws IOException {
+        CRC32C crc = new CRC32C();
+        long size;
+        try (FileChannel channel = FileChannel.open(csv, StandardOpenOption.READ)) {
+            size = channel.size();
+            for (long pos = 0; pos < size; pos += MAX_WINDOW) {
+                crc.update(channel.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(size - pos, MAX_WINDOW)));
+            }
+        }
+        return (size << 32) | crc.getValue();
+    }
+
+    /**
+     * Writes the games into a snapshot file, replacing any existing one.
+     *
+     * The snapshot is written to a temporary file first and moved into place,
+     * so a reader never sees a half written snapshot.
+     *
+     * @param snapshot the snapshot file to write
+     * @param source   the csv the games came from, hashed before they were parsed
+     * @param games    the games to store
+     * @throws IOException if the snapshot cannot be written
+     */
+    public static void write(Path snapshot, Source source, Collection<BoardGame> games) throws IOException {
+        long sourceKey = source.key();
+        BoardGame[] rows = games.toArray(new BoardGame[0]);
+        byte[][] names = new byte[rows.length][];
+        for (int i = 0; i < rows.length; i++) {
+            names[i] = rows[i].getName().getBytes(StandardCharsets.UTF_8);
+        }
+
+        Path temp = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(sourceKey);
+            out.writeInt(rows.length);
+            for (GameData col : GameData.values()) {
+                switch (col) {
+                    case NAME -> {
+                        // names go last, as they are variable length
+                    }
+                    case RATING, DIFFICULTY -> {
+                        for (BoardGame game : rows) {
+                            out.writeDouble(doubleValue(game, col));
+                        }
+                    }
+                    default -> {
+                        for (BoardGame game : rows) {
+                            out.writeInt(intValue(game, col));
+                        }
+                    }
+                }
+            }
+            for (byte[] name : names) {
+                out.writeInt(name.length);
+            }
+            for (byte[] name : names) {
+                out.write(name);
+            }
+        }
+        Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads the games back from a snapshot file, if it was built from the current csv. The csv
+     * is hashed to check, unless the source was hashed already.
+     *
+     * @param snapshot the snapshot file to read
+     * @param source   the csv the snapshot should have been built from
+     * @return the games, or null if there is no snapshot, it is for a different csv,
+     *         or it is not a valid snapshot
+     * @throws IOException if the snapshot exists but cannot be read, or the csv cannot be hashed
+     */
+    public static Set<BoardGame> read(Path snapshot, Source source) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = header(channel);
+            if (buffer == null || buffer.getLong(KEY_OFFSET) != source.key()) {
+                return null;
+            }
+            return readColumns(buffer.position(COUNT_OFFSET));
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Maps a snapshot file and checks its magic and format version.
+     *
+     * @param channel the snapshot file
+     * @return the whole file, or null if it is not a snapshot of this version
+     * @throws IOException if the file cannot be mapped
+     */
+    private static MappedByteBuffer header(FileChannel channel) throws IOException {
+        if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+            return null;
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            return null;
+        }
+        return buffer;
+    }
+
+    /**
+     * Reads the column blocks that follow the header.
+     *
+     * @param buffer the snapshot, positioned at the row count
+     * @return the games, or null if the snapshot is truncated
+     */
+    private static Set<BoardGame> readColumns(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        GameData[] cols = GameData.values();
+        int[][] ints = new int[cols.length][];
+        double[][] doubles = new double[cols.length][];
+        try {
+            for (GameData col : cols) {
+                switch (col) {
+                    case NAME -> {
+                        // names are read last
+                    }
+                    case RATING, DIFFICULTY -> {
+                        doubles[col.ordinal()] = new double[count];
+                        buffer.asDoubleBuffer().get(doubles[col.ordinal()]);
+                        buffer.position(buffer.position() + count * Double.BYTES);
+                    }
+                    default -> {
+                        ints[col.ordinal()] = new int[count];
+                        buffer.asIntBuffer().get(ints[col.ordinal()]);
+                        buffer.position(buffer.position() + count * Integer.BYTES);
+                    }
+                }
+            }
+            int[] lengths = new int[count];
+            buffer.asIntBuffer().get(lengths);
+            buffer.position(buffer.position() + count * Integer.BYTES);
+
+            Set<BoardGame> games = new HashSet<>(count * 4 / 3 + 1);
+            byte[] scratch = new byte[64];
+            for (int i = 0; i < count; i++) {
+                if (scratch.length < lengths[i]) {
+                    scratch = new byte[Math.max(lengths[i], scratch.length * 2)];
+                }
+                buffer.get(scratch, 0, lengths[i]);
+                games.add(new BoardGame(new String(scratch, 0, lengths[i], StandardCharsets.UTF_8),
+                        ints[GameData.ID.ordinal()][i],
+                        ints[GameData.MIN_PLAYERS.ordinal()][i],
+                        ints[GameData.MAX_PLAYERS.ordinal()][i],
+                        ints[GameData.MIN_TIME.ordinal()][i],
+                        ints[GameData.MAX_TIME.ordinal()][i],
+                        doubles[GameData.DIFFICULTY.ordinal()][i],
+                        ints[GameData.RANK.ordinal()][i],
+                        doubles[GameData.RATING.ordinal()][i],
+                        ints[GameData.YEAR.ordinal()][i]));
+            }
+            return games;
+        } catch (RuntimeException e) {
+            // BufferUnderflowException, NegativeArraySizeException and friends from a damaged file
+            return null;
+        }
+    }
+
+    /**
+     * What a snapshot checks a csv file against: the hash of its contents, computed the first
+     * time it is asked for and then kept, so checking a snapshot and writing a new one read
+     * the file once.
+     *
+     * Take the source, and its key, before parsing the csv: if the file changes in between,
+     * the snapshot then looks stale on the next start instead of the other way round.
+     */
+    public static final class Source {
+        /** The csv file. */
+        private final Path csv;
+        /** The hash of the contents, once computed. */
+        private Long key;
+
+        /**
+         * Constructor for a source.
+         *
+         * @param csv the csv file
+         */
+        private Source(Path csv) {
+            this.csv = csv;
+        }
+
+        /**
+         * Names a csv file to check snapshots against, without reading it yet.
+         *
+         * @param csv the csv file
+         * @return the source
+         */
+        public static Source of(Path csv) {
+            return new Source(csv);
+        }
+
+        /**
+         * Gets the hash of the file, see {@link GameSnapshot#sourceKey(Path)}. The whole file is
+         * read the first time.
+         *
+         * @return the key
+         * @throws IOException if the file cannot be read
+         */
+        public long key() throws IOException {
+            if (key == null) {
+                key = sourceKey(csv);
+            }
+            return key;
+        }
+    }
+
+    /**
+     * Gets the value of an int column.
+     *
+     * @param game the game
+     * @param col  an int column
+     * @return the value
+     */
+    private static int intValue(BoardGame game, GameData col) {
+        return switch (col) {
+            case ID -> game.getId();
+            case RANK -> game.getRank();
+            case MIN_PLAYERS -> game.getMinPlayers();
+            case MAX_PLAYERS -> game.getMaxPlayers();
+            case MIN_TIME -> game.getMinPlayTime();
+            case MAX_TIME -> game.getMaxPlayTime();
+            case YEAR -> game.getYearPublished();
+            default -> throw new IllegalArgumentException("The column " + col.getColumnName() + " is not an int");
+        };
+    }
+
+    /**
+     * Gets the value of a double column.
+     *
+     * @param game the game
+     * @param col  a double column
+     * @return the value
+     */
+    private static double doubleValue(BoardGame game, GameData col) {
+        return switch (col) {
+            case RATING -> game.getRating();
+            case DIFFICULTY -> game.getDifficulty();
+            default -> throw new IllegalArgumentException("The column " + col.getColumnName() + " is not a double");
+        };
+    }
+}
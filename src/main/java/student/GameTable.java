@@ -0,0 +1,221 @@
+package student;
+
+import java.util.Collection;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * A column oriented (struct of arrays) copy of a collection of board games.
+ *
+ * Each GameData column is stored in its own int[] or double[] (plus a String[] for the
+ * names), and a game is identified by its row id, its index into those arrays. Scanning
+ * one column touches one contiguous array instead of following a pointer to every
+ * BoardGame, and BoardGame objects are only built for the rows that are returned.
+ *
+ * A table is immutable. Changes produce a new table (see {@link #applyDelta(GameDelta)}).
+ * The arrays live on the heap, see {@link OffHeapGameTable} for very large catalogs.
+ */
+public final class GameTable implements IGameTable {
+    /** The name of each row. */
+    private final String[] names;
+    /** The name dictionary code of each row. */
+    private final int[] nameCodes;
+    /** The normalized names, set once the rows are filled in. */
+    private NameDictionary dictionary;
+    /** The int columns, indexed by GameData ordinal, null for columns that are not ints. */
+    private final int[][] intColumns;
+    /** The double columns, indexed by GameData ordinal, null for columns that are not doubles. */
+    private final double[][] doubleColumns;
+
+    /**
+     * Constructor for the table, copying the games into columns.
+     *
+     * @param games the games to store, one row each
+     */
+    public GameTable(Collection<BoardGame> games) {
+        this(games.size());
+        int row = 0;
+        for (BoardGame game : games) {
+            set(row++, game);
+        }
+        indexNames();
+    }
+
+    /**
+     * Constructor for an empty table of the given size.
+     *
+     * @param size the number of rows
+     */
+    private GameTable(int size) {
+        GameData[] cols = GameData.values();
+        names = new String[size];
+        nameCodes = new int[size];
+        intColumns = new int[cols.length][];
+        doubleColumns = new double[cols.length][];
+        for (GameData col : cols) {
+            switch (col) {
+                case NAME -> {
+                    // names have their own column
+                }
+                case RATING, DIFFICULTY -> doubleColumns[col.ordinal()] = new double[size];
+                default -> intColumns[col.ordinal()] = new int[size];
+            }
+        }
+    }
+
+    /**
+     * Builds the name dictionary, once every row is filled in.
+     */
+    private void indexNames() {
+        dictionary = NameDictionary.build(names.length, row -> names[row], nameCodes);
+    }
+
+    /**
+     * Copies a game into a row.
+     *
+     * @param row  the row to fill
+     * @param game the game to copy
+     */
+    private void set(int row, BoardGame game) {
+        names[row] = game.getName();
+        intColumns[GameData.ID.ordinal()][row] = game.getId();
+        intColumns[GameData.MIN_PLAYERS.ordinal()][row] = game.getMinPlayers();
+        intColumns[GameData.MAX_PLAYERS.ordinal()][row] = game.getMaxPlayers();
+        intColumns[GameData.MIN_TIME.ordinal()][row] = game.getMinPlayTime();
+        intColumns[GameData.MAX_TIME.ordinal()][row] = game.getMaxPlayTime();
+        intColumns[GameData.RANK.ordinal()][row] = game.getRank();
+        intColumns[GameData.YEAR.ordinal()][row] = game.getYearPublished();
+        doubleColumns[GameData.RATING.ordinal()][row] = game.getRating();
+        doubleColumns[GameData.DIFFICULTY.ordinal()][row] = game.getDifficulty();
+    }
+
+    /**
+     * Copies a row from another table.
+     *
+     * @param row   the row to fill
+     * @param from  the table to copy from
+     * @param other the row in that table
+     */
+    private void copy(int row, GameTable from, int other) {
+        names[row] = from.names[other];
+        for (int c = 0; c < intColumns.length; c++) {
+            if (intColumns[c] != null) {
+                intColumns[c][row] = from.intColumns[c][other];
+            }
+            if (doubleColumns[c] != null) {
+                doubleColumns[c][row] = from.doubleColumns[c][other];
+            }
+        }
+    }
+
+    /**
+     * Get the number of rows.
+     *
+     * @return the number of games in the table
+     */
+    @Override
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * Get the name of a row.
+     *
+     * @param row the row id
+     * @return the name of the game
+     */
+    @Override
+    public String getName(int row) {
+        return names[row];
+    }
+
+    /**
+     * Get the dictionary of normalized names.
+     *
+     * @return the name dictionary
+     */
+    @Override
+    public NameDictionary getNameDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Get a view of the name code column.
+     *
+     * @return a function from row id to name code
+     */
+    @Override
+    public IntUnaryOperator nameCodeColumn() {
+        return row -> nameCodes[row];
+    }
+
+    /**
+     * Get a view of an int column, reading straight from its array.
+     *
+     * @param col the column
+     * @return a function from row id to value, or null if the column is not an int column
+     */
+    @Override
+    public IntUnaryOperator intColumn(GameData col) {
+        int[] values = intColumns[col.ordinal()];
+        return values == null ? null : row -> values[row];
+    }
+
+    /**
+     * Get a view of a double column, reading straight from its array.
+     *
+     * @param col the column
+     * @return a function from row id to value, or null if the column is not a double column
+     */
+    @Override
+    public IntToDoubleFunction doubleColumn(GameData col) {
+        double[] values = doubleColumns[col.ordinal()];
+        return values == null ? null : row -> values[row];
+    }
+
+    /**
+     * Compares a whole numeric column against a value with the vector API, reading its array.
+     *
+     * @param col    a numeric column
+     * @param op     the comparison, not CONTAINS
+     * @param number the value to compare against
+     * @return the selection bitmask
+     * @throws IllegalArgumentException if the column is not numeric or the operation is CONTAINS
+     */
+    @Override
+    public long[] numberMask(GameData col, Operations op, double number) {
+        int[] ints = intColumns[col.ordinal()];
+        if (ints != null) {
+            return VectorFilters.select(ints, op, number);
+        }
+        double[] doubles = doubleColumns[col.ordinal()];
+        if (doubles != null) {
+            return VectorFilters.select(doubles, op, number);
+        }
+        throw new IllegalArgumentException("The column " + col.getColumnName() + " is not numeric");
+    }
+
+    /**
+     * Builds a new table with the delta applied. This table is not changed.
+     *
+     * @param delta the changes to apply
+     * @return the new table
+     */
+    @Override
+    public GameTable applyDelta(GameDelta delta) {
+        int[] kept = delta.keptRows(this);
+        GameTable next = new GameTable(kept.length + delta.getInserts().size() + delta.getUpdates().size());
+        int row = 0;
+        for (int other : kept) {
+            next.copy(row++, this, other);
+        }
+        for (BoardGame game : delta.getInserts()) {
+            next.set(row++, game);
+        }
+        for (BoardGame game : delta.getUpdates()) {
+            next.set(row++, game);
+        }
+        next.indexNames();
+        return next;
+    }
+}
@@ -4,6 +4,7 @@ import java.io.BufferedReader;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -53,9 +54,9 @@ public final class GamesLoader {
             return games;
         }
 
-        Map<GameData, Integer> columnMap = processHeader(lines.remove(0));
+        CsvProjection projection = CsvProjection.fromHeader(lines.remove(0));
 
-        games = lines.stream().map(line -> toBoardGame(line, columnMap))
+        games = lines.stream().map(projection::parse)
                 .filter(game -> game != null).collect(Collectors.toSet());
 
         return games;
@@ -63,34 +64,83 @@ public final class GamesLoader {
     }
 
     /**
-     * Converts a line from the csv file into a BoardGame object.
-     * 
-     * @param line      the line to convert
-     * @param columnMap the map of columns to index
-     * @return a BoardGame object
+     * Loads the games from a csv file on the file system into a set of BoardGame objects.
+     *
+     * Unlike {@link #loadGamesFile(String)}, the file is memory mapped and parsed straight
+     * from the bytes (see {@link MappedCsvReader}), which keeps large exports from being
+     * buffered as lines first.
+     *
+     * @param path the path of the file to load
+     * @return a set of BoardGame objects
+     */
+    public static Set<BoardGame> loadGamesFile(Path path) {
+        try {
+            return MappedCsvReader.read(path);
+        } catch (Exception e) {
+            System.err.println("Error reading file: " + e.getMessage());
+            return new HashSet<>();
+        }
+    }
+
+    /**
+     * Loads the games from a csv file on the file system, parsing it on every available core.
+     *
+     * Rows are deduplicated by objectid, keeping the first row in the file
+     * (see {@link MappedCsvReader#readParallel(Path, int)}).
+     *
+     * @param path the path of the file to load
+     * @return a set of BoardGame objects
+     */
+    public static Set<BoardGame> loadGamesFileParallel(Path path) {
+        try {
+            return MappedCsvReader.readParallel(path, Runtime.getRuntime().availableProcessors());
+        } catch (Exception e) {
+            System.err.println("Error reading file: " + e.getMessage());
+            return new HashSet<>();
+        }
+    }
+
+    /**
+     * Loads the games from a csv file on the file system, using a binary snapshot when possible.
+     *
+     * If a snapshot built from the current contents of the csv sits next to it, the games
+     * are read from the snapshot; the csv is hashed to check it, which is much faster than
+     * parsing it. If there is
+     * no valid snapshot, the csv is parsed in parallel and a new snapshot is written for the
+     * next start (see {@link GameSnapshot}). A parse that fails or finds no games is not
+     * written, so a bad read is retried on the next start.
+     *
+     * @param path the path of the file to load
+     * @return a set of BoardGame objects
      */
-    private static BoardGame toBoardGame(String line, Map<GameData, Integer> columnMap) {
-        String[] columns = line.split(DELIMITER);
-        if (columns.length < columnMap.values().stream().max(Integer::compareTo).get()) {
-            return null;
+    public static Set<BoardGame> loadGamesFileCached(Path path) {
+        Path snapshot = GameSnapshot.snapshotFor(path);
+        GameSnapshot.Source source;
+        Set<BoardGame> games;
+        try {
+            source = GameSnapshot.Source.of(path);
+            games = GameSnapshot.read(snapshot, source);
+            if (games != null) {
+                return games;
+            }
+            // hashed before parsing, so a change during the parse leaves the snapshot stale
+            source.key();
+            games = MappedCsvReader.readParallel(path, Runtime.getRuntime().availableProcessors());
+        } catch (Exception e) {
+            System.err.println("Error reading file: " + e.getMessage());
+            return new HashSet<>();
+        }
+        if (games.isEmpty()) {
+            return games;
         }
 
         try {
-            BoardGame game = new BoardGame(columns[columnMap.get(GameData.NAME)],
-                    Integer.parseInt(columns[columnMap.get(GameData.ID)]),
-                    Integer.parseInt(columns[columnMap.get(GameData.MIN_PLAYERS)]),
-                    Integer.parseInt(columns[columnMap.get(GameData.MAX_PLAYERS)]),
-                    Integer.parseInt(columns[columnMap.get(GameData.MIN_TIME)]),
-                    Integer.parseInt(columns[columnMap.get(GameData.MAX_TIME)]),
-                    Double.parseDouble(columns[columnMap.get(GameData.DIFFICULTY)]),
-                    Integer.parseInt(columns[columnMap.get(GameData.RANK)]),
-                    Double.parseDouble(columns[columnMap.get(GameData.RATING)]),
-                    Integer.parseInt(columns[columnMap.get(GameData.YEAR)]));
-            return game;
-        } catch (NumberFormatException e) {
-            // skip if there is an issue
-            return null;
+            GameSnapshot.write(snapshot, source, games);
+        } catch (Exception e) {
+            // still have the games, just no faster start next time
+            System.err.println("Error writing snapshot: " + e.getMessage());
         }
+        return games;
     }
 
     /**
@@ -103,7 +153,7 @@ public final class GamesLoader {
      * @param header the header line
      * @return a map of column to index
      */
-    private static Map<GameData, Integer> processHeader(String header) {
+    static Map<GameData, Integer> processHeader(String header) {
         Map<GameData, Integer> columnMap = new HashMap<>();
         String[] columns = header.split(DELIMITER);
         for (int i = 0; i < columns.length; i++) {
@@ -0,0 +1,154 @@
+package student;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Column oriented storage for a collection of board games, the backing store of a Planner.
+ *
+ * Games are identified by their row id, from 0 to size() - 1. Each numeric GameData
+ * column can be read through a column view, which maps a row id to its value, so scans
+ * can read one column at a time without building BoardGame objects.
+ *
+ * Implementations are immutable, applyDelta returns a new table.
+ *
+ * @see GameTable
+ * @see OffHeapGameTable
+ */
+public interface IGameTable {
+
+    /**
+     * Get the number of rows.
+     *
+     * @return the number of games in the table
+     */
+    int size();
+
+    /**
+     * Get the name of a row.
+     *
+     * @param row the row id
+     * @return the name of the game
+     */
+    String getName(int row);
+
+    /**
+     * Get the dictionary of normalized names, see {@link NameDictionary}.
+     *
+     * @return the name dictionary, built with the table
+     */
+    NameDictionary getNameDictionary();
+
+    /**
+     * Get a view of the name code column, the dictionary code of each row's normalized name.
+     *
+     * @return a function from row id to name code
+     */
+    IntUnaryOperator nameCodeColumn();
+
+    /**
+     * Get a view of an int column (ID, RANK, MIN_PLAYERS, MAX_PLAYERS, MIN_TIME, MAX_TIME, YEAR).
+     *
+     * @param col the column
+     * @return a function from row id to value, or null if the column is not an int column
+     */
+    IntUnaryOperator intColumn(GameData col);
+
+    /**
+     * Get a view of a double column (RATING, DIFFICULTY).
+     *
+     * @param col the column
+     * @return a function from row id to value, or null if the column is not a double column
+     */
+    IntToDoubleFunction doubleColumn(GameData col);
+
+    /**
+     * Builds a new table with the delta applied. This table is not changed.
+     *
+     * Rows that are deleted or replaced by an update are dropped, the rest keep their
+     * relative order, and the inserts and updates are added at the end.
+     *
+     * @param delta the changes to apply
+     * @return the new table
+     */
+    IGameTable applyDelta(GameDelta delta);
+
+    /**
+     * Check if the table keeps its rows outside of the java heap. The indexes of such a table
+     * stay small, see {@link GameIndexes}.
+     *
+     * @return true if the columns are off heap
+     */
+    default boolean isOffHeap() {
+        return false;
+    }
+
+    /**
+     * Get the value of a numeric column for a row, ints are widened to doubles.
+     *
+     * @param col a numeric column
+     * @param row the row id
+     * @return the value
+     * @throws IllegalArgumentException if the column is not numeric
+     */
+    default double getNumber(GameData col, int row) {
+        IntUnaryOperator ints = intColumn(col);
+        if (ints != null) {
+            return ints.applyAsInt(row);
+        }
+        IntToDoubleFunction doubles = doubleColumn(col);
+        if (doubles != null) {
+            return doubles.applyAsDouble(row);
+        }
+        throw new IllegalArgumentException("The column " + col.getColumnName() + " is not numeric");
+    }
+
+    /**
+     * Compares a whole numeric column against a value, see {@link VectorFilters}.
+     *
+     * This default tests one row at a time, tables override it with the vector path.
+     *
+     * @param col    a numeric column
+     * @param op     the comparison, not CONTAINS
+     * @param number the value to compare against
+     * @return the selection bitmask, bit {@code row & 63} of word {@code row >>> 6} set for each match
+     * @throws IllegalArgumentException if the column is not numeric or the operation is CONTAINS
+     */
+    default long[] numberMask(GameData col, Operations op, double number) {
+        return VectorFilters.select(size(), Filters.numberFilter(this, col, op, number));
+    }
+
+    /**
+     * Builds the BoardGame for a row.
+     *
+     * @param row the row id
+     * @return a new BoardGame with the row's values
+     */
+    default BoardGame toBoardGame(int row) {
+        return new BoardGame(getName(row),
+                intColumn(GameData.ID).applyAsInt(row),
+                intColumn(GameData.MIN_PLAYERS).applyAsInt(row),
+                intColumn(GameData.MAX_PLAYERS).applyAsInt(row),
+                intColumn(GameData.MIN_TIME).applyAsInt(row),
+                intColumn(GameData.MAX_TIME).applyAsInt(row),
+                doubleColumn(GameData.DIFFICULTY).applyAsDouble(row),
+                intColumn(GameData.RANK).applyAsInt(row),
+                doubleColumn(GameData.RATING).applyAsDouble(row),
+                intColumn(GameData.YEAR).applyAsInt(row));
+    }
+
+    /**
+     * Builds the BoardGame for every row.
+     *
+     * @return a set of all the games in the table
+     */
+    default Set<BoardGame> toBoardGames() {
+        Set<BoardGame> games = new HashSet<>(size() * 4 / 3 + 1);
+        for (int row = 0; row < size(); row++) {
+            games.add(toBoardGame(row));
+        }
+        return games;
+    }
+}
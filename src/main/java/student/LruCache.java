@@ -0,0 +1,202 @@
+package student;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+/**
+ * A bounded least recently used cache.
+ *
+ * The cache holds at most a number of entries, and at most a total weight, usually the
+ * estimated bytes of the values. When either limit is passed the least recently used
+ * entries are evicted. A value heavier than the whole weight limit is not cached at all.
+ *
+ * Hits and misses of {@link #get(Object)} are counted. Gets take no lock, so any number of
+ * threads can read at once: the entries are in a ConcurrentHashMap, and a get only stamps
+ * its entry with the next tick of a shared clock. Puts, removes and clears are serialized,
+ * and eviction drops the entries with the oldest stamps, read once before sorting since gets
+ * may stamp again meanwhile.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public final class LruCache<K, V> {
+    /** The entries. */
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    /** The clock stamping each use. */
+    private final AtomicLong clock = new AtomicLong();
+    /** The most entries to keep. */
+    private final int maxEntries;
+    /** The most total weight to keep. */
+    private final long maxWeight;
+    /** Gets the weight of a value. */
+    private final ToLongFunction<V> weigher;
+    /** The lock serializing changes. */
+    private final Object writeLock = new Object();
+    /** The total weight of the entries, changed under the write lock. */
+    private volatile long weight;
+    /** The number of gets that found a value. */
+    private final LongAdder hits = new LongAdder();
+    /** The number of gets that did not. */
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Constructor for the cache.
+     *
+     * @param maxEntries the most entries to keep
+     * @param maxWeight  the most total weight to keep
+     * @param weigher    gets the weight of a value
+     */
+    public LruCache(int maxEntries, long maxWeight, ToLongFunction<V> weigher) {
+        if (maxEntries < 0 || maxWeight < 0) {
+            throw new IllegalArgumentException("Cache limits can't be negative");
+        }
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+    }
+
+    /**
+     * Gets a value, marking it as the most recently used. Takes no lock.
+     *
+     * @param key the key
+     * @return the value, or null if it is not cached
+     */
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        entry.used = clock.incrementAndGet();
+        hits.increment();
+        return entry.value;
+    }
+
+    /**
+     * Adds or replaces a value, then evicts the least recently used entries until the
+     * cache is within its limits.
+     *
+     * @param key   the key
+     * @param value the value
+     */
+    public void put(K key, V value) {
+        long valueWeight = weigher.applyAsLong(value);
+        synchronized (writeLock) {
+            if (valueWeight > maxWeight || maxEntries == 0) {
+                remove(key);
+                return;
+            }
+            Entry<V> old = entries.put(key, new Entry<>(value, valueWeight, clock.incrementAndGet()));
+            long total = weight + valueWeight - (old == null ? 0 : old.weight);
+            if (entries.size() > maxEntries || total > maxWeight) {
+                // gets keep stamping entries during the sort, so it orders a copy of the stamps
+                List<Map.Entry<K, Entry<V>>> cached = new ArrayList<>(entries.entrySet());
+                long[] stamps = new long[cached.size()];
+                int[] oldest = new int[stamps.length];
+                for (int i = 0; i < stamps.length; i++) {
+                    stamps[i] = cached.get(i).getValue().used;
+                    oldest[i] = i;
+                }
+                Sorting.mergeSort(oldest, (a, b) -> Long.compare(stamps[a], stamps[b]));
+                for (int i = 0; entries.size() > maxEntries || total > maxWeight; i++) {
+                    Map.Entry<K, Entry<V>> evicted = cached.get(oldest[i]);
+                    entries.remove(evicted.getKey());
+                    total -= evicted.getValue().weight;
+                }
+            }
+            weight = total;
+        }
+    }
+
+    /**
+     * Removes a value.
+     *
+     * @param key the key
+     */
+    public void remove(K key) {
+        synchronized (writeLock) {
+            Entry<V> old = entries.remove(key);
+            if (old != null) {
+                weight -= old.weight;
+            }
+        }
+    }
+
+    /**
+     * Removes every value. The hit and miss counts are kept.
+     */
+    public void clear() {
+        synchronized (writeLock) {
+            entries.clear();
+            weight = 0;
+        }
+    }
+
+    /**
+     * Get the number of cached values.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Get the total weight of the cached values.
+     *
+     * @return the weight
+     */
+    public long getWeight() {
+        return weight;
+    }
+
+    /**
+     * Get the number of gets that found a value.
+     *
+     * @return the hit count
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Get the number of gets that did not find a value.
+     *
+     * @return the miss count
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * A cached value with its weight and when it was last used.
+     *
+     * @param <V> the value type
+     */
+    private static final class Entry<V> {
+        /** The value. */
+        private final V value;
+        /** The weight of the value. */
+        private final long weight;
+        /** The clock tick of the last use. */
+        private volatile long used;
+
+        /**
+         * Constructor for an entry.
+         *
+         * @param value  the value
+         * @param weight the weight of the value
+         * @param used   the clock tick it was added at
+         */
+        private Entry(V value, long weight, long used) {
+            this.value = value;
+            this.weight = weight;
+            this.used = used;
+        }
+    }
+}
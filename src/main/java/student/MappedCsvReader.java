@@ -0,0 +1,601 @@
+package student;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Reads a collection csv from the file system through a memory mapped file.
+ *
+ * Field boundaries are found by scanning the mapped bytes directly, and the
+ * numeric columns are parsed in place. The name is the only column that is
+ * ever turned into a String.
+ *
+ * Like GamesLoader, it assumes there are no commas inside the data.
+ */
+public final class MappedCsvReader {
+    /** Largest region mapped at once, as a single mapping is limited to int sizes. */
+    private static final long MAX_WINDOW = 1L << 30;
+
+    /** Exact powers of ten, used by the fast double path. */
+    private static final double[] POW10 = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /** Significant digits that are always exact in a double mantissa. */
+    private static final int MAX_FAST_DIGITS = 15;
+
+    /** Bytes mapped at a time when looking for the end of a line. */
+    private static final int PROBE_SIZE = 1 << 16;
+
+    /** Smallest range worth handing to its own thread. */
+    private static final long MIN_CHUNK_SIZE = 1L << 20;
+
+    /** Chunks per thread, so a slow chunk does not leave the other threads idle. */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    /** private constructor to prevent instantiation. */
+    private MappedCsvReader() {
+    }
+
+    /**
+     * Reads every game in the csv file at the given path.
+     *
+     * @param path the csv file to read
+     * @return a set of BoardGame objects
+     * @throws IOException if the file cannot be mapped
+     */
+    public static Set<BoardGame> read(Path path) throws IOException {
+        Set<BoardGame> games = new HashSet<>();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long pos = 0;
+            CsvProjection projection = null;
+            while (pos < size) {
+                long length = Math.min(size - pos, MAX_WINDOW);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, pos, length);
+                int end = (int) length;
+                if (pos + length < size) {
+                    // only parse whole lines, the partial last line is picked up by the next window
+                    end = lastIndexOf(buffer, 0, end, (byte) '\n') + 1;
+                    if (end == 0) {
+                        throw new IOException("Line longer than " + MAX_WINDOW + " bytes in " + path);
+                    }
+                }
+                int start = 0;
+                if (projection == null) {
+                    int headerEnd = indexOf(buffer, 0, end, (byte) '\n');
+                    if (headerEnd < 0) {
+                        headerEnd = end;
+                    }
+                    projection = projection(buffer, headerEnd);
+                    start = Math.min(headerEnd + 1, end);
+                }
+                parseRows(buffer, start, end, projection, games::add);
+                pos += end;
+            }
+        }
+        return games;
+    }
+
+    /**
+     * Reads every game in the csv file at the given path, parsing on several threads.
+     *
+     * The rows after the header are split into byte ranges that start and end on line
+     * breaks, and each range is mapped and parsed on its own thread. The ranges are then
+     * merged in file order. If more than one row has the same objectid, the first row in
+     * the file wins, so the result does not depend on how the threads were scheduled.
+     *
+     * @param path        the csv file to read
+     * @param parallelism the number of threads to parse with
+     * @return a set of BoardGame objects
+     * @throws IOException if the file cannot be mapped
+     */
+    public static Set<BoardGame> readParallel(Path path, int parallelism) throws IOException {
+        Map<Integer, BoardGame> byId = new HashMap<>();
+        for (List<BoardGame> chunk : parseChunks(path, parallelism, (buffer, projection) -> {
+            List<BoardGame> parsed = new ArrayList<>();
+            parseRows(buffer, 0, buffer.limit(), projection, parsed::add);
+            return parsed;
+        })) {
+            for (BoardGame game : chunk) {
+                byId.putIfAbsent(game.getId(), game);
+            }
+        }
+        return new HashSet<>(byId.values());
+    }
+
+    /**
+     * Scans every valid row in the csv file at the given path on several threads, without
+     * building BoardGame objects. Each range of the file gets its own sink, so the sinks
+     * do not have to be thread safe.
+     *
+     * @param path        the csv file to read
+     * @param parallelism the number of threads to parse with
+     * @param sinks       makes the sink of each range
+     * @param <S>         the type of sink
+     * @return the sinks, in file order
+     * @throws IOException if the file cannot be mapped
+     */
+    static <S extends RowSink> List<S> scanParallel(Path path, int parallelism, Supplier<S> sinks)
+            throws IOException {
+        return parseChunks(path, parallelism, (buffer, projection) -> {
+            S sink = sinks.get();
+            scanRows(buffer, 0, buffer.limit(), projection, sink);
+            return sink;
+        });
+    }
+
+    /**
+     * Splits the rows after the header into ranges of whole lines, and parses each range
+     * on its own thread.
+     *
+     * @param path        the csv file to read
+     * @param parallelism the number of threads to parse with
+     * @param parser      parses the mapped bytes of one range
+     * @param <T>         the result of a range
+     * @return the result of each range, in file order
+     * @throws IOException if the file cannot be mapped
+     */
+    private static <T> List<T> parseChunks(Path path, int parallelism,
+                                           BiFunction<ByteBuffer, CsvProjection, T> parser) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                return new ArrayList<>();
+            }
+            long headerEnd = nextLineStart(channel, 0, size);
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, headerEnd);
+            int headerLength = (int) headerEnd;
+            if (header.get(headerLength - 1) == '\n') {
+                headerLength--;
+            }
+            CsvProjection projection = projection(header, headerLength);
+
+            List<long[]> chunks = splitChunks(channel, headerEnd, size, parallelism);
+            List<Callable<T>> tasks = new ArrayList<>(chunks.size());
+            for (long[] chunk : chunks) {
+                tasks.add(() -> parser.apply(channel.map(FileChannel.MapMode.READ_ONLY, chunk[0],
+                        chunk[1] - chunk[0]), projection));
+            }
+
+            ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, tasks.size())));
+            try {
+                List<T> results = new ArrayList<>(tasks.size());
+                for (Future<T> result : pool.invokeAll(tasks)) {
+                    results.add(result.get());
+                }
+                return results;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while reading " + path, e);
+            } catch (ExecutionException e) {
+                throw new IOException("Error reading " + path + ": " + e.getCause().getMessage(), e.getCause());
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Splits the bytes between from and size into ranges that each hold whole lines.
+     *
+     * @param channel     the open file
+     * @param from        the start of the first row
+     * @param size        the size of the file
+     * @param parallelism the number of threads that will parse the ranges
+     * @return the ranges as {start, end} pairs, in file order
+     * @throws IOException if the file cannot be mapped or a range would be too large to map
+     */
+    private static List<long[]> splitChunks(FileChannel channel, long from, long size, int parallelism)
+            throws IOException {
+        long count = Math.max((long) parallelism * CHUNKS_PER_THREAD, (size - from) / MAX_WINDOW + 1);
+        long target = Math.max(MIN_CHUNK_SIZE, (size - from) / count);
+        List<long[]> chunks = new ArrayList<>();
+        long start = from;
+        while (start < size) {
+            long end = start + target >= size ? size : nextLineStart(channel, start + target, size);
+            if (end - start > MAX_WINDOW) {
+                throw new IOException("Line longer than " + MAX_WINDOW + " bytes near byte " + start);
+            }
+            chunks.add(new long[] {start, end});
+            start = end;
+        }
+        return chunks;
+    }
+
+    /**
+     * Finds the start of the line after the given position.
+     *
+     * @param channel the open file
+     * @param from    the position to search from
+     * @param size    the size of the file
+     * @return the index just past the next newline, or size if there is none
+     * @throws IOException if the file cannot be mapped
+     */
+    private static long nextLineStart(FileChannel channel, long from, long size) throws IOException {
+        long pos = from;
+        while (pos < size) {
+            long length = Math.min(size - pos, PROBE_SIZE);
+            MappedByteBuffer probe = channel.map(FileChannel.MapMode.READ_ONLY, pos, length);
+            int newline = indexOf(probe, 0, (int) length, (byte) '\n');
+            if (newline >= 0) {
+                return pos + newline + 1;
+            }
+            pos += length;
+        }
+        return size;
+    }
+
+    /**
+     * Decodes the header line and builds the projection of the columns that are needed.
+     *
+     * @param buffer    the mapped bytes
+     * @param headerEnd the index of the newline ending the header
+     * @return the projection for the rows
+     */
+    static CsvProjection projection(ByteBuffer buffer, int headerEnd) {
+        int end = trimCarriageReturn(buffer, 0, headerEnd);
+        return CsvProjection.fromHeader(decode(buffer, 0, end, new byte[end]));
+    }
+
+    /**
+     * Parses every complete row between from and to, handing valid games to the sink.
+     * Rows that are missing columns or have numbers that do not parse are skipped.
+     *
+     * @param buffer     the mapped bytes
+     * @param from       the index of the first byte of the first row
+     * @param to         the index just past the last row
+     * @param projection the columns to parse
+     * @param sink       receives each parsed game
+     */
+    static void parseRows(ByteBuffer buffer, int from, int to, CsvProjection projection,
+                          Consumer<BoardGame> sink) {
+        scanRows(buffer, from, to, projection, new GameBuilder(sink));
+    }
+
+    /**
+     * Scans every complete row between from and to, handing the fields of valid rows to the sink.
+     * Rows that are missing columns or have numbers that do not parse are skipped.
+     *
+     * @param buffer     the mapped bytes
+     * @param from       the index of the first byte of the first row
+     * @param to         the index just past the last row
+     * @param projection the columns to parse
+     * @param sink       receives the fields of each valid row
+     */
+    static void scanRows(ByteBuffer buffer, int from, int to, CsvProjection projection, RowSink sink) {
+        RowParser parser = new RowParser(projection);
+        int lineStart = from;
+        while (lineStart < to) {
+            if (parser.scan(buffer, lineStart, to)) {
+                sink.accept(buffer, parser.nameStart, parser.nameEnd, parser.values);
+            }
+            lineStart = parser.nextLine;
+        }
+    }
+
+    /**
+     * Parses an int from the bytes with the same rules as Integer.parseInt.
+     *
+     * @param buffer the bytes
+     * @param from   the first byte of the number
+     * @param to     the index just past the number
+     * @return the parsed value
+     * @throws NumberFormatException if the bytes are not a valid int
+     */
+    static int parseInt(ByteBuffer buffer, int from, int to) {
+        int i = from;
+        boolean negative = false;
+        if (i < to && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+            negative = buffer.get(i) == '-';
+            i++;
+        }
+        if (i == to) {
+            throw new NumberFormatException("Not a number at byte " + from);
+        }
+        long limit = negative ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE;
+        long value = 0;
+        for (; i < to; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("Not a number at byte " + from);
+            }
+            value = value * 10 + digit;
+            if (value > limit) {
+                throw new NumberFormatException("Int out of range at byte " + from);
+            }
+        }
+        return (int) (negative ? -value : value);
+    }
+
+    /**
+     * Parses a double from the bytes.
+     *
+     * Plain decimals with up to fifteen significant digits are built directly from the
+     * bytes, which is exact for those values. Anything else (exponents, long fractions,
+     * NaN and so on) falls back to Double.parseDouble so the results always match it.
+     *
+     * @param buffer the bytes
+     * @param from   the first byte of the number
+     * @param to     the index just past the number
+     * @return the parsed value
+     * @throws NumberFormatException if the bytes are not a valid double
+     */
+    static double parseDouble(ByteBuffer buffer, int from, int to) {
+        int i = from;
+        boolean negative = false;
+        if (i < to && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+            negative = buffer.get(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int significant = 0;
+        int scale = 0;
+        boolean digits = false;
+        boolean point = false;
+        for (; i < to; i++) {
+            byte b = buffer.get(i);
+            if (b >= '0' && b <= '9') {
+                digits = true;
+                mantissa = mantissa * 10 + (b - '0');
+                if (mantissa != 0) {
+                    significant++;
+                }
+                if (point) {
+                    scale++;
+                }
+                if (significant > MAX_FAST_DIGITS || scale >= POW10.length) {
+                    return slowParseDouble(buffer, from, to);
+                }
+            } else if (b == '.' && !point) {
+                point = true;
+            } else {
+                return slowParseDouble(buffer, from, to);
+            }
+        }
+        if (!digits) {
+            return slowParseDouble(buffer, from, to);
+        }
+        double value = mantissa / POW10[scale];
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses a double the slow way, through a String.
+     *
+     * @param buffer the bytes
+     * @param from   the first byte of the number
+     * @param to     the index just past the number
+     * @return the parsed value
+     * @throws NumberFormatException if the bytes are not a valid double
+     */
+    private static double slowParseDouble(ByteBuffer buffer, int from, int to) {
+        return Double.parseDouble(decode(buffer, from, to, new byte[to - from]));
+    }
+
+    /**
+     * Decodes a range of UTF-8 bytes into a String.
+     *
+     * @param buffer  the bytes
+     * @param from    the first byte
+     * @param to      the index just past the last byte
+     * @param scratch a buffer at least to - from long
+     * @return the decoded String
+     */
+    private static String decode(ByteBuffer buffer, int from, int to, byte[] scratch) {
+        buffer.get(from, scratch, 0, to - from);
+        return new String(scratch, 0, to - from, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Drops a trailing carriage return so windows line endings are handled.
+     *
+     * @param buffer the bytes
+     * @param start  the start of the line
+     * @param end    the index of the newline
+     * @return the end of the line without the carriage return
+     */
+    private static int trimCarriageReturn(ByteBuffer buffer, int start, int end) {
+        return end > start && buffer.get(end - 1) == '\r' ? end - 1 : end;
+    }
+
+    /**
+     * Finds the first index of a byte.
+     *
+     * @param buffer the bytes
+     * @param from   where to start looking
+     * @param to     where to stop looking
+     * @param b      the byte to find
+     * @return the index, or -1 if not found
+     */
+    static int indexOf(ByteBuffer buffer, int from, int to, byte b) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the last index of a byte.
+     *
+     * @param buffer the bytes
+     * @param from   where to stop looking
+     * @param to     where to start looking, going backwards
+     * @param b      the byte to find
+     * @return the index, or -1 if not found
+     */
+    static int lastIndexOf(ByteBuffer buffer, int from, int to, byte b) {
+        for (int i = to - 1; i >= from; i--) {
+            if (buffer.get(i) == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Receives the fields of each valid row, straight from the mapped bytes.
+     */
+    interface RowSink {
+        /**
+         * Takes one valid row. The values array is reused for the next row.
+         *
+         * @param buffer    the mapped bytes
+         * @param nameStart the first byte of the name
+         * @param nameEnd   the index just past the name
+         * @param values    the numeric columns, indexed by GameData ordinal
+         */
+        void accept(ByteBuffer buffer, int nameStart, int nameEnd, double[] values);
+    }
+
+    /**
+     * A row sink that builds a BoardGame from each row, reusing its scratch space between rows.
+     */
+    private static final class GameBuilder implements RowSink {
+        /** Receives each game. */
+        private final Consumer<BoardGame> games;
+        /** Scratch space for decoding the name. */
+        private byte[] scratch = new byte[64];
+
+        /**
+         * Constructor for the builder.
+         *
+         * @param games receives each game
+         */
+        GameBuilder(Consumer<BoardGame> games) {
+            this.games = games;
+        }
+
+        /**
+         * Decodes the name and builds the game, growing the scratch space if needed.
+         *
+         * @param buffer    the mapped bytes
+         * @param nameStart the first byte of the name
+         * @param nameEnd   the index just past the name
+         * @param values    the numeric columns, indexed by GameData ordinal
+         */
+        @Override
+        public void accept(ByteBuffer buffer, int nameStart, int nameEnd, double[] values) {
+            if (scratch.length < nameEnd - nameStart) {
+                scratch = new byte[Math.max(nameEnd - nameStart, scratch.length * 2)];
+            }
+            games.accept(CsvProjection.toBoardGame(decode(buffer, nameStart, nameEnd, scratch), values));
+        }
+    }
+
+    /**
+     * Parses rows one at a time, reusing its scratch space between rows.
+     *
+     * Each row is tokenized in a single pass, and only up to the last field the projection
+     * needs. The rest of the row is skipped by looking for the newline, without
+     * splitting it into fields.
+     */
+    private static final class RowParser {
+        /** The columns to parse. */
+        private final CsvProjection projection;
+        /** The numeric columns of the current row, indexed by ordinal. */
+        private final double[] values = new double[GameData.values().length];
+        /** The first byte of the name of the current row. */
+        private int nameStart;
+        /** The index just past the name of the current row. */
+        private int nameEnd;
+        /** The start of the line after the one last parsed. */
+        private int nextLine;
+
+        /**
+         * Constructor for the row parser.
+         *
+         * @param projection the columns to parse
+         */
+        RowParser(CsvProjection projection) {
+            this.projection = projection;
+        }
+
+        /**
+         * Parses the row starting at start into values and the name range, and sets nextLine
+         * to the start of the row after it.
+         *
+         * @param buffer the mapped bytes
+         * @param start  the first byte of the row
+         * @param limit  the index just past the last row
+         * @return true if the row is valid
+         */
+        boolean scan(ByteBuffer buffer, int start, int limit) {
+            int lastField = projection.getLastField();
+            int found = 0;
+            int i = start;
+            for (int field = 0; ; field++) {
+                int fieldStart = i;
+                while (i < limit && buffer.get(i) != ',' && buffer.get(i) != '\n') {
+                    i++;
+                }
+                boolean lineEnd = i >= limit || buffer.get(i) == '\n';
+                GameData col = projection.columnAt(field);
+                if (col != null) {
+                    int fieldEnd = lineEnd ? trimCarriageReturn(buffer, fieldStart, i) : i;
+                    try {
+                        switch (col) {
+                            case NAME -> {
+                                nameStart = fieldStart;
+                                nameEnd = fieldEnd;
+                            }
+                            case RATING, DIFFICULTY -> values[col.ordinal()] =
+                                    parseDouble(buffer, fieldStart, fieldEnd);
+                            default -> values[col.ordinal()] = parseInt(buffer, fieldStart, fieldEnd);
+                        }
+                    } catch (NumberFormatException e) {
+                        // skip if there is an issue
+                        nextLine = (lineEnd ? i : skipLine(buffer, i, limit)) + 1;
+                        return false;
+                    }
+                    found++;
+                }
+                if (lineEnd) {
+                    break;
+                }
+                i++;
+                if (field >= lastField) {
+                    i = skipLine(buffer, i, limit);
+                    break;
+                }
+            }
+            nextLine = i + 1;
+            return CsvProjection.isComplete(found);
+        }
+
+        /**
+         * Skips the rest of a row without tokenizing it.
+         *
+         * @param buffer the mapped bytes
+         * @param from   where to start
+         * @param limit  the index just past the last row
+         * @return the index of the newline ending the row, or limit
+         */
+        private static int skipLine(ByteBuffer buffer, int from, int limit) {
+            int newline = indexOf(buffer, from, limit, (byte) '\n');
+            return newline < 0 ? limit : newline;
+        }
+    }
+}
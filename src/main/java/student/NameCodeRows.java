@@ -0,0 +1,138 @@
+package student;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * The rows of a table grouped by their {@link NameDictionary} code.
+ *
+ * Rows are stored code by code, in row order within a code, so the rows of any run of codes
+ * are one slice of an array. Name indexes find codes, and this turns them into rows.
+ *
+ * For an off heap table the grouping is kept in direct buffers too, so it does not add a
+ * heap array per row.
+ */
+public final class NameCodeRows {
+    /** Where each code's rows start in rowsByCode, dictionary size + 1 long. */
+    private final IntBuffer rowStart;
+    /** The row ids grouped by name code, ascending within each code. */
+    private final IntBuffer rowsByCode;
+
+    /**
+     * Constructor for the grouping.
+     *
+     * @param rowStart   where each code's rows start
+     * @param rowsByCode the rows grouped by code
+     */
+    private NameCodeRows(IntBuffer rowStart, IntBuffer rowsByCode) {
+        this.rowStart = rowStart;
+        this.rowsByCode = rowsByCode;
+    }
+
+    /**
+     * Groups the rows of a table by name code.
+     *
+     * @param table the table
+     * @return the grouping
+     */
+    public static NameCodeRows build(IGameTable table) {
+        int codes = table.getNameDictionary().size();
+        IntUnaryOperator codeOf = table.nameCodeColumn();
+        IntBuffer rowStart = allocate(codes + 1, table.isOffHeap());
+        for (int row = 0; row < table.size(); row++) {
+            int code = codeOf.applyAsInt(row) + 1;
+            rowStart.put(code, rowStart.get(code) + 1);
+        }
+        for (int code = 0; code < codes; code++) {
+            rowStart.put(code + 1, rowStart.get(code + 1) + rowStart.get(code));
+        }
+        IntBuffer next = allocate(codes, table.isOffHeap());
+        next.put(0, rowStart, 0, codes);
+        IntBuffer rowsByCode = allocate(table.size(), table.isOffHeap());
+        for (int row = 0; row < table.size(); row++) {
+            int code = codeOf.applyAsInt(row);
+            int at = next.get(code);
+            rowsByCode.put(at, row);
+            next.put(code, at + 1);
+        }
+        return new NameCodeRows(rowStart, rowsByCode);
+    }
+
+    /**
+     * Allocates a zeroed int buffer, on the heap or off it.
+     *
+     * @param length  the number of ints
+     * @param offHeap true for a direct buffer
+     * @return the buffer
+     */
+    private static IntBuffer allocate(int length, boolean offHeap) {
+        return offHeap ? OffHeapGameTable.allocate((long) length * Integer.BYTES).asIntBuffer()
+                : IntBuffer.allocate(length);
+    }
+
+    /**
+     * Get the rows with a code.
+     *
+     * @param code the name code
+     * @return the row ids, ascending
+     */
+    public int[] rowsOf(int code) {
+        int from = rowStart.get(code);
+        int[] rows = new int[rowStart.get(code + 1) - from];
+        rowsByCode.get(from, rows);
+        return rows;
+    }
+
+    /**
+     * Get the first row with a code.
+     *
+     * @param code the name code
+     * @return the lowest row id with that code
+     */
+    public int firstRow(int code) {
+        return rowsByCode.get(rowStart.get(code));
+    }
+
+    /**
+     * Gets the rows of a run of codes.
+     *
+     * @param fromCode the first code
+     * @param toCode   the code after the last one
+     * @return the rows with any of the codes
+     */
+    public CompressedBitmap rows(int fromCode, int toCode) {
+        if (fromCode >= toCode) {
+            return CompressedBitmap.EMPTY;
+        }
+        int from = rowStart.get(fromCode);
+        int[] rows = new int[rowStart.get(toCode) - from];
+        rowsByCode.get(from, rows);
+        Arrays.sort(rows);
+        return CompressedBitmap.ofSorted(rows);
+    }
+
+    /**
+     * Gets the rows of some codes.
+     *
+     * @param codes the name codes, no code twice
+     * @param count the number of codes to use from the start of the array
+     * @return the rows with any of the codes
+     */
+    public CompressedBitmap rows(int[] codes, int count) {
+        int total = 0;
+        for (int i = 0; i < count; i++) {
+            total += rowStart.get(codes[i] + 1) - rowStart.get(codes[i]);
+        }
+        int[] rows = new int[total];
+        int at = 0;
+        for (int i = 0; i < count; i++) {
+            int code = codes[i];
+            int length = rowStart.get(code + 1) - rowStart.get(code);
+            rowsByCode.get(rowStart.get(code), rows, at, length);
+            at += length;
+        }
+        Arrays.sort(rows);
+        return CompressedBitmap.ofSorted(rows);
+    }
+}
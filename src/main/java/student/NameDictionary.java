@@ -0,0 +1,533 @@
+package student;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+
+/**
+ * A sorted dictionary of normalized game names.
+ *
+ * Names are normalized once, when a table is built, the same way name filters compare
+ * them: lower case with the spaces removed. Each distinct normalized name is stored once
+ * and shared by every row that has it, and each row stores the int code of its entry.
+ *
+ * Codes are handed out in sorted order, so comparing two codes gives the same answer as
+ * comparing the two normalized names. A NAME filter only has to look its value up once,
+ * and can then compare codes for every row.
+ *
+ * Heap tables keep the names as Strings. Off heap tables keep them as UTF-8 bytes in
+ * direct buffers, ordered and searched by comparing bytes, see
+ * {@link #build(int, ByteBuffer, ByteBuffer, ByteBuffer)}.
+ */
+public abstract class NameDictionary {
+    /**
+     * Constructor for the subclasses in this file.
+     */
+    private NameDictionary() {
+    }
+
+    /**
+     * Normalizes a name the way name filters compare it.
+     *
+     * @param name the name of a game
+     * @return the name in lower case, without spaces
+     */
+    public static String normalize(String name) {
+        return name.toLowerCase().replace(" ", "");
+    }
+
+    /**
+     * Builds the dictionary for the names of a table, and the code of each row.
+     *
+     * @param size  the number of rows
+     * @param names the name of each row
+     * @param codes filled in with the code of each row, at least size long
+     * @return the dictionary
+     */
+    public static NameDictionary build(int size, IntFunction<String> names, int[] codes) {
+        String[] normalized = new String[size];
+        for (int row = 0; row < size; row++) {
+            normalized[row] = normalize(names.apply(row));
+        }
+        String[] sorted = Arrays.stream(normalized).sorted().distinct().toArray(String[]::new);
+        NameDictionary dictionary = new HeapDictionary(sorted);
+        for (int row = 0; row < size; row++) {
+            codes[row] = dictionary.find(normalized[row]);
+        }
+        return dictionary;
+    }
+
+    /**
+     * Builds an off heap dictionary for names stored as UTF-8 bytes, and writes the code of each row.
+     *
+     * The names are normalized into a scratch buffer, straight from the bytes when a name is
+     * plain ASCII, and the rows are sorted by comparing the normalized bytes. Only the distinct
+     * names are copied into the dictionary, so no String is kept per row. The byte order is
+     * adjusted to match String.compareTo, so the codes come out the same as for a heap table.
+     *
+     * @param size        the number of rows
+     * @param nameBytes   the UTF-8 bytes of every name, one after the other
+     * @param nameOffsets where each name starts in nameBytes, size + 1 ints in native order
+     * @param codes       filled in with the code of each row, as ints in native order
+     * @return the dictionary
+     */
+    static NameDictionary build(int size, ByteBuffer nameBytes, ByteBuffer nameOffsets, ByteBuffer codes) {
+        ByteBuffer offsets = OffHeapGameTable.allocate((long) (size + 1) * Integer.BYTES);
+        ByteBuffer normalized = OffHeapGameTable.allocate(nameOffsets.getInt(size * Integer.BYTES));
+        boolean asciiLowerCase = "I".toLowerCase().equals("i");
+        for (int row = 0; row < size; row++) {
+            int start = nameOffsets.getInt(row * Integer.BYTES);
+            int end = nameOffsets.getInt((row + 1) * Integer.BYTES);
+            if (asciiLowerCase && isAscii(nameBytes, start, end)) {
+                normalized = OffHeapGameTable.ensure(normalized, end - start);
+                for (int i = start; i < end; i++) {
+                    byte b = nameBytes.get(i);
+                    if (b != ' ') {
+                        normalized.put(b >= 'A' && b <= 'Z' ? (byte) (b + ('a' - 'A')) : b);
+                    }
+                }
+            } else {
+                byte[] bytes = new byte[end - start];
+                nameBytes.get(start, bytes);
+                bytes = normalize(new String(bytes, StandardCharsets.UTF_8)).getBytes(StandardCharsets.UTF_8);
+                normalized = OffHeapGameTable.ensure(normalized, bytes.length);
+                normalized.put(bytes);
+            }
+            offsets.putInt((row + 1) * Integer.BYTES, normalized.position());
+        }
+
+        ByteBuffer names = normalized;
+        IntBinaryOperator order = (a, b) -> compare(names, offsets, a, names, offsets, b);
+        // the row order is sorted off heap too, so building keeps nothing per row on the heap
+        IntBuffer rows = OffHeapGameTable.allocate((long) size * Integer.BYTES).asIntBuffer();
+        for (int row = 0; row < size; row++) {
+            rows.put(row, row);
+        }
+        Sorting.heapSort(rows, order);
+
+        int distinct = 0;
+        long bytes = 0;
+        for (int i = 0; i < size; i++) {
+            int row = rows.get(i);
+            if (i == 0 || order.applyAsInt(rows.get(i - 1), row) != 0) {
+                distinct++;
+                bytes += offsets.getInt((row + 1) * Integer.BYTES) - offsets.getInt(row * Integer.BYTES);
+            }
+        }
+        OffHeapDictionary dictionary = new OffHeapDictionary(distinct, OffHeapGameTable.allocate(bytes),
+                OffHeapGameTable.allocate((long) (distinct + 1) * Integer.BYTES));
+        int code = -1;
+        for (int i = 0; i < size; i++) {
+            int row = rows.get(i);
+            if (i == 0 || order.applyAsInt(rows.get(i - 1), row) != 0) {
+                code++;
+                int start = offsets.getInt(row * Integer.BYTES);
+                int length = offsets.getInt((row + 1) * Integer.BYTES) - start;
+                int end = dictionary.offsets.getInt(code * Integer.BYTES);
+                dictionary.bytes.put(end, names, start, length);
+                dictionary.offsets.putInt((code + 1) * Integer.BYTES, end + length);
+            }
+            codes.putInt(row * Integer.BYTES, code);
+        }
+        return dictionary;
+    }
+
+    /**
+     * Checks if a range of bytes is plain ASCII.
+     *
+     * @param bytes the bytes
+     * @param from  the first byte
+     * @param to    the index just past the last byte
+     * @return true if no byte has the high bit set
+     */
+    private static boolean isAscii(ByteBuffer bytes, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (bytes.get(i) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compares two UTF-8 names in the order String.compareTo puts them.
+     *
+     * @param a        the bytes of the first name
+     * @param aOffsets where the names in a start, as ints in native order
+     * @param aIndex   the index of the first name
+     * @param b        the bytes of the second name
+     * @param bOffsets where the names in b start, as ints in native order
+     * @param bIndex   the index of the second name
+     * @return negative, zero or positive as the first name is less than, equal to or greater than the second
+     */
+    private static int compare(ByteBuffer a, ByteBuffer aOffsets, int aIndex,
+                               ByteBuffer b, ByteBuffer bOffsets, int bIndex) {
+        int aStart = aOffsets.getInt(aIndex * Integer.BYTES);
+        int bStart = bOffsets.getInt(bIndex * Integer.BYTES);
+        return compare(a, aStart, aOffsets.getInt((aIndex + 1) * Integer.BYTES),
+                b, bStart, bOffsets.getInt((bIndex + 1) * Integer.BYTES));
+    }
+
+    /**
+     * Compares two ranges of UTF-8 bytes in the order String.compareTo puts them.
+     *
+     * Unsigned bytes sort by code point, but Strings compare UTF-16 chars, which puts
+     * U+E000 to U+FFFF after the surrogate pairs. Those chars are the only ones whose
+     * lead bytes (0xEE and 0xEF) need to move, above the four byte lead bytes.
+     *
+     * @param a     the bytes of the first name
+     * @param aFrom the first byte of the first name
+     * @param aTo   the index just past the first name
+     * @param b     the bytes of the second name
+     * @param bFrom the first byte of the second name
+     * @param bTo   the index just past the second name
+     * @return negative, zero or positive as the first name is less than, equal to or greater than the second
+     */
+    private static int compare(ByteBuffer a, int aFrom, int aTo, ByteBuffer b, int bFrom, int bTo) {
+        int length = Math.min(aTo - aFrom, bTo - bFrom);
+        for (int i = 0; i < length; i++) {
+            int x = a.get(aFrom + i) & 0xff;
+            int y = b.get(bFrom + i) & 0xff;
+            if (x != y) {
+                return Integer.compare(utf16Order(x), utf16Order(y));
+            }
+        }
+        return Integer.compare(aTo - aFrom, bTo - bFrom);
+    }
+
+    /**
+     * Moves the lead bytes of U+E000 to U+FFFF above every other UTF-8 byte.
+     *
+     * @param b an unsigned byte
+     * @return its sort position
+     */
+    private static int utf16Order(int b) {
+        return b == 0xee || b == 0xef ? b + 0x10 : b;
+    }
+
+    /**
+     * Get the number of distinct names.
+     *
+     * @return the number of codes
+     */
+    public abstract int size();
+
+    /**
+     * Get the normalized name for a code.
+     *
+     * @param code the code
+     * @return the normalized name
+     */
+    public abstract String get(int code);
+
+    /**
+     * Looks up the code of a normalized name.
+     *
+     * @param normalized the normalized name
+     * @return the code, or a negative value if the name is not in the dictionary
+     */
+    public abstract int find(String normalized);
+
+    /**
+     * Finds the first code whose name is greater than or equal to the given value.
+     *
+     * @param value the value to compare against
+     * @return the code, or size() if every name is smaller
+     */
+    public abstract int lowerBound(String value);
+
+    /**
+     * Finds the first code whose name is greater than the given value.
+     *
+     * @param value the value to compare against
+     * @return the code, or size() if every name is smaller or equal
+     */
+    public abstract int upperBound(String value);
+
+    /**
+     * Builds a test for the codes whose name contains a value.
+     *
+     * @param value the value to look for
+     * @return a predicate over codes
+     */
+    public abstract IntPredicate containing(String value);
+
+    /**
+     * Finds the codes of the names that match a comparison, the same way as
+     * {@link NameTrie#range(Operations, String)}, by binary searching the dictionary.
+     *
+     * @param op    the operation, not NOT_EQUALS or CONTAINS
+     * @param value the value to compare against
+     * @return the first code and the code after the last one, equal if there are none
+     * @throws IllegalArgumentException if the operation is not supported
+     */
+    public int[] range(Operations op, String value) {
+        return switch (op) {
+            case EQUALS -> {
+                int code = find(value);
+                yield code < 0 ? new int[] {0, 0} : new int[] {code, code + 1};
+            }
+            case LESS_THAN -> new int[] {0, lowerBound(value)};
+            case LESS_THAN_EQUALS -> new int[] {0, upperBound(value)};
+            case GREATER_THAN -> new int[] {upperBound(value), size()};
+            case GREATER_THAN_EQUALS -> new int[] {lowerBound(value), size()};
+            default -> throw new IllegalArgumentException("The dictionary can't answer " + op.getOperator());
+        };
+    }
+
+    /**
+     * Finds the codes of the names that start with a prefix, the same way as
+     * {@link NameTrie#prefixRange(String)}. Those names sort together, right from where the
+     * prefix would sort, so the end of the run is binary searched too.
+     *
+     * @param prefix the normalized prefix
+     * @return the first code and the code after the last one, equal if there are none
+     */
+    public int[] prefixRange(String prefix) {
+        int from = lowerBound(prefix);
+        int low = from;
+        int high = size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (get(mid).startsWith(prefix)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return new int[] {from, low};
+    }
+
+    /**
+     * A dictionary of Strings, for heap tables.
+     */
+    private static final class HeapDictionary extends NameDictionary {
+        /** The distinct normalized names, sorted, indexed by code. */
+        private final String[] values;
+
+        /**
+         * Constructor for the dictionary.
+         *
+         * @param values the distinct normalized names, sorted
+         */
+        HeapDictionary(String[] values) {
+            this.values = values;
+        }
+
+        /**
+         * Get the number of distinct names.
+         *
+         * @return the number of codes
+         */
+        @Override
+        public int size() {
+            return values.length;
+        }
+
+        /**
+         * Get the normalized name for a code.
+         *
+         * @param code the code
+         * @return the normalized name
+         */
+        @Override
+        public String get(int code) {
+            return values[code];
+        }
+
+        /**
+         * Looks up the code of a normalized name.
+         *
+         * @param normalized the normalized name
+         * @return the code, or a negative value if the name is not in the dictionary
+         */
+        @Override
+        public int find(String normalized) {
+            int code = Arrays.binarySearch(values, normalized);
+            return code < 0 ? -1 : code;
+        }
+
+        /**
+         * Finds the first code whose name is greater than or equal to the given value.
+         *
+         * @param value the value to compare against
+         * @return the code, or size() if every name is smaller
+         */
+        @Override
+        public int lowerBound(String value) {
+            int code = Arrays.binarySearch(values, value);
+            return code < 0 ? -code - 1 : code;
+        }
+
+        /**
+         * Finds the first code whose name is greater than the given value.
+         *
+         * @param value the value to compare against
+         * @return the code, or size() if every name is smaller or equal
+         */
+        @Override
+        public int upperBound(String value) {
+            int code = Arrays.binarySearch(values, value);
+            return code < 0 ? -code - 1 : code + 1;
+        }
+
+        /**
+         * Builds a test for the codes whose name contains a value.
+         *
+         * @param value the value to look for
+         * @return a predicate over codes
+         */
+        @Override
+        public IntPredicate containing(String value) {
+            return code -> values[code].contains(value);
+        }
+    }
+
+    /**
+     * A dictionary of UTF-8 bytes in direct buffers, for off heap tables. Lookups encode the
+     * value once and compare bytes, names are only decoded by {@link #get(int)}.
+     */
+    private static final class OffHeapDictionary extends NameDictionary {
+        /** The number of distinct names. */
+        private final int size;
+        /** The UTF-8 bytes of the distinct normalized names, sorted, one after the other. */
+        private final ByteBuffer bytes;
+        /** Where each name starts in bytes, size + 1 ints so the last name has an end. */
+        private final ByteBuffer offsets;
+
+        /**
+         * Constructor for the dictionary.
+         *
+         * @param size    the number of distinct names
+         * @param bytes   the buffer for the names
+         * @param offsets the buffer for where each name starts
+         */
+        OffHeapDictionary(int size, ByteBuffer bytes, ByteBuffer offsets) {
+            this.size = size;
+            this.bytes = bytes;
+            this.offsets = offsets;
+        }
+
+        /**
+         * Get the number of distinct names.
+         *
+         * @return the number of codes
+         */
+        @Override
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Get the normalized name for a code, decoding it from the off heap bytes.
+         *
+         * @param code the code
+         * @return the normalized name
+         */
+        @Override
+        public String get(int code) {
+            int start = offsets.getInt(code * Integer.BYTES);
+            byte[] name = new byte[offsets.getInt((code + 1) * Integer.BYTES) - start];
+            bytes.get(start, name);
+            return new String(name, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Looks up the code of a normalized name.
+         *
+         * @param normalized the normalized name
+         * @return the code, or a negative value if the name is not in the dictionary
+         */
+        @Override
+        public int find(String normalized) {
+            ByteBuffer key = ByteBuffer.wrap(normalized.getBytes(StandardCharsets.UTF_8));
+            int code = search(key, false);
+            return code < size && compareTo(code, key) == 0 ? code : -1;
+        }
+
+        /**
+         * Finds the first code whose name is greater than or equal to the given value.
+         *
+         * @param value the value to compare against
+         * @return the code, or size() if every name is smaller
+         */
+        @Override
+        public int lowerBound(String value) {
+            return search(ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8)), false);
+        }
+
+        /**
+         * Finds the first code whose name is greater than the given value.
+         *
+         * @param value the value to compare against
+         * @return the code, or size() if every name is smaller or equal
+         */
+        @Override
+        public int upperBound(String value) {
+            return search(ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8)), true);
+        }
+
+        /**
+         * Builds a test for the codes whose name contains a value, searching the UTF-8 bytes.
+         * A UTF-8 sequence never starts inside another one, so a byte match is a char match.
+         *
+         * @param value the value to look for
+         * @return a predicate over codes
+         */
+        @Override
+        public IntPredicate containing(String value) {
+            byte[] key = value.getBytes(StandardCharsets.UTF_8);
+            return code -> {
+                int last = offsets.getInt((code + 1) * Integer.BYTES) - key.length;
+                for (int start = offsets.getInt(code * Integer.BYTES); start <= last; start++) {
+                    int i = 0;
+                    while (i < key.length && bytes.get(start + i) == key[i]) {
+                        i++;
+                    }
+                    if (i == key.length) {
+                        return true;
+                    }
+                }
+                return false;
+            };
+        }
+
+        /**
+         * Binary searches for the first code whose name is greater than, or equal to, a key.
+         *
+         * @param key     the UTF-8 bytes of the value
+         * @param greater true to skip names equal to the key
+         * @return the code, or size() if there is none
+         */
+        private int search(ByteBuffer key, boolean greater) {
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                int order = compareTo(mid, key);
+                if (order < 0 || greater && order == 0) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        /**
+         * Compares the name of a code with a key.
+         *
+         * @param code the code
+         * @param key  the UTF-8 bytes of the value
+         * @return negative, zero or positive as the name is less than, equal to or greater than the key
+         */
+        private int compareTo(int code, ByteBuffer key) {
+            return compare(bytes, offsets.getInt(code * Integer.BYTES), offsets.getInt((code + 1) * Integer.BYTES),
+                    key, 0, key.limit());
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package student;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A radix tree over the normalized names of a {@link NameDictionary}.
+ *
+ * Each edge is labelled with a run of characters, and chains of single children are merged
+ * into one edge, so the tree has at most one node per distinct name plus one per branch.
+ * The names are sorted, so the names below a node are a run of dictionary codes, and every
+ * node keeps that run. Walking a key down the tree therefore finds an exact name, the names
+ * with a prefix, or where a key would sort, in time proportional to the key's length, without
+ * comparing whole names.
+ */
+public final class NameTrie {
+    /** The names in the tree. */
+    private final NameDictionary dictionary;
+    /** The root, covering every code, or null if the dictionary is empty. */
+    private final Node root;
+
+    /**
+     * Constructor for the tree.
+     *
+     * @param dictionary the names in the tree
+     * @param root       the root node
+     */
+    private NameTrie(NameDictionary dictionary, Node root) {
+        this.dictionary = dictionary;
+        this.root = root;
+    }
+
+    /**
+     * Builds the tree over the names of a dictionary.
+     *
+     * @param dictionary the dictionary
+     * @return the tree
+     */
+    public static NameTrie build(NameDictionary dictionary) {
+        return new NameTrie(dictionary, dictionary.size() == 0 ? null : build(dictionary, 0, dictionary.size(), 0));
+    }
+
+    /**
+     * Builds the node for a run of names that share their first characters.
+     *
+     * @param dictionary the dictionary
+     * @param lo         the first code
+     * @param hi         the code after the last one
+     * @param depth      the number of characters the names share
+     * @return the node
+     */
+    private static Node build(NameDictionary dictionary, int lo, int hi, int depth) {
+        int start = dictionary.get(lo).length() == depth ? lo + 1 : lo;
+        List<Node> children = new ArrayList<>();
+        List<String> labels = new ArrayList<>();
+        int from = start;
+        while (from < hi) {
+            String first = dictionary.get(from);
+            char c = first.charAt(depth);
+            int to = from + 1;
+            while (to < hi && dictionary.get(to).charAt(depth) == c) {
+                to++;
+            }
+            // the names are sorted, so the prefix shared by the group is the one its ends share
+            String last = dictionary.get(to - 1);
+            int shared = depth + 1;
+            while (shared < first.length() && shared < last.length() && first.charAt(shared) == last.charAt(shared)) {
+                shared++;
+            }
+            labels.add(first.substring(depth, shared));
+            children.add(build(dictionary, from, to, shared));
+            from = to;
+        }
+        char[] firsts = new char[labels.size()];
+        for (int i = 0; i < firsts.length; i++) {
+            firsts[i] = labels.get(i).charAt(0);
+        }
+        return new Node(lo, hi, firsts, labels.toArray(new String[0]), children.toArray(new Node[0]));
+    }
+
+    /**
+     * Counts the characters a label shares with a key from a position.
+     *
+     * @param label the edge label
+     * @param key   the key
+     * @param at    the position in the key the label starts at
+     * @return the number of matching characters
+     */
+    private static int common(String label, String key, int at) {
+        int length = Math.min(label.length(), key.length() - at);
+        int i = 0;
+        while (i < length && label.charAt(i) == key.charAt(at + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Get the number of names.
+     *
+     * @return the number of distinct normalized names
+     */
+    public int size() {
+        return dictionary.size();
+    }
+
+    /**
+     * Checks if the tree can answer a comparison.
+     *
+     * @param op the operation
+     * @return true for EQUALS and the range operations
+     */
+    public static boolean supports(Operations op) {
+        return op != Operations.NOT_EQUALS && op != Operations.CONTAINS;
+    }
+
+    /**
+     * Finds the first code whose name is greater than or equal to a key.
+     *
+     * @param key the key
+     * @return the code, or the dictionary size if every name is smaller
+     */
+    public int lowerBound(String key) {
+        Node node = root;
+        int depth = 0;
+        while (node != null) {
+            if (depth == key.length()) {
+                return node.lo;
+            }
+            int at = Arrays.binarySearch(node.firsts, key.charAt(depth));
+            if (at < 0) {
+                int after = -at - 1;
+                return after < node.children.length ? node.children[after].lo : node.hi;
+            }
+            String label = node.labels[at];
+            Node child = node.children[at];
+            int shared = common(label, key, depth);
+            if (shared == label.length()) {
+                node = child;
+                depth += shared;
+            } else if (depth + shared == key.length() || label.charAt(shared) > key.charAt(depth + shared)) {
+                return child.lo;
+            } else {
+                return child.hi;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Finds the first code whose name is greater than a key.
+     *
+     * @param key the key
+     * @return the code, or the dictionary size if no name is greater
+     */
+    public int upperBound(String key) {
+        int lower = lowerBound(key);
+        return lower < dictionary.size() && dictionary.get(lower).equals(key) ? lower + 1 : lower;
+    }
+
+    /**
+     * Looks up the code of a name.
+     *
+     * @param key the normalized name
+     * @return the code, or -1 if the name is not in the tree
+     */
+    public int find(String key) {
+        int lower = lowerBound(key);
+        return lower < dictionary.size() && dictionary.get(lower).equals(key) ? lower : -1;
+    }
+
+    /**
+     * Finds the codes of the names that start with a prefix.
+     *
+     * @param prefix the normalized prefix
+     * @return the first code and the code after the last one, equal if there are none
+     */
+    public int[] prefixRange(String prefix) {
+        Node node = root;
+        int depth = 0;
+        while (node != null && depth < prefix.length()) {
+            int at = Arrays.binarySearch(node.firsts, prefix.charAt(depth));
+            if (at < 0) {
+                return new int[] {0, 0};
+            }
+            String label = node.labels[at];
+            int shared = common(label, prefix, depth);
+            if (depth + shared == prefix.length()) {
+                return new int[] {node.children[at].lo, node.children[at].hi};
+            }
+            if (shared < label.length()) {
+                return new int[] {0, 0};
+            }
+            node = node.children[at];
+            depth += shared;
+        }
+        return node == null ? new int[] {0, 0} : new int[] {node.lo, node.hi};
+    }
+
+    /**
+     * Finds the codes of the names that match a comparison.
+     *
+     * @param op  the operation, see {@link #supports(Operations)}
+     * @param key the value to compare against
+     * @return the first code and the code after the last one, equal if there are none
+     * @throws IllegalArgumentException if the operation is not supported
+     */
+    public int[] range(Operations op, String key) {
+        return switch (op) {
+            case EQUALS -> {
+                int code = find(key);
+                yield code < 0 ? new int[] {0, 0} : new int[] {code, code + 1};
+            }
+            case LESS_THAN -> new int[] {0, lowerBound(key)};
+            case LESS_THAN_EQUALS -> new int[] {0, upperBound(key)};
+            case GREATER_THAN -> new int[] {upperBound(key), dictionary.size()};
+            case GREATER_THAN_EQUALS -> new int[] {lowerBound(key), dictionary.size()};
+            default -> throw new IllegalArgumentException("The tree can't answer " + op.getOperator());
+        };
+    }
+
+    /**
+     * Lists the names that start with a prefix, for type-ahead.
+     *
+     * @param prefix the prefix, normalized the same way as the names
+     * @param limit  the most names to return
+     * @return the normalized names, in sorted order
+     */
+    public List<String> completions(String prefix, int limit) {
+        int[] range = prefixRange(NameDictionary.normalize(prefix));
+        List<String> names = new ArrayList<>();
+        for (int code = range[0]; code < range[1] && names.size() < limit; code++) {
+            names.add(dictionary.get(code));
+        }
+        return names;
+    }
+
+    /**
+     * A node of the tree, covering a run of codes.
+     */
+    private static final class Node {
+        /** The first code below this node. */
+        private final int lo;
+        /** The code after the last one below this node. */
+        private final int hi;
+        /** The first character of each edge label, sorted. */
+        private final char[] firsts;
+        /** The label of each edge. */
+        private final String[] labels;
+        /** The node at the end of each edge. */
+        private final Node[] children;
+
+        /**
+         * Constructor for a node.
+         *
+         * @param lo       the first code below the node
+         * @param hi       the code after the last one
+         * @param firsts   the first character of each label
+         * @param labels   the edge labels
+         * @param children the child nodes
+         */
+        private Node(int lo, int hi, char[] firsts, String[] labels, Node[] children) {
+            this.lo = lo;
+            this.hi = hi;
+            this.firsts = firsts;
+            this.labels = labels;
+            this.children = children;
+        }
+    }
+}
@@ -0,0 +1,628 @@
+package student;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.LongBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.IntPredicate;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * A GameTable that keeps its columns outside of the java heap.
+ *
+ * Every numeric column is a direct ByteBuffer, and the names are stored as UTF-8
+ * bytes in another direct buffer, with an offset column marking where each name
+ * starts. The heap only holds the handful of buffer objects, so its size does not
+ * grow with the catalog and the garbage collector never has to walk the rows. The
+ * memory is released when the table is no longer reachable.
+ *
+ * Building a table keeps its scratch space off heap too: loading dedupes ids in direct
+ * buffers, and the name dictionary sorts its rows in one. Applying a delta copies the kept
+ * rows buffer to buffer, so the only heap it takes is the changed games themselves.
+ *
+ * Reads are a little slower than {@link GameTable}, and names are decoded every time
+ * they are read. The {@link NameDictionary} used by name filters is kept off heap too, as
+ * the sorted UTF-8 bytes of each distinct normalized name.
+ */
+public final class OffHeapGameTable implements IGameTable {
+    /** The int columns, indexed by GameData ordinal, null for columns that are not ints. */
+    private final ByteBuffer[] intColumns;
+    /** The double columns, indexed by GameData ordinal, null for columns that are not doubles. */
+    private final ByteBuffer[] doubleColumns;
+    /** Where each name starts in nameBytes, size + 1 ints so the last name has an end. */
+    private final ByteBuffer nameOffsets;
+    /** The UTF-8 bytes of every name, one after the other. */
+    private final ByteBuffer nameBytes;
+    /** The name dictionary code of each row. */
+    private final ByteBuffer nameCodes;
+    /** The normalized names, off heap, set once the rows are filled in. Only the distinct names are kept. */
+    private NameDictionary dictionary;
+    /** The number of rows. */
+    private final int size;
+
+    /**
+     * Constructor for the table, copying the games into off heap columns.
+     *
+     * @param games the games to store, one row each
+     */
+    public OffHeapGameTable(Collection<BoardGame> games) {
+        this(games.size(), totalNameBytes(games));
+        CharsetEncoder encoder = newEncoder();
+        int row = 0;
+        for (BoardGame game : games) {
+            setRow(row++, game, encoder);
+        }
+        indexNames();
+    }
+
+    /**
+     * Loads a collection csv straight into an off heap table.
+     *
+     * The rows are parsed on several threads by {@link MappedCsvReader}, and their fields are
+     * copied from the mapped file into off heap buffers, so no BoardGame objects are built.
+     * Like {@link MappedCsvReader#readParallel(Path, int)}, the first row of an objectid wins;
+     * the repeated ids are found by sorting (id, row) pairs in a direct buffer, and marked in
+     * an off heap bitset, so the heap used does not grow with the file.
+     *
+     * @param csv         the csv file to load
+     * @param parallelism the number of threads to parse with
+     * @return the table
+     * @throws IOException if the file cannot be mapped
+     */
+    public static OffHeapGameTable load(Path csv, int parallelism) throws IOException {
+        List<Rows> chunks = MappedCsvReader.scanParallel(csv, parallelism, Rows::new);
+        long total = 0;
+        for (Rows chunk : chunks) {
+            total += chunk.count;
+        }
+        if (total > Integer.MAX_VALUE) {
+            throw new IOException("More than " + Integer.MAX_VALUE + " rows in " + csv);
+        }
+        // sort (id, row) pairs to find repeated ids, keeping the first row of each
+        LongBuffer ids = allocate(total * Long.BYTES).asLongBuffer();
+        int row = 0;
+        for (Rows chunk : chunks) {
+            for (int i = 0; i < chunk.count; i++, row++) {
+                ids.put(row, (long) chunk.getInt(GameData.ID, i) << Integer.SIZE | row);
+            }
+        }
+        Sorting.sort(ids);
+        ByteBuffer repeats = allocate((total + Byte.SIZE - 1) / Byte.SIZE);
+        int kept = (int) total;
+        for (int i = 1; i < total; i++) {
+            if (ids.get(i) >>> Integer.SIZE == ids.get(i - 1) >>> Integer.SIZE) {
+                int repeat = (int) ids.get(i);
+                repeats.put(repeat / Byte.SIZE, (byte) (repeats.get(repeat / Byte.SIZE) | 1 << repeat % Byte.SIZE));
+                kept--;
+            }
+        }
+        ids = null; // let the pairs go before the table is allocated
+
+        long bytes = 0;
+        row = 0;
+        for (Rows chunk : chunks) {
+            for (int i = 0; i < chunk.count; i++, row++) {
+                if (!isSet(repeats, row)) {
+                    bytes += chunk.nameEnd(i) - chunk.nameStart(i);
+                }
+            }
+        }
+        OffHeapGameTable table = new OffHeapGameTable(kept, bytes);
+        int next = 0;
+        row = 0;
+        for (Rows chunk : chunks) {
+            for (int i = 0; i < chunk.count; i++, row++) {
+                if (!isSet(repeats, row)) {
+                    table.copyRow(next++, chunk, i);
+                }
+            }
+        }
+        table.indexNames();
+        return table;
+    }
+
+    /**
+     * Checks a bit of an off heap bitset.
+     *
+     * @param bits the bitset, eight bits a byte
+     * @param bit  the bit
+     * @return true if it is set
+     */
+    private static boolean isSet(ByteBuffer bits, int bit) {
+        return (bits.get(bit / Byte.SIZE) & 1 << bit % Byte.SIZE) != 0;
+    }
+
+    /**
+     * Constructor for an empty table, allocating the off heap buffers.
+     *
+     * @param size      the number of rows
+     * @param nameBytes the total number of UTF-8 bytes in the names
+     */
+    private OffHeapGameTable(int size, long nameBytes) {
+        if (nameBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Names take more than " + Integer.MAX_VALUE + " bytes");
+        }
+        GameData[] cols = GameData.values();
+        this.size = size;
+        this.intColumns = new ByteBuffer[cols.length];
+        this.doubleColumns = new ByteBuffer[cols.length];
+        for (GameData col : cols) {
+            switch (col) {
+                case NAME -> {
+                    // names have their own buffers
+                }
+                case RATING, DIFFICULTY -> doubleColumns[col.ordinal()] = allocate((long) size * Double.BYTES);
+                default -> intColumns[col.ordinal()] = allocate((long) size * Integer.BYTES);
+            }
+        }
+        this.nameOffsets = allocate((long) (size + 1) * Integer.BYTES);
+        this.nameBytes = allocate(nameBytes);
+        this.nameCodes = allocate((long) size * Integer.BYTES);
+    }
+
+    /**
+     * Builds the name dictionary, once every row is filled in.
+     */
+    private void indexNames() {
+        dictionary = NameDictionary.build(size, nameBytes, nameOffsets, nameCodes);
+    }
+
+    /**
+     * Allocates a direct buffer in native byte order.
+     *
+     * @param bytes the size of the buffer
+     * @return the buffer
+     */
+    static ByteBuffer allocate(long bytes) {
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Column takes more than " + Integer.MAX_VALUE + " bytes");
+        }
+        return ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Makes sure a buffer being written in order has room for more bytes, moving it to a
+     * bigger direct buffer if not.
+     *
+     * @param buffer the buffer being written
+     * @param bytes  the number of bytes about to be written
+     * @return the buffer to write to
+     */
+    static ByteBuffer ensure(ByteBuffer buffer, int bytes) {
+        if (buffer.remaining() >= bytes) {
+            return buffer;
+        }
+        ByteBuffer bigger = allocate(Math.max((long) buffer.capacity() * 2, (long) buffer.position() + bytes));
+        return bigger.put(buffer.flip());
+    }
+
+    /**
+     * Builds an encoder that writes names the same way String.getBytes does.
+     *
+     * @return a UTF-8 encoder
+     */
+    private static CharsetEncoder newEncoder() {
+        return StandardCharsets.UTF_8.newEncoder().onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    /**
+     * Adds up the UTF-8 size of every name, without encoding them.
+     *
+     * @param games the games
+     * @return the total number of bytes
+     */
+    private static long totalNameBytes(Collection<BoardGame> games) {
+        long total = 0;
+        for (BoardGame game : games) {
+            total += utf8Length(game.getName());
+        }
+        return total;
+    }
+
+    /**
+     * Gets the UTF-8 size of a String. Unpaired surrogates count as the one byte replacement.
+     *
+     * @param str the String
+     * @return the number of bytes
+     */
+    private static int utf8Length(String str) {
+        int bytes = 0;
+        for (int i = 0; i < str.length(); i++) {
+            char c = str.charAt(i);
+            if (c < 0x80) {
+                bytes += 1;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < str.length()
+                    && Character.isLowSurrogate(str.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                bytes += 1;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Writes the name of a row after the previous row's name. Rows must be written in order.
+     *
+     * @param row     the row
+     * @param name    the name
+     * @param encoder the encoder to write with
+     */
+    private void setName(int row, String name, CharsetEncoder encoder) {
+        int start = nameOffsets.getInt(row * Integer.BYTES);
+        nameBytes.position(start);
+        encoder.reset();
+        encoder.encode(CharBuffer.wrap(name), nameBytes, true);
+        encoder.flush(nameBytes);
+        nameOffsets.putInt((row + 1) * Integer.BYTES, nameBytes.position());
+    }
+
+    /**
+     * Writes every column of a game. Rows must be written in order.
+     *
+     * @param row     the row
+     * @param game    the game
+     * @param encoder the encoder to write the name with
+     */
+    private void setRow(int row, BoardGame game, CharsetEncoder encoder) {
+        setName(row, game.getName(), encoder);
+        setInt(GameData.ID, row, game.getId());
+        setInt(GameData.MIN_PLAYERS, row, game.getMinPlayers());
+        setInt(GameData.MAX_PLAYERS, row, game.getMaxPlayers());
+        setInt(GameData.MIN_TIME, row, game.getMinPlayTime());
+        setInt(GameData.MAX_TIME, row, game.getMaxPlayTime());
+        setInt(GameData.RANK, row, game.getRank());
+        setInt(GameData.YEAR, row, game.getYearPublished());
+        setDouble(GameData.RATING, row, game.getRating());
+        setDouble(GameData.DIFFICULTY, row, game.getDifficulty());
+    }
+
+    /**
+     * Writes the name bytes of a row from another table. Rows must be written in order.
+     *
+     * @param row   the row
+     * @param from  the table to copy from
+     * @param other the row in that table
+     */
+    private void copyName(int row, OffHeapGameTable from, int other) {
+        int otherStart = from.nameOffsets.getInt(other * Integer.BYTES);
+        putName(row, from.nameBytes, otherStart, from.nameOffsets.getInt((other + 1) * Integer.BYTES) - otherStart);
+    }
+
+    /**
+     * Writes UTF-8 name bytes after the previous row's name. Rows must be written in order.
+     *
+     * @param row    the row
+     * @param source the bytes to copy
+     * @param start  the first byte of the name in source
+     * @param length the number of bytes
+     */
+    private void putName(int row, ByteBuffer source, int start, int length) {
+        int end = nameOffsets.getInt(row * Integer.BYTES);
+        nameBytes.put(end, source, start, length);
+        nameOffsets.putInt((row + 1) * Integer.BYTES, end + length);
+    }
+
+    /**
+     * Copies a parsed csv row. Rows must be written in order.
+     *
+     * @param row   the row to fill
+     * @param from  the parsed rows
+     * @param other the row in from
+     */
+    private void copyRow(int row, Rows from, int other) {
+        putName(row, from.names, from.nameStart(other), from.nameEnd(other) - from.nameStart(other));
+        for (GameData col : GameData.values()) {
+            if (intColumns[col.ordinal()] != null) {
+                setInt(col, row, from.getInt(col, other));
+            } else if (doubleColumns[col.ordinal()] != null) {
+                setDouble(col, row, from.getDouble(col, other));
+            }
+        }
+    }
+
+    /**
+     * Copies a row from another table. Rows must be written in order.
+     *
+     * @param row   the row to fill
+     * @param from  the table to copy from
+     * @param other the row in that table
+     */
+    private void copyRow(int row, OffHeapGameTable from, int other) {
+        copyName(row, from, other);
+        for (int c = 0; c < intColumns.length; c++) {
+            if (intColumns[c] != null) {
+                intColumns[c].putInt(row * Integer.BYTES, from.intColumns[c].getInt(other * Integer.BYTES));
+            }
+            if (doubleColumns[c] != null) {
+                doubleColumns[c].putDouble(row * Double.BYTES, from.doubleColumns[c].getDouble(other * Double.BYTES));
+            }
+        }
+    }
+
+    /**
+     * Writes an int value.
+     *
+     * @param col   an int column
+     * @param row   the row
+     * @param value the value
+     */
+    private void setInt(GameData col, int row, int value) {
+        intColumns[col.ordinal()].putInt(row * Integer.BYTES, value);
+    }
+
+    /**
+     * Writes a double value.
+     *
+     * @param col   a double column
+     * @param row   the row
+     * @param value the value
+     */
+    private void setDouble(GameData col, int row, double value) {
+        doubleColumns[col.ordinal()].putDouble(row * Double.BYTES, value);
+    }
+
+    /**
+     * Get the number of rows.
+     *
+     * @return the number of games in the table
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the name of a row, decoding it from the off heap bytes.
+     *
+     * @param row the row id
+     * @return the name of the game
+     */
+    @Override
+    public String getName(int row) {
+        int start = nameOffsets.getInt(row * Integer.BYTES);
+        int end = nameOffsets.getInt((row + 1) * Integer.BYTES);
+        byte[] bytes = new byte[end - start];
+        nameBytes.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Get the dictionary of normalized names.
+     *
+     * @return the name dictionary
+     */
+    @Override
+    public NameDictionary getNameDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Get a view of the name code column, reading from its off heap buffer.
+     *
+     * @return a function from row id to name code
+     */
+    @Override
+    public IntUnaryOperator nameCodeColumn() {
+        return row -> nameCodes.getInt(row * Integer.BYTES);
+    }
+
+    /**
+     * Get a view of an int column, reading from its off heap buffer.
+     *
+     * @param col the column
+     * @return a function from row id to value, or null if the column is not an int column
+     */
+    @Override
+    public IntUnaryOperator intColumn(GameData col) {
+        ByteBuffer values = intColumns[col.ordinal()];
+        return values == null ? null : row -> values.getInt(row * Integer.BYTES);
+    }
+
+    /**
+     * Get a view of a double column, reading from its off heap buffer.
+     *
+     * @param col the column
+     * @return a function from row id to value, or null if the column is not a double column
+     */
+    @Override
+    public IntToDoubleFunction doubleColumn(GameData col) {
+        ByteBuffer values = doubleColumns[col.ordinal()];
+        return values == null ? null : row -> values.getDouble(row * Double.BYTES);
+    }
+
+    /**
+     * Check if the table keeps its rows outside of the java heap.
+     *
+     * @return true, the columns are off heap
+     */
+    @Override
+    public boolean isOffHeap() {
+        return true;
+    }
+
+    /**
+     * Compares a whole numeric column against a value with the vector API, reading its off heap buffer.
+     *
+     * @param col    a numeric column
+     * @param op     the comparison, not CONTAINS
+     * @param number the value to compare against
+     * @return the selection bitmask
+     * @throws IllegalArgumentException if the column is not numeric or the operation is CONTAINS
+     */
+    @Override
+    public long[] numberMask(GameData col, Operations op, double number) {
+        ByteBuffer ints = intColumns[col.ordinal()];
+        if (ints != null) {
+            return VectorFilters.selectInts(ints, size(), op, number);
+        }
+        ByteBuffer doubles = doubleColumns[col.ordinal()];
+        if (doubles != null) {
+            return VectorFilters.selectDoubles(doubles, size(), op, number);
+        }
+        throw new IllegalArgumentException("The column " + col.getColumnName() + " is not numeric");
+    }
+
+    /**
+     * Builds a new off heap table with the delta applied. This table is not changed.
+     *
+     * If the delta was diffed from this table into another off heap table, that table already
+     * holds the result and is returned as it is. Otherwise the kept rows are copied buffer to
+     * buffer, and the inserted and updated games are written after them.
+     *
+     * @param delta the changes to apply
+     * @return the new table
+     */
+    @Override
+    public OffHeapGameTable applyDelta(GameDelta delta) {
+        if (delta.target(this) instanceof OffHeapGameTable target) {
+            return target;
+        }
+        IntPredicate keeps = delta.keeps(this);
+        List<BoardGame> added = new ArrayList<>(delta.getInserts());
+        added.addAll(delta.getUpdates());
+
+        int rows = added.size();
+        long bytes = totalNameBytes(added);
+        for (int other = 0; other < size; other++) {
+            if (keeps.test(other)) {
+                rows++;
+                bytes += nameOffsets.getInt((other + 1) * Integer.BYTES) - nameOffsets.getInt(other * Integer.BYTES);
+            }
+        }
+        OffHeapGameTable next = new OffHeapGameTable(rows, bytes);
+        int row = 0;
+        for (int other = 0; other < size; other++) {
+            if (keeps.test(other)) {
+                next.copyRow(row++, this, other);
+            }
+        }
+        CharsetEncoder encoder = newEncoder();
+        for (BoardGame game : added) {
+            next.setRow(row++, game, encoder);
+        }
+        next.indexNames();
+        return next;
+    }
+
+    /**
+     * The csv rows parsed from one range of the file, packed into growing off heap buffers
+     * until the table is built. Each row is a fixed size record of its numeric columns.
+     */
+    private static final class Rows implements MappedCsvReader.RowSink {
+        /** Starting size of the buffers. */
+        private static final int INITIAL_BYTES = 1 << 16;
+        /** Where each column starts in a record, indexed by GameData ordinal. */
+        private static final int[] RECORD_OFFSETS = new int[GameData.values().length];
+        /** The size of a record. */
+        private static final int RECORD_SIZE;
+
+        static {
+            int offset = 0;
+            for (GameData col : GameData.values()) {
+                RECORD_OFFSETS[col.ordinal()] = offset;
+                switch (col) {
+                    case NAME -> {
+                        // names have their own buffer
+                    }
+                    case RATING, DIFFICULTY -> offset += Double.BYTES;
+                    default -> offset += Integer.BYTES;
+                }
+            }
+            RECORD_SIZE = offset;
+        }
+
+        /** The numeric columns of every row, one record after the other. */
+        private ByteBuffer records = allocate(INITIAL_BYTES);
+        /** The UTF-8 bytes of every name, one after the other. */
+        private ByteBuffer names = allocate(INITIAL_BYTES);
+        /** Where each name ends in names. */
+        private ByteBuffer nameEnds = allocate(INITIAL_BYTES);
+        /** The number of rows. */
+        private int count;
+
+        /**
+         * Copies the fields of a row into the buffers.
+         *
+         * @param buffer    the mapped bytes
+         * @param nameStart the first byte of the name
+         * @param nameEnd   the index just past the name
+         * @param values    the numeric columns, indexed by GameData ordinal
+         */
+        @Override
+        public void accept(ByteBuffer buffer, int nameStart, int nameEnd, double[] values) {
+            records = ensure(records, RECORD_SIZE);
+            for (GameData col : GameData.values()) {
+                switch (col) {
+                    case NAME -> {
+                        // copied below
+                    }
+                    case RATING, DIFFICULTY -> records.putDouble(values[col.ordinal()]);
+                    default -> records.putInt((int) values[col.ordinal()]);
+                }
+            }
+            names = ensure(names, nameEnd - nameStart);
+            names.put(buffer.slice(nameStart, nameEnd - nameStart));
+            nameEnds = ensure(nameEnds, Integer.BYTES);
+            nameEnds.putInt(names.position());
+            count++;
+        }
+
+        /**
+         * Get an int value of a row.
+         *
+         * @param col an int column
+         * @param row the row
+         * @return the value
+         */
+        int getInt(GameData col, int row) {
+            return records.getInt(row * RECORD_SIZE + RECORD_OFFSETS[col.ordinal()]);
+        }
+
+        /**
+         * Get a double value of a row.
+         *
+         * @param col a double column
+         * @param row the row
+         * @return the value
+         */
+        double getDouble(GameData col, int row) {
+            return records.getDouble(row * RECORD_SIZE + RECORD_OFFSETS[col.ordinal()]);
+        }
+
+        /**
+         * Get where the name of a row starts.
+         *
+         * @param row the row
+         * @return the first byte of the name in names
+         */
+        int nameStart(int row) {
+            return row == 0 ? 0 : nameEnds.getInt((row - 1) * Integer.BYTES);
+        }
+
+        /**
+         * Get where the name of a row ends.
+         *
+         * @param row the row
+         * @return the index just past the name in names
+         */
+        int nameEnd(int row) {
+            return nameEnds.getInt(row * Integer.BYTES);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package student;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * One page of sorted filter results, see {@link Planner#filter(String, GameData, boolean, int, int)}.
+ *
+ * Besides its games, a page holds a cursor token naming the sort key of its last game, when
+ * more games follow. Passing the token to {@link Planner#next(String, int)} gets the next page
+ * by picking the games after that key, so the earlier pages are never sorted again.
+ */
+public final class Page {
+    /** The games of the page, in sorted order. */
+    private final List<BoardGame> games;
+    /** The token of the next page, null if this is the last page. */
+    private final String cursor;
+
+    /**
+     * Constructor for a page.
+     *
+     * @param games  the games, in sorted order
+     * @param cursor the token of the next page, or null
+     */
+    Page(List<BoardGame> games, String cursor) {
+        this.games = List.copyOf(games);
+        this.cursor = cursor;
+    }
+
+    /**
+     * Get the games of the page.
+     *
+     * @return the games, in sorted order
+     */
+    public List<BoardGame> getGames() {
+        return games;
+    }
+
+    /**
+     * Get a stream of the games of the page, like the other filter methods return.
+     *
+     * @return the games, in sorted order
+     */
+    public Stream<BoardGame> stream() {
+        return games.stream();
+    }
+
+    /**
+     * Get the token of the next page.
+     *
+     * @return the token to pass to {@link Planner#next(String, int)}, or null if no games follow
+     */
+    public String getCursor() {
+        return cursor;
+    }
+
+    /**
+     * Check if games follow this page.
+     *
+     * @return true if there is a next page
+     */
+    public boolean hasMore() {
+        return cursor != null;
+    }
+}
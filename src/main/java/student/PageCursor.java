@@ -0,0 +1,191 @@
+package student;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * The position after which a next page starts: the sort order, and the full sort key of the
+ * last game of the page before, see {@link Sorting#topRows(IGameTable, int[], GameData, boolean, int, PageCursor)}.
+ *
+ * The key is the sort column value, the lower case name, then the row id, which makes it
+ * unique. Row ids only mean something in one catalog version, so the version is kept too,
+ * and the key only means something for the filters it was sorted under, so a hash of the
+ * session's normalized filters is kept as well. A cursor travels as an opaque URL safe token.
+ */
+final class PageCursor {
+    /** The separator of the fields in a token, the name goes last as it may hold one. */
+    private static final String SEPARATOR = ";";
+    /** The number of fields in a token. */
+    private static final int FIELDS = 7;
+    /** The FNV-1a 64 bit offset basis. */
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    /** The FNV-1a 64 bit prime. */
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /** The catalog version the row id belongs to. */
+    private final long version;
+    /** The hash of the normalized filters the rows were sorted under. */
+    private final long filters;
+    /** The column sorted on. */
+    private final GameData sortOn;
+    /** The sort direction. */
+    private final boolean ascending;
+    /** The sort column value of the last game, 0 when sorting on NAME. */
+    private final double value;
+    /** The lower case name of the last game. */
+    private final String name;
+    /** The row id of the last game. */
+    private final int row;
+
+    /**
+     * Constructor for a cursor.
+     *
+     * @param version   the catalog version the row id belongs to
+     * @param filters   the hash of the normalized filters
+     * @param sortOn    the column sorted on
+     * @param ascending the sort direction
+     * @param value     the sort column value of the last game
+     * @param name      the lower case name of the last game
+     * @param row       the row id of the last game
+     */
+    private PageCursor(long version, long filters, GameData sortOn, boolean ascending, double value, String name,
+                       int row) {
+        this.version = version;
+        this.filters = filters;
+        this.sortOn = sortOn;
+        this.ascending = ascending;
+        this.value = value;
+        this.name = name;
+        this.row = row;
+    }
+
+    /**
+     * Builds the cursor after a row of a table.
+     *
+     * @param version   the catalog version of the table
+     * @param filters   the normalized filters the rows were sorted under
+     * @param table     the table
+     * @param row       the last row of a page
+     * @param sortOn    the column sorted on
+     * @param ascending the sort direction
+     * @return the cursor
+     */
+    static PageCursor after(long version, String filters, IGameTable table, int row, GameData sortOn,
+                            boolean ascending) {
+        double value = sortOn == GameData.NAME ? 0 : table.getNumber(sortOn, row);
+        return new PageCursor(version, hash(filters), sortOn, ascending, value, table.getName(row).toLowerCase(),
+                row);
+    }
+
+    /**
+     * Hashes normalized filters with 64 bit FNV-1a over their UTF-8 bytes.
+     *
+     * @param filters the normalized filters
+     * @return the hash
+     */
+    static long hash(String filters) {
+        long hash = FNV_OFFSET;
+        for (byte b : filters.getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ (b & 0xff)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * Encodes the cursor as a token.
+     *
+     * @return the URL safe token
+     */
+    String encode() {
+        String fields = String.join(SEPARATOR, Long.toString(version), Long.toString(filters), sortOn.name(),
+                Boolean.toString(ascending), Double.toString(value), Integer.toString(row), name);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(fields.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token made by {@link #encode()}.
+     *
+     * @param token the token
+     * @return the cursor
+     * @throws IllegalArgumentException if the token is not a cursor
+     */
+    static PageCursor decode(String token) {
+        try {
+            String[] fields = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8)
+                    .split(SEPARATOR, FIELDS);
+            if (fields.length != FIELDS) {
+                throw new IllegalArgumentException("Invalid cursor " + token);
+            }
+            return new PageCursor(Long.parseLong(fields[0]), Long.parseLong(fields[1]), GameData.valueOf(fields[2]),
+                    Boolean.parseBoolean(fields[3]), Double.parseDouble(fields[4]), fields[6],
+                    Integer.parseInt(fields[5]));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            // NumberFormatException is an IllegalArgumentException too
+            throw new IllegalArgumentException("Invalid cursor " + token, e);
+        }
+    }
+
+    /**
+     * Get the catalog version the row id belongs to.
+     *
+     * @return the version
+     */
+    long getVersion() {
+        return version;
+    }
+
+    /**
+     * Checks if the cursor was handed out under the given filters.
+     *
+     * @param normalized the normalized filters the session has now
+     * @return true if the rows were sorted under the same filters
+     */
+    boolean isFor(String normalized) {
+        return filters == hash(normalized);
+    }
+
+    /**
+     * Get the column sorted on.
+     *
+     * @return the sort column
+     */
+    GameData getSortOn() {
+        return sortOn;
+    }
+
+    /**
+     * Get the sort direction.
+     *
+     * @return true if ascending
+     */
+    boolean isAscending() {
+        return ascending;
+    }
+
+    /**
+     * Get the sort column value of the last game.
+     *
+     * @return the value, 0 when sorting on NAME
+     */
+    double getValue() {
+        return value;
+    }
+
+    /**
+     * Get the lower case name of the last game.
+     *
+     * @return the name
+     */
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Get the row id of the last game.
+     *
+     * @return the row id
+     */
+    int getRow() {
+        return row;
+    }
+}
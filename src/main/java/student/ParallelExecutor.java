@@ -0,0 +1,359 @@
+package student;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntPredicate;
+
+/**
+ * Runs the filter scan and the sort of a query on a dedicated {@link ForkJoinPool}.
+ *
+ * The rows are split into ranges, and each range is filtered on its own, or has its sort keys
+ * built and sorted on its own. Filtered ranges are joined back in order, and sorted ranges
+ * are merged pairwise, so the result is the same as the sequential path, ties included.
+ *
+ * Splitting has a cost, so anything with fewer rows than the threshold runs on the calling
+ * thread. The pool is separate from the common pool, and sized on its own, so queries neither
+ * starve nor are starved by other parallel streams in the JVM.
+ */
+public final class ParallelExecutor {
+    /** The default least number of rows worth running in parallel. */
+    public static final int DEFAULT_THRESHOLD = 50_000;
+
+    /** An executor that always runs on the calling thread. */
+    public static final ParallelExecutor SEQUENTIAL = new ParallelExecutor(null, Integer.MAX_VALUE, false);
+
+    /** The least number of rows in one task, below this splitting costs more than it saves. */
+    private static final int MIN_CHUNK = 4096;
+    /** The number of tasks per pool thread, so a slow range doesn't hold up the rest. */
+    private static final int TASKS_PER_THREAD = 4;
+
+    /** The pool, or null to run on the calling thread. */
+    private final ForkJoinPool pool;
+    /** True for the shared executor, which is never shut down. */
+    private final boolean shared;
+    /** The least number of rows to run in parallel. */
+    private final int threshold;
+
+    /**
+     * Constructor for an executor with its own pool.
+     *
+     * @param parallelism the number of pool threads
+     * @param threshold   the least number of rows to run in parallel, smaller inputs run on the calling thread
+     * @throws IllegalArgumentException if the parallelism is less than 1 or the threshold is negative
+     */
+    public ParallelExecutor(int parallelism, int threshold) {
+        this(newPool(parallelism, threshold), threshold, false);
+    }
+
+    /**
+     * Constructor for an executor.
+     *
+     * @param pool      the pool, or null to run on the calling thread
+     * @param threshold the least number of rows to run in parallel
+     * @param shared    true for the shared executor
+     */
+    private ParallelExecutor(ForkJoinPool pool, int threshold, boolean shared) {
+        this.pool = pool;
+        this.threshold = threshold;
+        this.shared = shared;
+    }
+
+    /**
+     * Builds a pool of daemon threads, after checking the settings.
+     *
+     * @param parallelism the number of threads
+     * @param threshold   the least number of rows to run in parallel
+     * @return the pool
+     * @throws IllegalArgumentException if the parallelism is less than 1 or the threshold is negative
+     */
+    private static ForkJoinPool newPool(int parallelism, int threshold) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("The parallelism must be at least 1: " + parallelism);
+        }
+        if (threshold < 0) {
+            throw new IllegalArgumentException("The threshold can't be negative: " + threshold);
+        }
+        return new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Get an executor using every processor, with the default threshold. The caller owns its
+     * pool, and should shut it down when done.
+     *
+     * @return a new executor
+     */
+    public static ParallelExecutor withDefaults() {
+        return new ParallelExecutor(Runtime.getRuntime().availableProcessors(), DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Get the executor shared by every catalog built with the default settings. It uses every
+     * processor with the default threshold, its pool is only created the first time it is asked
+     * for, and {@link #shutdown()} leaves it running.
+     *
+     * @return the shared executor
+     */
+    public static ParallelExecutor shared() {
+        return Shared.EXECUTOR;
+    }
+
+    /**
+     * Get the number of pool threads.
+     *
+     * @return the parallelism, 1 for the sequential executor
+     */
+    public int getParallelism() {
+        return pool == null ? 1 : pool.getParallelism();
+    }
+
+    /**
+     * Get the least number of rows run in parallel.
+     *
+     * @return the threshold
+     */
+    public int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Checks if an input is run in parallel.
+     *
+     * @param rows the number of rows
+     * @return true if the rows would be split across the pool
+     */
+    public boolean isParallel(int rows) {
+        return pool != null && !pool.isShutdown() && rows >= threshold && rows >= 2 * MIN_CHUNK;
+    }
+
+    /**
+     * Get the number of rows in one task.
+     *
+     * @param rows the number of rows
+     * @return the chunk size
+     */
+    private int chunk(int rows) {
+        return Math.max(MIN_CHUNK, rows / (pool.getParallelism() * TASKS_PER_THREAD));
+    }
+
+    /**
+     * Keeps the rows that pass a test.
+     *
+     * @param rows the row ids
+     * @param test the test of one row, called from the pool threads
+     * @return the rows that pass, in the same order
+     */
+    public int[] filter(int[] rows, IntPredicate test) {
+        if (!isParallel(rows.length)) {
+            return Arrays.stream(rows).filter(test).toArray();
+        }
+        return pool.invoke(new FilterTask(rows, test, 0, rows.length, chunk(rows.length)));
+    }
+
+    /**
+     * Sorts row ids the same way as {@link Sorting#sortRows(IGameTable, int[], GameData, boolean)}.
+     *
+     * @param table     the table the row ids belong to
+     * @param rows      the row ids to sort, not changed
+     * @param sortOn    the attribute column to sort by
+     * @param ascending if true, sort in ascending order; otherwise, sort in descending order
+     * @return a new array of the row ids in sorted order
+     */
+    public int[] sort(IGameTable table, int[] rows, GameData sortOn, boolean ascending) {
+        if (!isParallel(rows.length)) {
+            return Sorting.sortRows(table, rows, sortOn, ascending);
+        }
+        Sorting.Keys keys = new Sorting.Keys(sortOn, rows.length);
+        int[] order = new int[rows.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        pool.invoke(new SortTask(table, rows, keys, keys.order(ascending), order,
+                new int[rows.length], 0, rows.length, chunk(rows.length)));
+        int[] sorted = new int[rows.length];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = rows[order[i]];
+        }
+        return sorted;
+    }
+
+    /**
+     * Stops the pool threads. The executor runs everything on the calling thread afterwards.
+     * The shared executor is not stopped, as other catalogs may still be using it.
+     */
+    public void shutdown() {
+        if (pool != null && !shared) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Get a short description of the executor.
+     *
+     * @return the parallelism and threshold
+     */
+    @Override
+    public String toString() {
+        return "ParallelExecutor{parallelism=" + getParallelism() + ", threshold=" + threshold + '}';
+    }
+
+    /**
+     * Filters a range of positions, splitting it in half until it is one chunk.
+     */
+    private static final class FilterTask extends RecursiveTask<int[]> {
+        /** Tasks are never serialized, but the superclass is Serializable. */
+        private static final long serialVersionUID = 1L;
+        /** The row ids. */
+        private final int[] rows;
+        /** The test of one row. */
+        private final IntPredicate test;
+        /** The first position. */
+        private final int from;
+        /** The position after the last one. */
+        private final int to;
+        /** The most positions to filter without splitting. */
+        private final int chunk;
+
+        /**
+         * Constructor for a task.
+         *
+         * @param rows  the row ids
+         * @param test  the test of one row
+         * @param from  the first position
+         * @param to    the position after the last one
+         * @param chunk the most positions to filter without splitting
+         */
+        private FilterTask(int[] rows, IntPredicate test, int from, int to, int chunk) {
+            this.rows = rows;
+            this.test = test;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+        }
+
+        /**
+         * Filters the range.
+         *
+         * @return the rows that pass, in order
+         */
+        @Override
+        protected int[] compute() {
+            if (to - from <= chunk) {
+                int[] kept = new int[to - from];
+                int count = 0;
+                for (int i = from; i < to; i++) {
+                    if (test.test(rows[i])) {
+                        kept[count++] = rows[i];
+                    }
+                }
+                return Arrays.copyOf(kept, count);
+            }
+            int mid = (from + to) >>> 1;
+            FilterTask left = new FilterTask(rows, test, from, mid, chunk);
+            left.fork();
+            int[] right = new FilterTask(rows, test, mid, to, chunk).compute();
+            int[] first = left.join();
+            int[] both = Arrays.copyOf(first, first.length + right.length);
+            System.arraycopy(right, 0, both, first.length, right.length);
+            return both;
+        }
+    }
+
+    /**
+     * Sorts a range of positions by their keys, splitting it in half until it is one chunk and
+     * merging the sorted halves.
+     */
+    private static final class SortTask extends RecursiveAction {
+        /** Tasks are never serialized, but the superclass is Serializable. */
+        private static final long serialVersionUID = 1L;
+        /** The table the row ids belong to. */
+        private final IGameTable table;
+        /** The row ids. */
+        private final int[] rows;
+        /** The sort keys of each position, filled in by the leaves. */
+        private final Sorting.Keys keys;
+        /** Compares two positions. */
+        private final IntBinaryOperator comparator;
+        /** The positions being sorted. */
+        private final int[] order;
+        /** Scratch space for merging, as long as order. */
+        private final int[] scratch;
+        /** The first position. */
+        private final int from;
+        /** The position after the last one. */
+        private final int to;
+        /** The most positions to sort without splitting. */
+        private final int chunk;
+
+        /**
+         * Constructor for a task.
+         *
+         * @param table      the table the row ids belong to
+         * @param rows       the row ids
+         * @param keys       the sort keys, filled in by the leaves
+         * @param comparator compares two positions
+         * @param order      the positions being sorted
+         * @param scratch    scratch space for merging
+         * @param from       the first position
+         * @param to         the position after the last one
+         * @param chunk      the most positions to sort without splitting
+         */
+        private SortTask(IGameTable table, int[] rows, Sorting.Keys keys,
+                         IntBinaryOperator comparator, int[] order, int[] scratch, int from, int to, int chunk) {
+            this.table = table;
+            this.rows = rows;
+            this.keys = keys;
+            this.comparator = comparator;
+            this.order = order;
+            this.scratch = scratch;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+        }
+
+        /**
+         * Sorts the range.
+         */
+        @Override
+        protected void compute() {
+            if (to - from <= chunk) {
+                keys.fill(table, rows, from, to);
+                int[] range = Arrays.copyOfRange(order, from, to);
+                Sorting.mergeSort(range, comparator);
+                System.arraycopy(range, 0, order, from, range.length);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new SortTask(table, rows, keys, comparator, order, scratch, from, mid, chunk),
+                    new SortTask(table, rows, keys, comparator, order, scratch, mid, to, chunk));
+            // ties take the left half first, so the merge is stable like the sequential sort
+            int i = from;
+            int j = mid;
+            int out = from;
+            while (i < mid && j < to) {
+                scratch[out++] = comparator.applyAsInt(order[j], order[i]) < 0 ? order[j++] : order[i++];
+            }
+            System.arraycopy(order, i, scratch, out, mid - i);
+            out += mid - i;
+            System.arraycopy(order, j, scratch, out, to - j);
+            System.arraycopy(scratch, from, order, from, to - from);
+        }
+    }
+
+    /**
+     * Holds the shared executor, so its pool is created on first use by the class loader.
+     */
+    private static final class Shared {
+        /** The executor shared by the default catalogs. */
+        private static final ParallelExecutor EXECUTOR = new ParallelExecutor(
+                newPool(Runtime.getRuntime().availableProcessors(), DEFAULT_THRESHOLD), DEFAULT_THRESHOLD, true);
+
+        /**
+         * Private constructor, only holds the executor.
+         */
+        private Shared() {
+        }
+    }
+}
@@ -1,25 +1,78 @@
 package student;
 
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeSet;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 
 /**
  * A planner that applies various filters and sorting options to a collection of BoardGame objects.
+ *
+ * The games are kept in a column oriented {@link IGameTable}, either on the heap
+ * ({@link GameTable}) or off heap ({@link OffHeapGameTable}). Filters run over row ids and
+ * read the columns directly, and BoardGame objects are only built for the games returned.
+ * Each filter string is compiled into a {@link FilterPlan} before any row is read.
+ *
+ * The collection can be changed while the planner is running with {@link #applyDelta(GameDelta)}.
+ * Changes are copy-on-write: a new catalog version is built and published in a
+ * {@link CatalogStore}. Each call pins the current version for as long as it runs, and a
+ * stream that was handed out before the change keeps reading the table it started with.
+ *
+ * Filters can be answered from the {@link GameIndexes} built with the table: bitmap indexes on
+ * the low cardinality columns, and sorted indexes for range filters on the other numeric columns
+ * when that reads fewer rows than a scan. The rows left by the filters are kept as a
+ * {@link CompressedBitmap}, so each filter only reads the rows the earlier ones left. The
+ * bitmap before each filter is kept too, so {@link #undo()} steps back without computing
+ * anything, and {@link #reset()} does not touch any rows.
+ *
+ * Compiled filters and sorted results are kept in {@link LruCache}s. A result is keyed by
+ * every filter applied since the last reset, in normalized form, plus the sort column and
+ * direction, so repeating a query skips both the scan and the sort. The results are
+ * dropped whenever the collection changes.
+ *
+ * Large scans and sorts are split across a {@link ParallelExecutor}, small ones run on the
+ * calling thread.
+ *
+ * The games, indexes, caches and executor all live in an immutable {@link Catalog}, and a
+ * planner is one user's session over it, holding only that user's filters. Many planners can
+ * share one store with {@link #Planner(CatalogStore)}, so each session costs a few bitmaps,
+ * and a session that finds a newer version applies its filters again to it before going on.
  */
 
 public class Planner implements IPlanner {
+    /**
+     * The versions of the games and everything built from them.
+     */
+    private final CatalogStore store;
+
+    /**
+     * The catalog version the remaining rows and history belong to.
+     */
+    private long version;
 
     /**
-     * A {Set of BoardGame objects.
+     * The rows remaining (filtered) after applying filter operations.
      */
-    private final Set<BoardGame> games;
+    private CompressedBitmap remainingRows;
 
     /**
-     * A stream representing the remaining (filtered) games after applying filter operations.
+     * The filters applied since the last reset, so they can be applied again to a changed collection.
      */
-    private Stream<BoardGame> remainingGames;
+    private final List<FilterPlan> appliedFilters = new ArrayList<>();
+
+    /**
+     * The remaining rows before each applied filter, the latest on top, for undo.
+     */
+    private final Deque<CompressedBitmap> history = new ArrayDeque<>();
 
     /**
      * Constructs a Planner with the given set of board games.
@@ -28,65 +81,75 @@ public class Planner implements IPlanner {
      * @param games the collection of  BoardGame objects to manage and filter
      */
     public Planner(Set<BoardGame> games) {
-        this.games = games;
-        this.remainingGames = games.stream();
+        this(new Catalog(games));
     }
 
     /**
-     * Applies the specified filter to the board games and returns a stream of games that match the filter.
-     * This is a convenience method that sorts the result by GameData#NAME in ascending order.
+     * Constructs a Planner over an existing game table, such as an {@link OffHeapGameTable}.
      *
-     * @param filter the filter to apply, specified as a comma-separated list of filter expressions
-     * @return a stream of BoardGame}objects that match the filter
+     * @param table the games to manage and filter
      */
-    @Override
-    public Stream<BoardGame> filter(String filter) {
-        return filter(filter, GameData.NAME, true);
+    public Planner(IGameTable table) {
+        this(new Catalog(table));
     }
 
     /**
-     * Applies a single filter expression on a given stream of board games.
-     * The expression is parsed to extract the operation and the value, and then applied to each game using
-     * the Filters(BoardGame, GameData, Operations, String)} method.
+     * Constructs a Planner over an existing game table, with the given cache limits.
      *
-     * @param filter        a single filter expression (e.g. "minPlayers>4")
-     * @param filteredGames the stream of games to filter
-     * @return a new stream containing only the games that satisfy the filter condition; if the filter is invalid,
-     *         the original stream is returned unmodified.
+     * @param table        the games to manage and filter
+     * @param cacheEntries the most results, and the most plans, to cache; 0 turns caching off
+     * @param cacheBytes   the most bytes of row ids to cache
      */
-    private Stream<BoardGame> filterSingle(String filter, Stream<BoardGame> filteredGames) {
-        //handle getting operation, game attribute to filter on
-        Operations operator = Operations.getOperatorFromStr(filter);
-        if (operator == null) {
-            return filteredGames;
-        }
-        //remove space
-        filter = filter.replaceAll(" ", "");
+    public Planner(IGameTable table, int cacheEntries, long cacheBytes) {
+        this(new Catalog(table, cacheEntries, cacheBytes, ParallelExecutor.shared()));
+    }
 
-        String[] parts = filter.split(operator.getOperator());
-        if (parts.length != 2) {
-            return filteredGames;
-        }
-        GameData column;
-        try {
-            column = GameData.fromString(parts[0]);
-        } catch (IllegalArgumentException e) {
-            return filteredGames;
-        }
-        //more work here to filter the games
-        //we found creating a String filter and a Number filter to be useful.
-        //both of them take in both the GameDate enum, Operator Enum, and the value to parse and filter
-        String value;
-        try {
-            value = parts[1].trim();
-        } catch (IllegalArgumentException e) {
-            return filteredGames;
+    /**
+     * Constructs a Planner over an existing game table, with the given cache limits and executor.
+     *
+     * @param table        the games to manage and filter
+     * @param cacheEntries the most results, and the most plans, to cache; 0 turns caching off
+     * @param cacheBytes   the most bytes of row ids to cache
+     * @param executor     runs large scans and sorts, {@link ParallelExecutor#SEQUENTIAL} to stay on one thread
+     */
+    public Planner(IGameTable table, int cacheEntries, long cacheBytes, ParallelExecutor executor) {
+        this(new Catalog(table, cacheEntries, cacheBytes, executor));
+    }
+
+    /**
+     * Constructs a session over a catalog that other sessions may share. Nothing is copied.
+     * Changes made through this session are not seen by the others.
+     *
+     * @param catalog the games to manage and filter
+     */
+    public Planner(Catalog catalog) {
+        this(new CatalogStore(catalog));
+    }
+
+    /**
+     * Constructs a session over a store that other sessions may share. Every session sees
+     * the versions published to the store, whichever session or reload published them.
+     *
+     * @param store the versions of the games to manage and filter
+     */
+    public Planner(CatalogStore store) {
+        this.store = store;
+        try (CatalogStore.Snapshot snapshot = store.acquire()) {
+            this.version = snapshot.getVersion();
+            this.remainingRows = snapshot.getCatalog().getIndexes().allRows();
         }
-        System.out.print("Operator is :" + operator);
-        System.out.print("GameData is :" + column);
-        System.out.println(" Value is :" + value);
+    }
 
-        return filteredGames.filter(game -> Filters.filter(game, column, operator, value));
+    /**
+     * Applies the specified filter to the board games and returns a stream of games that match the filter.
+     * This is a convenience method that sorts the result by GameData#NAME in ascending order.
+     *
+     * @param filter the filter to apply, specified as a comma-separated list of filter expressions
+     * @return a stream of BoardGame}objects that match the filter
+     */
+    @Override
+    public Stream<BoardGame> filter(String filter) {
+        return filter(filter, GameData.NAME, true);
     }
 
     /**
@@ -109,18 +172,370 @@ public class Planner implements IPlanner {
      * @param sortOn    the GameData attribute to sort on
      * @param ascending if @code true, sort in ascending order; otherwise, sort in descending order
      * @return a stream of  BoardGame objects that match the filter, sorted according to the specified parameters
+     * @throws IllegalArgumentException if the filter is invalid, see {@link FilterPlan#compile(String)};
+     *                                  the filters applied so far are kept
      */
     @Override
-    public Stream<BoardGame> filter(String filter, GameData sortOn, boolean ascending) {
-        // Split the filters
-        String[] filterList = filter.split(",");
+    public synchronized Stream<BoardGame> filter(String filter, GameData sortOn, boolean ascending) {
+        try (CatalogStore.Snapshot snapshot = pin()) {
+            return filter(snapshot.getCatalog(), filter, sortOn, ascending);
+        }
+    }
+
+    /**
+     * Applies a filter on a pinned catalog, see {@link #filter(String, GameData, boolean)}.
+     *
+     * @param current   the catalog, already caught up with
+     * @param filter    the filter to apply
+     * @param sortOn    the column to sort on
+     * @param ascending the sort direction
+     * @return the sorted games that match
+     */
+    private Stream<BoardGame> filter(Catalog current, String filter, GameData sortOn, boolean ascending) {
+        FilterPlan plan = current.compile(filter);
+        IGameTable games = current.getTable();
+        if (!plan.isEmpty()) {
+            // an empty filter only sorts, there is nothing to undo
+            appliedFilters.add(plan);
+            history.push(remainingRows);
+        }
+        String key = resultKey(appliedFilters, sortOn, ascending);
+
+        int[] sorted = current.getResult(key);
+        if (sorted == null) {
+            ParallelExecutor executor = current.getExecutor();
+            remainingRows = plan.select(remainingRows, games, current.getIndexes(), executor);
+            sorted = executor.sort(games, remainingRows.toArray(), sortOn, ascending);
+            current.putResult(key, sorted);
+        } else {
+            remainingRows = CompressedBitmap.of(sorted);
+        }
+        return IntStream.of(sorted).mapToObj(games::toBoardGame);
+    }
+
+    /**
+     * Counts the games that the filters applied so far and one more filter leave. Nothing is
+     * sorted or built, and the filter is not kept, so the session is unchanged.
+     *
+     * @param filter the filter to count, "" for the games remaining
+     * @return the number of games that match
+     * @throws IllegalArgumentException if the filter is invalid, see {@link FilterPlan#compile(String)}
+     */
+    public synchronized long count(String filter) {
+        try (CatalogStore.Snapshot snapshot = pin()) {
+            Catalog current = snapshot.getCatalog();
+            return current.compile(filter).count(remainingRows, current.getTable(), current.getIndexes(),
+                    current.getExecutor());
+        }
+    }
+
+    /**
+     * Summarizes a numeric column over the games that the filters applied so far and one more
+     * filter leave. Nothing is sorted or built, and the filter is not kept, so the session is
+     * unchanged.
+     *
+     * @param filter the filter to apply, "" for the games remaining
+     * @param column a numeric column
+     * @return the count, sum, min, max and average of the column
+     * @throws IllegalArgumentException if the filter is invalid or the column is not numeric
+     */
+    public synchronized ColumnSummary summarize(String filter, GameData column) {
+        try (CatalogStore.Snapshot snapshot = pin()) {
+            Catalog current = snapshot.getCatalog();
+            return current.compile(filter).summarize(remainingRows, column, current.getTable(),
+                    current.getIndexes(), current.getExecutor());
+        }
+    }
+
+    /**
+     * Counts the games that the filters applied so far and one more filter leave, by each of
+     * several facets, see {@link Facet#count(List, CompressedBitmap, IGameTable, GameIndexes)}.
+     * The filter runs once for all the facets, and it is not kept, so the session is unchanged.
+     *
+     * @param filter the filter to apply, "" for the games remaining
+     * @param facets the columns to count by and their buckets
+     * @return the buckets of each facet in the order given, each from its lower bound to its
+     *         number of games; empty buckets are left out
+     * @throws IllegalArgumentException if the filter is invalid
+     */
+    public synchronized Map<Facet, SortedMap<Double, Integer>> facets(String filter, List<Facet> facets) {
+        try (CatalogStore.Snapshot snapshot = pin()) {
+            Catalog current = snapshot.getCatalog();
+            CompressedBitmap rows = current.compile(filter).select(remainingRows, current.getTable(),
+                    current.getIndexes(), current.getExecutor());
+            return Facet.count(facets, rows, current.getTable(), current.getIndexes());
+        }
+    }
+
+    /**
+     * Gets the smallest value of a column, see {@link #summarize(String, GameData)}.
+     *
+     * @param filter the filter to apply, "" for the games remaining
+     * @param column a numeric column
+     * @return the min, NaN if no game matches
+     */
+    public double min(String filter, GameData column) {
+        return summarize(filter, column).getMin();
+    }
+
+    /**
+     * Gets the largest value of a column, see {@link #summarize(String, GameData)}.
+     *
+     * @param filter the filter to apply, "" for the games remaining
+     * @param column a numeric column
+     * @return the max, NaN if no game matches
+     */
+    public double max(String filter, GameData column) {
+        return summarize(filter, column).getMax();
+    }
+
+    /**
+     * Gets the sum of a column, see {@link #summarize(String, GameData)}.
+     *
+     * @param filter the filter to apply, "" for the games remaining
+     * @param column a numeric column
+     * @return the sum, 0 if no game matches
+     */
+    public double sum(String filter, GameData column) {
+        return summarize(filter, column).getSum();
+    }
+
+    /**
+     * Gets the average of a column, see {@link #summarize(String, GameData)}.
+     *
+     * @param filter the filter to apply, "" for the games remaining
+     * @param column a numeric column
+     * @return the average, NaN if no game matches
+     */
+    public double avg(String filter, GameData column) {
+        return summarize(filter, column).getAverage();
+    }
+
+    /**
+     * Applies a filter like {@link #filter(String, GameData, boolean)}, but only returns one page
+     * of the sorted games. The games before and in the page are picked with a bounded heap, so
+     * the cost is O(n log (offset + limit)) instead of sorting all n games, unless the whole
+     * sorted result is cached already. When the page reaches the last game, the picked games
+     * are the whole sorted result, and they are cached like a full sort; a page that stops
+     * earlier is not cached, as that would mean sorting every game.
+     *
+     * @param filter    the filter to apply, kept like the other filter methods
+     * @param sortOn    the column to sort on
+     * @param ascending if true, sort in ascending order; otherwise, sort in descending order
+     * @param offset    the number of sorted games to skip
+     * @param limit     the most games to return
+     * @return the page, with a cursor for {@link #next(String, int)} if more games follow
+     * @throws IllegalArgumentException if the filter is invalid, or the offset or limit is negative
+     */
+    public synchronized Page filter(String filter, GameData sortOn, boolean ascending, int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Offset and limit can't be negative");
+        }
+        try (CatalogStore.Snapshot snapshot = pin()) {
+            Catalog current = snapshot.getCatalog();
+            FilterPlan plan = current.compile(filter);
+            IGameTable games = current.getTable();
+            if (!plan.isEmpty()) {
+                appliedFilters.add(plan);
+                history.push(remainingRows);
+            }
+            String key = resultKey(appliedFilters, sortOn, ascending);
+            int[] sorted = current.getResult(key);
+            int[] top;
+            if (sorted == null) {
+                remainingRows = plan.select(remainingRows, games, current.getIndexes(), current.getExecutor());
+                // one more than the page, to tell if another page follows
+                int wanted = (int) Math.min((long) offset + limit + 1, remainingRows.cardinality());
+                top = Sorting.topRows(games, remainingRows.toArray(), sortOn, ascending, wanted, null);
+                if (top.length == remainingRows.cardinality()) {
+                    current.putResult(key, top);
+                }
+            } else {
+                remainingRows = CompressedBitmap.of(sorted);
+                top = Arrays.copyOf(sorted, (int) Math.min((long) offset + limit + 1, sorted.length));
+            }
+            return page(games, top, offset, limit, sortOn, ascending);
+        }
+    }
+
+    /**
+     * Gets the page after the one a cursor was handed out with. Only the games after the
+     * cursor's sort key are picked, with a bounded heap, so the earlier pages are not sorted
+     * again. The page is taken from the games the session's filters leave now, and no filter
+     * is added.
+     *
+     * @param cursor the cursor of the page before, see {@link Page#getCursor()}
+     * @param limit  the most games to return
+     * @return the page, sorted like the page before, with a cursor if more games follow
+     * @throws IllegalArgumentException if the cursor is invalid, or from before the collection
+     *                                  changed, or from before the session's filters changed,
+     *                                  or the limit is negative
+     */
+    public synchronized Page next(String cursor, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit can't be negative");
+        }
+        PageCursor after = PageCursor.decode(cursor);
+        try (CatalogStore.Snapshot snapshot = pin()) {
+            if (after.getVersion() != version) {
+                throw new IllegalArgumentException("The cursor is from before the collection changed");
+            }
+            if (!after.isFor(resultKey(appliedFilters, after.getSortOn(), after.isAscending()))) {
+                throw new IllegalArgumentException("The cursor is from before the filters changed");
+            }
+            IGameTable games = snapshot.getCatalog().getTable();
+            int[] top = Sorting.topRows(games, remainingRows.toArray(), after.getSortOn(), after.isAscending(),
+                    limit == Integer.MAX_VALUE ? limit : limit + 1, after);
+            return page(games, top, 0, limit, after.getSortOn(), after.isAscending());
+        }
+    }
+
+    /**
+     * Builds a page from the first sorted rows.
+     *
+     * @param games     the table the row ids belong to
+     * @param top       the first sorted rows, one past the page if more follow
+     * @param offset    the number of rows to skip
+     * @param limit     the most rows in the page
+     * @param sortOn    the column sorted on
+     * @param ascending the sort direction
+     * @return the page, with a cursor after its last row if top goes past it
+     */
+    private Page page(IGameTable games, int[] top, int offset, int limit, GameData sortOn, boolean ascending) {
+        int from = Math.min(offset, top.length);
+        int to = (int) Math.min((long) offset + limit, top.length);
+        List<BoardGame> page = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            page.add(games.toBoardGame(top[i]));
+        }
+        String cursor = null;
+        if (to < top.length && to > 0) {
+            cursor = PageCursor.after(version, resultKey(appliedFilters, sortOn, ascending), games, top[to - 1],
+                    sortOn, ascending).encode();
+        }
+        return new Page(page, cursor);
+    }
+
+    /**
+     * Builds the result cache key for a chain of filters. Filters are ANDed together, so the
+     * key is the distinct normalized predicates and expressions in sorted order, however they
+     * were split up.
+     *
+     * @param chain     the filters applied since the last reset
+     * @param sortOn    the sort column
+     * @param ascending the sort direction
+     * @return the key
+     */
+    private static String resultKey(List<FilterPlan> chain, GameData sortOn, boolean ascending) {
+        Set<String> predicates = new TreeSet<>();
+        for (FilterPlan plan : chain) {
+            for (FilterPredicate predicate : plan.getPredicates()) {
+                predicates.add(predicate.toString());
+            }
+            for (FilterExpression expression : plan.getExpressions()) {
+                predicates.add(expression.toString());
+            }
+        }
+        return String.join(",", predicates) + ';' + sortOn.name() + ';' + ascending;
+    }
+
+    /**
+     * Get the rows that the filters applied since the last reset leave. Counting them
+     * or reading a page of them does not touch the table.
+     *
+     * @return the remaining rows of the current table
+     */
+    public synchronized CompressedBitmap getRemainingRows() {
+        // only catches the rows up with the newest catalog, nothing is read from it
+        pin().close();
+        return remainingRows;
+    }
+
+    /**
+     * Pins the current catalog version, and first applies the filters again to it if it is
+     * newer than the one this session's rows belong to. Must be called holding the session lock.
+     *
+     * @return the pinned snapshot, to be closed when done
+     */
+    private CatalogStore.Snapshot pin() {
+        CatalogStore.Snapshot snapshot = store.acquire();
+        if (snapshot.getVersion() != version) {
+            Catalog next = snapshot.getCatalog();
+            IGameTable games = next.getTable();
+            GameIndexes indexes = next.getIndexes();
+            CompressedBitmap replayed = indexes.allRows();
+            history.clear();
+            for (FilterPlan plan : appliedFilters) {
+                history.push(replayed);
+                replayed = plan.select(replayed, games, indexes, next.getExecutor());
+            }
+            remainingRows = replayed;
+            version = snapshot.getVersion();
+        }
+        return snapshot;
+    }
+
+    /**
+     * Finds a game by name among the remaining rows, ignoring case. The name is looked up in
+     * the name indexes, so only the rows sharing its normalized name are checked.
+     *
+     * @param name the name of the game
+     * @return the game, or null if no remaining game has that name
+     */
+    public synchronized BoardGame findByName(String name) {
+        try (CatalogStore.Snapshot snapshot = pin()) {
+            IGameTable games = snapshot.getCatalog().getTable();
+            GameIndexes indexes = snapshot.getCatalog().getIndexes();
+            int code = indexes.findName(NameDictionary.normalize(name));
+            if (code < 0) {
+                return null;
+            }
+            for (int row : indexes.nameRows().rowsOf(code)) {
+                if (remainingRows.contains(row) && games.getName(row).equalsIgnoreCase(name)) {
+                    return games.toBoardGame(row);
+                }
+            }
+            return null;
+        }
+    }
 
-        // Apply each filter in order
-        for (String oneFilter : filterList) {
-            remainingGames = filterSingle(oneFilter, remainingGames);
+    /**
+     * Lists the names of games that start with a prefix, for type-ahead. The whole collection
+     * is searched, whatever the filters, and spaces and case are ignored.
+     *
+     * @param prefix the start of a name
+     * @param limit  the most names to return
+     * @return the game names, in sorted order, one per normalized name
+     */
+    public List<String> completions(String prefix, int limit) {
+        try (CatalogStore.Snapshot snapshot = store.acquire()) {
+            IGameTable games = snapshot.getCatalog().getTable();
+            GameIndexes current = snapshot.getCatalog().getIndexes();
+            int[] codes = current.namePrefixRange(NameDictionary.normalize(prefix));
+            List<String> names = new ArrayList<>();
+            for (int code = codes[0]; code < codes[1] && names.size() < limit; code++) {
+                names.add(games.getName(current.nameRows().firstRow(code)));
+            }
+            return names;
         }
+    }
+
+    /**
+     * Get the number of filters answered from the result cache.
+     *
+     * @return the cache hit count
+     */
+    public long getCacheHits() {
+        return store.current().getCacheHits();
+    }
 
-        return Sorting.sort(remainingGames, sortOn, ascending);
+    /**
+     * Get the number of filters that had to scan and sort.
+     *
+     * @return the cache miss count
+     */
+    public long getCacheMisses() {
+        return store.current().getCacheMisses();
     }
 
     /**
@@ -128,7 +543,72 @@ public class Planner implements IPlanner {
      * After a reset, any filters applied previously are discarded.
      */
     @Override
-    public void reset() {
-        this.remainingGames = games.stream();
+    public synchronized void reset() {
+        appliedFilters.clear();
+        history.clear();
+        try (CatalogStore.Snapshot snapshot = store.acquire()) {
+            remainingRows = snapshot.getCatalog().getIndexes().allRows();
+            version = snapshot.getVersion();
+        }
+    }
+
+    /**
+     * Takes back the last filter applied since the reset, restoring the rows it started from.
+     * Nothing is scanned, the rows before each filter are kept.
+     *
+     * @return true if a filter was taken back, false if none had been applied
+     */
+    public synchronized boolean undo() {
+        if (appliedFilters.isEmpty()) {
+            return false;
+        }
+        // catches the history up with the newest catalog before taking a step back
+        pin().close();
+        appliedFilters.remove(appliedFilters.size() - 1);
+        remainingRows = history.pop();
+        return true;
+    }
+
+    /**
+     * Gets the games currently in the collection.
+     *
+     * @return a new set holding every game
+     */
+    public Set<BoardGame> getGames() {
+        try (CatalogStore.Snapshot snapshot = store.acquire()) {
+            return snapshot.getCatalog().getTable().toBoardGames();
+        }
+    }
+
+    /**
+     * Get the current catalog version.
+     *
+     * @return the current catalog of the store
+     */
+    public Catalog getCatalog() {
+        return store.current();
+    }
+
+    /**
+     * Get the store holding the catalog versions.
+     *
+     * @return the store, shared with any session built on it
+     */
+    public CatalogStore getStore() {
+        return store;
+    }
+
+    /**
+     * Applies inserts, updates and deletes to the collection, publishing a new catalog version
+     * to the store, see {@link CatalogStore#applyDelta(GameDelta)}.
+     *
+     * Queries already running finish on the version they pinned. The filters applied since the
+     * last reset are applied again to the new version, so the next filter builds on the updated
+     * games, and undo steps back through the updated games too.
+     *
+     * @param delta the changes to apply
+     */
+    public void applyDelta(GameDelta delta) {
+        store.applyDelta(delta);
     }
 }
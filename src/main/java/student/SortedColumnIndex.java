@@ -0,0 +1,268 @@
+package student;
+
+import java.util.Arrays;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * A secondary index over one numeric column: the row ids sorted by their value.
+ *
+ * The rows matching a range predicate ({@code <, <=, >, >=, ==}) sit next to each other in
+ * the index, so finding them takes two binary searches, and counting them is just as cheap.
+ * {@code !=} is not served, it matches nearly everything.
+ *
+ * The index also keeps the prefix sums of the sorted values, so once the range is found its
+ * sum, min and max take constant time too, see {@link #summarize(Operations, double)}.
+ */
+public final class SortedColumnIndex {
+    /** The values of an int column, sorted, or null if the column holds doubles. */
+    private final int[] intValues;
+    /** The values of a double column, sorted, or null if the column holds ints. */
+    private final double[] doubleValues;
+    /** The row id of each value, rows with the same value in row order. */
+    private final int[] rows;
+    /** The sum of the first i values at position i, one more position than there are rows. */
+    private final double[] prefixSums;
+    /** The number of rows left out of the index because their value is NaN. */
+    private final int nanRows;
+
+    /**
+     * Constructor for the index.
+     *
+     * @param intValues    the sorted values of an int column, or null
+     * @param doubleValues the sorted values of a double column, or null
+     * @param rows         the row id of each value
+     * @param nanRows      the number of rows left out as NaN
+     */
+    private SortedColumnIndex(int[] intValues, double[] doubleValues, int[] rows, int nanRows) {
+        this.intValues = intValues;
+        this.doubleValues = doubleValues;
+        this.rows = rows;
+        this.nanRows = nanRows;
+        this.prefixSums = new double[rows.length + 1];
+        for (int i = 0; i < rows.length; i++) {
+            prefixSums[i + 1] = prefixSums[i] + valueAt(i);
+        }
+    }
+
+    /**
+     * Builds the index for a numeric column of a table.
+     *
+     * Both kinds of column are sorted without boxing. Int values go in the high half of a long
+     * with the row id in the low half, so one primitive sort does both. Doubles are turned into
+     * longs that sort in the same order, and the row ids are sorted by them. NaN never matches
+     * a comparison, so rows holding it are left out of the index.
+     *
+     * @param table  the table
+     * @param column a numeric column
+     * @return the index
+     * @throws IllegalArgumentException if the column is not numeric
+     */
+    public static SortedColumnIndex build(IGameTable table, GameData column) {
+        int size = table.size();
+        IntUnaryOperator ints = table.intColumn(column);
+        if (ints != null) {
+            long[] keys = new long[size];
+            for (int row = 0; row < size; row++) {
+                keys[row] = (long) ints.applyAsInt(row) << Integer.SIZE | row;
+            }
+            Arrays.sort(keys);
+            int[] values = new int[size];
+            int[] rows = new int[size];
+            for (int i = 0; i < size; i++) {
+                rows[i] = (int) keys[i];
+                values[i] = (int) (keys[i] >> Integer.SIZE);
+            }
+            return new SortedColumnIndex(values, null, rows, 0);
+        }
+        IntToDoubleFunction doubles = table.doubleColumn(column);
+        if (doubles == null) {
+            throw new IllegalArgumentException("The column " + column.getColumnName() + " is not numeric");
+        }
+        long[] keys = new long[size];
+        int[] rows = new int[size];
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            double value = doubles.applyAsDouble(row);
+            if (!Double.isNaN(value)) {
+                keys[row] = sortableBits(value);
+                rows[count++] = row;
+            }
+        }
+        rows = Arrays.copyOf(rows, count);
+        Sorting.mergeSort(rows, (a, b) -> Long.compare(keys[a], keys[b]));
+        double[] values = new double[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = doubles.applyAsDouble(rows[i]);
+        }
+        return new SortedColumnIndex(null, values, rows, size - count);
+    }
+
+    /**
+     * Turns a double into a long that compares the same way as Double.compare. Negative
+     * doubles have every bit but the sign flipped, as their bits grow the smaller they are.
+     *
+     * @param value the value, not NaN
+     * @return the sortable bits
+     */
+    private static long sortableBits(double value) {
+        long bits = Double.doubleToLongBits(value);
+        return bits ^ ((bits >> (Long.SIZE - 1)) & Long.MAX_VALUE);
+    }
+
+    /**
+     * Checks if the index can answer an operation.
+     *
+     * @param op the operation
+     * @return true for the range operations and EQUALS
+     */
+    public static boolean supports(Operations op) {
+        return op != Operations.NOT_EQUALS && op != Operations.CONTAINS;
+    }
+
+    /**
+     * Finds the first position whose value is greater than or equal to the given value.
+     *
+     * @param value the value
+     * @return the position, or the number of rows if every value is smaller
+     */
+    public int lowerBound(double value) {
+        int low = 0;
+        int high = rows.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (valueAt(mid) < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Finds the first position whose value is greater than the given value.
+     *
+     * @param value the value
+     * @return the position, or the number of rows if no value is greater
+     */
+    public int upperBound(double value) {
+        int low = 0;
+        int high = rows.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (valueAt(mid) <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Finds the positions in the index that match a predicate.
+     *
+     * @param op    the operation, see {@link #supports(Operations)}
+     * @param value the value to compare against
+     * @return the first matching position and the position after the last one
+     * @throws IllegalArgumentException if the operation is not supported
+     */
+    private int[] range(Operations op, double value) {
+        if (Double.isNaN(value) && supports(op)) {
+            // no value compares true with NaN, and both bounds of NaN would be 0
+            return new int[] {0, 0};
+        }
+        return switch (op) {
+            case EQUALS -> new int[] {lowerBound(value), upperBound(value)};
+            case LESS_THAN -> new int[] {0, lowerBound(value)};
+            case LESS_THAN_EQUALS -> new int[] {0, upperBound(value)};
+            case GREATER_THAN -> new int[] {upperBound(value), rows.length};
+            case GREATER_THAN_EQUALS -> new int[] {lowerBound(value), rows.length};
+            default -> throw new IllegalArgumentException("The index can't answer " + op.getOperator());
+        };
+    }
+
+    /**
+     * Counts the rows that match a predicate, without reading them.
+     *
+     * @param op    the operation, see {@link #supports(Operations)}
+     * @param value the value to compare against
+     * @return the number of matching rows
+     */
+    public int count(Operations op, double value) {
+        int[] range = range(op, value);
+        return range[1] - range[0];
+    }
+
+    /**
+     * Summarizes the values of the rows that match a predicate, without reading them.
+     *
+     * @param op    the operation, see {@link #supports(Operations)}
+     * @param value the value to compare against
+     * @return the count, sum, min and max of the matching values
+     */
+    public ColumnSummary summarize(Operations op, double value) {
+        int[] range = range(op, value);
+        return summarize(range[0], range[1]);
+    }
+
+    /**
+     * Summarizes the whole column. Like a scan, any NaN value makes the sum, min and max NaN.
+     *
+     * @return the count, sum, min and max of every value
+     */
+    public ColumnSummary summarize() {
+        if (nanRows > 0) {
+            return new ColumnSummary(rows.length + nanRows, Double.NaN, Double.NaN, Double.NaN);
+        }
+        return summarize(0, rows.length);
+    }
+
+    /**
+     * Summarizes a range of positions from the prefix sums.
+     *
+     * @param from the first position
+     * @param to   the position after the last one
+     * @return the summary of the values in the range
+     */
+    private ColumnSummary summarize(int from, int to) {
+        if (from >= to) {
+            return new ColumnSummary(0, 0, Double.NaN, Double.NaN);
+        }
+        return new ColumnSummary(to - from, prefixSums[to] - prefixSums[from], valueAt(from), valueAt(to - 1));
+    }
+
+    /**
+     * Gets the rows that match a predicate.
+     *
+     * @param op    the operation, see {@link #supports(Operations)}
+     * @param value the value to compare against
+     * @return the matching row ids, in row order
+     */
+    public int[] select(Operations op, double value) {
+        int[] range = range(op, value);
+        int[] selected = Arrays.copyOfRange(rows, range[0], range[1]);
+        Arrays.sort(selected);
+        return selected;
+    }
+
+    /**
+     * Get the value at a position of the index.
+     *
+     * @param position the position, from 0 to size() - 1
+     * @return the value, values are ascending by position
+     */
+    public double valueAt(int position) {
+        return intValues != null ? intValues[position] : doubleValues[position];
+    }
+
+    /**
+     * Get the number of rows, not counting the ones left out as NaN.
+     *
+     * @return the number of rows in the index
+     */
+    public int size() {
+        return rows.length;
+    }
+}
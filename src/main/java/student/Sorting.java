@@ -1,6 +1,12 @@
 package student;
 
-import java.util.Comparator;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntUnaryOperator;
 import java.util.stream.Stream;
 /**
  * A utility class that provides sorting functionality for BoardGame objects
@@ -13,7 +19,10 @@ public final class Sorting {
 
     /**
      * Sorts a stream of BoardGame objects by the specified game data attribute.
-     * The sorting is performed by comparing the string representation of each
+     * Numeric columns compare as numbers, so rank 9 comes before rank 10, and names compare
+     * in lower case. Games with the same value are ordered by their lower case name, in
+     * ascending order whatever the sort direction. The key of each game is built once, before
+     * sorting.
      *
      * @param games     the stream of BoardGame objects to be sorted
      * @param sortOn    the attribute column to sort by
@@ -21,15 +30,392 @@ public final class Sorting {
      * @return a new Stream<BoardGame> that is sorted according to the specified parameters
      */
     public static Stream<BoardGame> sort(Stream<BoardGame> games, GameData sortOn, boolean ascending) {
-        // Build a comparator based on the `sortOn` logic
-        Comparator<BoardGame> comparator =
-                Comparator.comparing((BoardGame g) -> g.toStringWithInfo(sortOn).toLowerCase());
+        List<BoardGame> list = games.toList();
+        Keys keys = new Keys(sortOn, list.size());
+        for (int i = 0; i < list.size(); i++) {
+            BoardGame game = list.get(i);
+            keys.set(i, sortOn == GameData.NAME ? 0 : value(game, sortOn), game.getName());
+        }
+        return Arrays.stream(keys.sort(ascending)).mapToObj(list::get);
+    }
+
+    /**
+     * Sorts row ids of a game table the same way {@link #sort(Stream, GameData, boolean)} sorts
+     * their games. The sort key of each row is built once, before sorting.
+     *
+     * @param table     the table the row ids belong to
+     * @param rows      the row ids to sort, not changed
+     * @param sortOn    the attribute column to sort by
+     * @param ascending if true, sort in ascending order; otherwise, sort in descending order
+     * @return a new array of the row ids in sorted order
+     */
+    public static int[] sortRows(IGameTable table, int[] rows, GameData sortOn, boolean ascending) {
+        Keys keys = new Keys(sortOn, rows.length);
+        keys.fill(table, rows, 0, rows.length);
+        int[] order = keys.sort(ascending);
+
+        int[] sorted = new int[rows.length];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = rows[order[i]];
+        }
+        return sorted;
+    }
+
+    /**
+     * Picks the first rows in sort order without sorting the rest, keeping the best k in a
+     * bounded heap, which takes O(n log k) instead of O(n log n). Rows with the same keys
+     * are ordered by row id, which is the order {@link #sortRows(IGameTable, int[], GameData, boolean)}
+     * leaves them in when given ascending row ids.
+     *
+     * @param table     the table the row ids belong to
+     * @param rows      the row ids to pick from, ascending, not changed
+     * @param sortOn    the attribute column to sort by
+     * @param ascending if true, sort in ascending order; otherwise, sort in descending order
+     * @param k         the most rows to pick
+     * @param after     only pick the rows after this key, or null to start from the first row;
+     *                  its sort column and direction must be sortOn and ascending
+     * @return the picked row ids, in sorted order
+     */
+    static int[] topRows(IGameTable table, int[] rows, GameData sortOn, boolean ascending, int k,
+                         PageCursor after) {
+        if (k <= 0 || rows.length == 0) {
+            return new int[0];
+        }
+        Keys keys = new Keys(sortOn, rows.length);
+        keys.fill(table, rows, 0, rows.length);
+        IntBinaryOperator byKeys = keys.order(ascending);
+        IntBinaryOperator order = (a, b) -> {
+            int compare = byKeys.applyAsInt(a, b);
+            return compare != 0 ? compare : Integer.compare(rows[a], rows[b]);
+        };
+        // a heap of positions with the worst of the best k so far on top, ready to be replaced
+        int[] best = new int[Math.min(k, rows.length)];
+        int size = 0;
+        for (int i = 0; i < rows.length; i++) {
+            if (after != null && keys.compareTo(i, rows[i], after) <= 0) {
+                continue;
+            }
+            if (size < best.length) {
+                best[size] = i;
+                siftUp(best, size++, order);
+            } else if (order.applyAsInt(i, best[0]) < 0) {
+                best[0] = i;
+                siftDown(best, size, order);
+            }
+        }
+        int[] picked = Arrays.copyOf(best, size);
+        mergeSort(picked, order);
+        int[] top = new int[picked.length];
+        for (int i = 0; i < top.length; i++) {
+            top[i] = rows[picked[i]];
+        }
+        return top;
+    }
+
+    /**
+     * Moves the last entry of a heap up to its place, the entry coming last in the order
+     * being on top.
+     *
+     * @param heap  the heap
+     * @param at    the position of the entry, the heap ends after it
+     * @param order compares two entries
+     */
+    private static void siftUp(int[] heap, int at, IntBinaryOperator order) {
+        while (at > 0) {
+            int parent = (at - 1) >>> 1;
+            if (order.applyAsInt(heap[at], heap[parent]) <= 0) {
+                return;
+            }
+            swap(heap, at, parent);
+            at = parent;
+        }
+    }
+
+    /**
+     * Moves the top entry of a heap down to its place, the entry coming last in the order
+     * being on top.
+     *
+     * @param heap  the heap
+     * @param size  the number of entries in the heap
+     * @param order compares two entries
+     */
+    private static void siftDown(int[] heap, int size, IntBinaryOperator order) {
+        int at = 0;
+        for (int child = 1; child < size; child = 2 * at + 1) {
+            if (child + 1 < size && order.applyAsInt(heap[child + 1], heap[child]) > 0) {
+                child++;
+            }
+            if (order.applyAsInt(heap[child], heap[at]) <= 0) {
+                return;
+            }
+            swap(heap, at, child);
+            at = child;
+        }
+    }
+
+    /**
+     * Swaps two entries of an array.
+     *
+     * @param values the array
+     * @param i      the first position
+     * @param j      the second position
+     */
+    private static void swap(int[] values, int i, int j) {
+        int value = values[i];
+        values[i] = values[j];
+        values[j] = value;
+    }
 
-        // If not ascending, reverse the comparator
-        if (!ascending) {
-            comparator = comparator.reversed();
+    /**
+     * Sorts row ids with a bottom up merge sort, which is stable and needs no boxing, for
+     * orders that do not fit in a packed long.
+     *
+     * @param rows  the row ids to sort
+     * @param order compares two row ids
+     */
+    static void mergeSort(int[] rows, IntBinaryOperator order) {
+        int[] from = rows;
+        int[] to = new int[rows.length];
+        for (int width = 1; width < rows.length; width *= 2) {
+            for (int lo = 0; lo < rows.length; lo += 2 * width) {
+                int mid = Math.min(lo + width, rows.length);
+                int hi = Math.min(lo + 2 * width, rows.length);
+                int i = lo;
+                int j = mid;
+                for (int k = lo; k < hi; k++) {
+                    to[k] = j >= hi || i < mid && order.applyAsInt(from[i], from[j]) <= 0 ? from[i++] : from[j++];
+                }
+            }
+            int[] swap = from;
+            from = to;
+            to = swap;
         }
+        if (from != rows) {
+            System.arraycopy(from, 0, rows, 0, rows.length);
+        }
+    }
 
-        return games.sorted(comparator);
+    /**
+     * Sorts the longs of a buffer, from 0 to its limit. A buffer backed by an array is sorted
+     * with Arrays.sort, a direct one in place with a heap sort, so it is never copied to the heap.
+     *
+     * @param values the values to sort
+     */
+    static void sort(LongBuffer values) {
+        int size = values.limit();
+        if (values.hasArray()) {
+            Arrays.sort(values.array(), values.arrayOffset(), values.arrayOffset() + size);
+            return;
+        }
+        for (int at = size / 2 - 1; at >= 0; at--) {
+            siftDown(values, at, size);
+        }
+        for (int end = size - 1; end > 0; end--) {
+            long top = values.get(0);
+            values.put(0, values.get(end));
+            values.put(end, top);
+            siftDown(values, 0, end);
+        }
+    }
+
+    /**
+     * Sorts the row ids of a buffer in place with a heap sort, from 0 to its limit. It needs no
+     * scratch space, so a direct buffer is sorted without copying it to the heap, but unlike
+     * {@link #mergeSort(int[], IntBinaryOperator)} it is not stable.
+     *
+     * @param rows  the row ids to sort
+     * @param order compares two row ids
+     */
+    static void heapSort(IntBuffer rows, IntBinaryOperator order) {
+        int size = rows.limit();
+        for (int at = size / 2 - 1; at >= 0; at--) {
+            siftDown(rows, at, size, order);
+        }
+        for (int end = size - 1; end > 0; end--) {
+            int top = rows.get(0);
+            rows.put(0, rows.get(end));
+            rows.put(end, top);
+            siftDown(rows, 0, end, order);
+        }
+    }
+
+    /**
+     * Moves an entry of a buffer heap down to its place, the largest value being on top.
+     *
+     * @param heap the heap
+     * @param at   the position of the entry
+     * @param size the number of entries in the heap
+     */
+    private static void siftDown(LongBuffer heap, int at, int size) {
+        long value = heap.get(at);
+        for (int child = 2 * at + 1; child < size; child = 2 * at + 1) {
+            if (child + 1 < size && heap.get(child + 1) > heap.get(child)) {
+                child++;
+            }
+            if (heap.get(child) <= value) {
+                break;
+            }
+            heap.put(at, heap.get(child));
+            at = child;
+        }
+        heap.put(at, value);
+    }
+
+    /**
+     * Moves an entry of a buffer heap down to its place, the entry coming last in the order
+     * being on top.
+     *
+     * @param heap  the heap
+     * @param at    the position of the entry
+     * @param size  the number of entries in the heap
+     * @param order compares two entries
+     */
+    private static void siftDown(IntBuffer heap, int at, int size, IntBinaryOperator order) {
+        int value = heap.get(at);
+        for (int child = 2 * at + 1; child < size; child = 2 * at + 1) {
+            if (child + 1 < size && order.applyAsInt(heap.get(child + 1), heap.get(child)) > 0) {
+                child++;
+            }
+            if (order.applyAsInt(heap.get(child), value) <= 0) {
+                break;
+            }
+            heap.put(at, heap.get(child));
+            at = child;
+        }
+        heap.put(at, value);
+    }
+
+    /**
+     * Gets the value of a numeric column of a game.
+     *
+     * @param game   the game
+     * @param column a column other than NAME
+     * @return the value, ints widened to doubles
+     */
+    private static double value(BoardGame game, GameData column) {
+        return switch (column) {
+            case ID -> game.getId();
+            case RATING -> game.getRating();
+            case DIFFICULTY -> game.getDifficulty();
+            case RANK -> game.getRank();
+            case MIN_PLAYERS -> game.getMinPlayers();
+            case MAX_PLAYERS -> game.getMaxPlayers();
+            case MIN_TIME -> game.getMinPlayTime();
+            case MAX_TIME -> game.getMaxPlayTime();
+            case YEAR -> game.getYearPublished();
+            default -> throw new IllegalArgumentException("The column " + column.getColumnName() + " is not numeric");
+        };
+    }
+
+    /**
+     * The sort keys of a list of positions: the value of the sort column, unless it is NAME,
+     * and the lower case name that breaks ties. Used by {@link #sortRows(IGameTable, int[], GameData, boolean)}
+     * and the parallel sort in {@link ParallelExecutor}, whose leaves fill in their own ranges.
+     */
+    static final class Keys {
+        /** The sort column value of each position, null when sorting on NAME. */
+        private final double[] values;
+        /** The lower case name of each position. */
+        private final String[] names;
+        /** The column to sort on. */
+        private final GameData sortOn;
+
+        /**
+         * Constructor for empty keys.
+         *
+         * @param sortOn the column to sort on
+         * @param size   the number of positions
+         */
+        Keys(GameData sortOn, int size) {
+            this.sortOn = sortOn;
+            this.values = sortOn == GameData.NAME ? null : new double[size];
+            this.names = new String[size];
+        }
+
+        /**
+         * Sets the key of a position.
+         *
+         * @param position the position
+         * @param value    the value of the sort column, ignored when sorting on NAME
+         * @param name     the name
+         */
+        void set(int position, double value, String name) {
+            if (values != null) {
+                values[position] = value;
+            }
+            names[position] = name.toLowerCase();
+        }
+
+        /**
+         * Reads the keys of a range of rows from a table, the column is looked up once.
+         *
+         * @param table the table the row ids belong to
+         * @param rows  the row ids, the key of rows[i] goes at position i
+         * @param from  the first position to fill
+         * @param to    the position after the last one
+         */
+        void fill(IGameTable table, int[] rows, int from, int to) {
+            IntUnaryOperator ints = values == null ? null : table.intColumn(sortOn);
+            IntToDoubleFunction doubles = values == null || ints != null ? null : table.doubleColumn(sortOn);
+            for (int i = from; i < to; i++) {
+                int row = rows[i];
+                double value = ints != null ? ints.applyAsInt(row) : doubles != null ? doubles.applyAsDouble(row) : 0;
+                set(i, value, table.getName(row));
+            }
+        }
+
+        /**
+         * Get the order of positions by their keys. Ties on the sort column are broken by the
+         * ascending name; ties on both keep their order when used with a stable sort.
+         *
+         * @param ascending if true, sort in ascending order; otherwise, sort in descending order
+         * @return compares two positions, for {@link Sorting#mergeSort(int[], IntBinaryOperator)}
+         */
+        IntBinaryOperator order(boolean ascending) {
+            if (values == null) {
+                return ascending ? (a, b) -> names[a].compareTo(names[b]) : (a, b) -> names[b].compareTo(names[a]);
+            }
+            return (a, b) -> {
+                int compare = ascending ? Double.compare(values[a], values[b]) : Double.compare(values[b], values[a]);
+                return compare != 0 ? compare : names[a].compareTo(names[b]);
+            };
+        }
+
+        /**
+         * Compares the key of a position with the key a cursor ends at, in the cursor's order.
+         *
+         * @param position the position
+         * @param row      the row id at the position, the last tie-breaker
+         * @param cursor   the cursor
+         * @return negative if the position comes before the cursor's key, 0 if it is the same
+         *         row, positive if it comes after
+         */
+        int compareTo(int position, int row, PageCursor cursor) {
+            int compare = 0;
+            if (values != null) {
+                compare = Double.compare(values[position], cursor.getValue());
+                compare = cursor.isAscending() ? compare : -compare;
+            }
+            if (compare == 0) {
+                compare = names[position].compareTo(cursor.getName());
+                compare = values != null || cursor.isAscending() ? compare : -compare;
+            }
+            return compare != 0 ? compare : Integer.compare(row, cursor.getRow());
+        }
+
+        /**
+         * Sorts every position by the keys, which must all be set.
+         *
+         * @param ascending if true, sort in ascending order; otherwise, sort in descending order
+         * @return the positions in sorted order
+         */
+        int[] sort(boolean ascending) {
+            int[] order = new int[names.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            mergeSort(order, order(ascending));
+            return order;
+        }
     }
 }
@@ -0,0 +1,188 @@
+package student;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+/**
+ * An inverted index from the three character substrings (trigrams) of the normalized names
+ * to the names that contain them, for {@code name~=} filters.
+ *
+ * A name can only contain the filter value if it contains every trigram of the value, so
+ * intersecting the posting lists of those trigrams gives a small set of candidates, and only
+ * the candidates are checked with String.contains. Posting lists hold {@link NameDictionary}
+ * codes, so a name shared by several rows is indexed and checked once.
+ *
+ * Values shorter than a trigram have nothing to look up, see {@link #supports(String)}.
+ */
+public final class TrigramIndex {
+    /** The length of a gram. */
+    public static final int GRAM = 3;
+
+    /** The names being indexed. */
+    private final NameDictionary dictionary;
+    /** The codes of the names holding each trigram, ascending. */
+    private final Map<Long, int[]> postings;
+    /** The rows of each code. */
+    private final NameCodeRows rows;
+
+    /**
+     * Constructor for the index.
+     *
+     * @param dictionary the names being indexed
+     * @param postings   the codes of each trigram
+     * @param rows       the rows of each code
+     */
+    private TrigramIndex(NameDictionary dictionary, Map<Long, int[]> postings, NameCodeRows rows) {
+        this.dictionary = dictionary;
+        this.postings = postings;
+        this.rows = rows;
+    }
+
+    /**
+     * Builds the index over the name dictionary of a table.
+     *
+     * @param table the table
+     * @param rows  the table's rows grouped by name code
+     * @return the index
+     */
+    public static TrigramIndex build(IGameTable table, NameCodeRows rows) {
+        NameDictionary dictionary = table.getNameDictionary();
+        Map<Long, int[]> lists = new HashMap<>();
+        Map<Long, Integer> sizes = new HashMap<>();
+        for (int code = 0; code < dictionary.size(); code++) {
+            String name = dictionary.get(code);
+            for (int i = 0; i + GRAM <= name.length(); i++) {
+                long gram = gram(name, i);
+                int size = sizes.getOrDefault(gram, 0);
+                int[] list = lists.get(gram);
+                if (list == null) {
+                    list = new int[2];
+                    lists.put(gram, list);
+                } else if (list[size - 1] == code) {
+                    continue; // the trigram is in the name more than once
+                } else if (size == list.length) {
+                    list = Arrays.copyOf(list, size * 2);
+                    lists.put(gram, list);
+                }
+                list[size] = code;
+                sizes.put(gram, size + 1);
+            }
+        }
+        Map<Long, int[]> postings = new HashMap<>(lists.size() * 4 / 3 + 1);
+        lists.forEach((gram, list) -> postings.put(gram, Arrays.copyOf(list, sizes.get(gram))));
+        return new TrigramIndex(dictionary, postings, rows);
+    }
+
+    /**
+     * Packs the trigram starting at a position into a long.
+     *
+     * @param text the text
+     * @param at   the position of the first character
+     * @return the trigram key
+     */
+    private static long gram(String text, int at) {
+        return (long) text.charAt(at) << 32 | (long) text.charAt(at + 1) << 16 | text.charAt(at + 2);
+    }
+
+    /**
+     * Checks if the index can answer a contains filter.
+     *
+     * @param text the value to look for
+     * @return true if the value is at least one trigram long
+     */
+    public static boolean supports(String text) {
+        return text.length() >= GRAM;
+    }
+
+    /**
+     * Finds the names holding every trigram of a value, by intersecting the posting lists
+     * from the shortest up. The names are not checked.
+     *
+     * @param text the value to look for, at least one trigram long
+     * @return the candidate codes, ascending
+     */
+    public int[] candidates(String text) {
+        int[][] lists = new int[text.length() - GRAM + 1][];
+        for (int i = 0; i < lists.length; i++) {
+            lists[i] = postings.get(gram(text, i));
+            if (lists[i] == null) {
+                return new int[0];
+            }
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.length, b.length));
+        int[] found = lists[0].clone();
+        for (int i = 1; i < lists.length && found.length > 0; i++) {
+            if (lists[i] != lists[i - 1]) {
+                found = intersect(found, lists[i]);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Gets an upper bound on the number of names containing a value, the length of its
+     * shortest posting list, without intersecting anything.
+     *
+     * @param text the value to look for, at least one trigram long
+     * @return the most names that can contain it
+     */
+    public int estimate(String text) {
+        int fewest = dictionary.size();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            int[] list = postings.get(gram(text, i));
+            fewest = Math.min(fewest, list == null ? 0 : list.length);
+        }
+        return fewest;
+    }
+
+    /**
+     * Intersects two ascending arrays.
+     *
+     * @param a ascending values
+     * @param b ascending values
+     * @return the values in both, ascending
+     */
+    private static int[] intersect(int[] a, int[] b) {
+        int[] both = new int[Math.min(a.length, b.length)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                both[count++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(both, count);
+    }
+
+    /**
+     * Gets the rows whose normalized name contains a value.
+     *
+     * @param text the value to look for, in lower case, at least one trigram long
+     * @return the matching rows
+     * @throws IllegalArgumentException if the value is shorter than a trigram
+     */
+    public CompressedBitmap select(String text) {
+        if (!supports(text)) {
+            throw new IllegalArgumentException("Can't look up less than " + GRAM + " characters: " + text);
+        }
+        int[] candidates = candidates(text);
+        IntPredicate containing = dictionary.containing(text);
+        int total = 0;
+        for (int i = 0; i < candidates.length; i++) {
+            int code = candidates[i];
+            if (containing.test(code)) {
+                candidates[total++] = code;
+            }
+        }
+        return rows.rows(candidates, total);
+    }
+}
@@ -0,0 +1,350 @@
+package student;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntUnaryOperator;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Numeric filters evaluated a vector of rows at a time, with the jdk.incubator.vector API.
+ *
+ * Each method compares a whole column against the value and returns a selection bitmask,
+ * bit {@code row & 63} of word {@code row >>> 6} set for each matching row. A compare of
+ * one vector covers as many rows as the CPU has lanes, and its mask is or-ed into the
+ * selection in one step, so a full column scan has no per row branch or lambda call.
+ * Rows past the last whole vector are checked one at a time.
+ *
+ * Columns held in buffers are bulk copied into a reused array a chunk at a time, and the
+ * vectors are loaded from that array, as the buffer loads of the vector API changed between
+ * JDK versions while the array loads did not.
+ *
+ * The result is the same as {@link Filters#numberFilter(IGameTable, GameData, Operations, double)}.
+ * Int columns are compared against a double there, so here the value is first turned into
+ * the int bound that gives the same answer.
+ */
+public final class VectorFilters {
+    /** The int vector shape of this CPU. */
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    /** The double vector shape of this CPU. */
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    /** Values beyond this are clamped before rounding, far outside the int range. */
+    private static final double CLAMP = 0x1p40;
+    /** Vectors copied out of a buffer column at a time. */
+    private static final int CHUNK_VECTORS = 256;
+
+    /**
+     * Private constructor, all methods are static.
+     */
+    private VectorFilters() {
+    }
+
+    /**
+     * Get the number of words of a bitmask.
+     *
+     * @param size the number of rows
+     * @return the number of longs needed for one bit per row
+     */
+    public static int words(int size) {
+        return (size + Long.SIZE - 1) >>> 6;
+    }
+
+    /**
+     * Compares an int column held in an array.
+     *
+     * @param values the column
+     * @param op     the comparison, not CONTAINS
+     * @param number the value to compare against
+     * @return the selection bitmask
+     */
+    public static long[] select(int[] values, Operations op, double number) {
+        return selectInts(values.length, row -> IntVector.fromArray(INTS, values, row), row -> values[row], op, number);
+    }
+
+    /**
+     * Compares an int column held in a buffer.
+     *
+     * @param values the column, one int per row from position 0, in the buffer's byte order
+     * @param size   the number of rows
+     * @param op     the comparison, not CONTAINS
+     * @param number the value to compare against
+     * @return the selection bitmask
+     */
+    public static long[] selectInts(ByteBuffer values, int size, Operations op, double number) {
+        return selectInts(size, new IntChunks(values.asIntBuffer(), size), row -> values.getInt(row * Integer.BYTES),
+                op, number);
+    }
+
+    /**
+     * Compares a double column held in an array.
+     *
+     * @param values the column
+     * @param op     the comparison, not CONTAINS
+     * @param number the value to compare against
+     * @return the selection bitmask
+     */
+    public static long[] select(double[] values, Operations op, double number) {
+        return selectDoubles(values.length, row -> DoubleVector.fromArray(DOUBLES, values, row),
+                row -> values[row], op, number);
+    }
+
+    /**
+     * Compares a double column held in a buffer.
+     *
+     * @param values the column, one double per row from position 0, in the buffer's byte order
+     * @param size   the number of rows
+     * @param op     the comparison, not CONTAINS
+     * @param number the value to compare against
+     * @return the selection bitmask
+     */
+    public static long[] selectDoubles(ByteBuffer values, int size, Operations op, double number) {
+        return selectDoubles(size, new DoubleChunks(values.asDoubleBuffer(), size),
+                row -> values.getDouble(row * Double.BYTES), op, number);
+    }
+
+    /**
+     * Builds a selection bitmask by testing each row, for columns with no vector path.
+     *
+     * @param size   the number of rows
+     * @param filter the test of one row
+     * @return the selection bitmask
+     */
+    public static long[] select(int size, IntPredicate filter) {
+        long[] mask = new long[words(size)];
+        for (int row = 0; row < size; row++) {
+            if (filter.test(row)) {
+                mask[row >>> 6] |= 1L << row;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Compares an int column, with the value turned into an int bound first.
+     *
+     * @param size   the number of rows
+     * @param load   loads the vector of rows starting at a row
+     * @param get    reads one row
+     * @param op     the comparison
+     * @param number the value to compare against
+     * @return the selection bitmask
+     */
+    private static long[] selectInts(int size, IntFunction<IntVector> load, IntUnaryOperator get,
+                                     Operations op, double number) {
+        if (Double.isNaN(number)) {
+            return op == Operations.NOT_EQUALS ? all(size) : new long[words(size)];
+        }
+        double clamped = Math.max(-CLAMP, Math.min(CLAMP, number));
+        long bound;
+        VectorOperators.Comparison test;
+        switch (op) {
+            case EQUALS, NOT_EQUALS -> {
+                if (number != Math.rint(number) || number < Integer.MIN_VALUE || number > Integer.MAX_VALUE) {
+                    return op == Operations.NOT_EQUALS ? all(size) : new long[words(size)];
+                }
+                bound = (long) number;
+                test = op == Operations.EQUALS ? VectorOperators.EQ : VectorOperators.NE;
+            }
+            // x < n and x <= n are x < some int, x > n and x >= n are x >= some int
+            case LESS_THAN -> {
+                bound = (long) Math.ceil(clamped);
+                test = VectorOperators.LT;
+            }
+            case LESS_THAN_EQUALS -> {
+                bound = (long) Math.floor(clamped) + 1;
+                test = VectorOperators.LT;
+            }
+            case GREATER_THAN -> {
+                bound = (long) Math.floor(clamped) + 1;
+                test = VectorOperators.GE;
+            }
+            case GREATER_THAN_EQUALS -> {
+                bound = (long) Math.ceil(clamped);
+                test = VectorOperators.GE;
+            }
+            default -> throw new IllegalArgumentException("Invalid operation: " + op);
+        }
+        if (bound > Integer.MAX_VALUE) {
+            return test == VectorOperators.LT ? all(size) : new long[words(size)];
+        }
+        if (bound <= Integer.MIN_VALUE && test != VectorOperators.EQ && test != VectorOperators.NE) {
+            return test == VectorOperators.LT ? new long[words(size)] : all(size);
+        }
+        int limit = (int) bound;
+        long[] mask = new long[words(size)];
+        int lanes = INTS.length();
+        int upper = INTS.loopBound(size);
+        int row = 0;
+        for (; row < upper; row += lanes) {
+            // lanes is a power of two, so a vector's bits never straddle two words
+            mask[row >>> 6] |= load.apply(row).compare(test, limit).toLong() << row;
+        }
+        for (; row < size; row++) {
+            int value = get.applyAsInt(row);
+            boolean match;
+            if (test == VectorOperators.EQ) {
+                match = value == limit;
+            } else if (test == VectorOperators.NE) {
+                match = value != limit;
+            } else if (test == VectorOperators.LT) {
+                match = value < limit;
+            } else {
+                match = value >= limit;
+            }
+            if (match) {
+                mask[row >>> 6] |= 1L << row;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Compares a double column.
+     *
+     * @param size   the number of rows
+     * @param load   loads the vector of rows starting at a row
+     * @param get    reads one row
+     * @param op     the comparison
+     * @param number the value to compare against
+     * @return the selection bitmask
+     */
+    private static long[] selectDoubles(int size, IntFunction<DoubleVector> load, IntToDoubleFunction get,
+                                        Operations op, double number) {
+        VectorOperators.Comparison test = switch (op) {
+            case EQUALS -> VectorOperators.EQ;
+            case NOT_EQUALS -> VectorOperators.NE;
+            case GREATER_THAN -> VectorOperators.GT;
+            case LESS_THAN -> VectorOperators.LT;
+            case GREATER_THAN_EQUALS -> VectorOperators.GE;
+            case LESS_THAN_EQUALS -> VectorOperators.LE;
+            default -> throw new IllegalArgumentException("Invalid operation: " + op);
+        };
+        long[] mask = new long[words(size)];
+        int lanes = DOUBLES.length();
+        int upper = DOUBLES.loopBound(size);
+        int row = 0;
+        for (; row < upper; row += lanes) {
+            mask[row >>> 6] |= load.apply(row).compare(test, number).toLong() << row;
+        }
+        for (; row < size; row++) {
+            double value = get.applyAsDouble(row);
+            boolean match = switch (op) {
+                case EQUALS -> value == number;
+                case NOT_EQUALS -> value != number;
+                case GREATER_THAN -> value > number;
+                case LESS_THAN -> value < number;
+                case GREATER_THAN_EQUALS -> value >= number;
+                default -> value <= number;
+            };
+            if (match) {
+                mask[row >>> 6] |= 1L << row;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Builds the bitmask of every row.
+     *
+     * @param size the number of rows
+     * @return a bitmask with the first size bits set
+     */
+    private static long[] all(int size) {
+        long[] mask = new long[words(size)];
+        Arrays.fill(mask, -1L);
+        if ((size & 63) != 0) {
+            mask[mask.length - 1] = -1L >>> (Long.SIZE - (size & 63));
+        }
+        return mask;
+    }
+
+    /**
+     * Loads int vectors from a buffer column, copying it into a reused array a chunk at a time.
+     * The rows must be loaded in order, a vector apart.
+     */
+    private static final class IntChunks implements IntFunction<IntVector> {
+        /** The column. */
+        private final IntBuffer values;
+        /** The number of rows. */
+        private final int size;
+        /** The rows of the current chunk. */
+        private final int[] chunk = new int[INTS.length() * CHUNK_VECTORS];
+        /** The row the current chunk starts at. */
+        private int start = -chunk.length;
+
+        /**
+         * Constructor for the loader.
+         *
+         * @param values the column
+         * @param size   the number of rows
+         */
+        IntChunks(IntBuffer values, int size) {
+            this.values = values;
+            this.size = size;
+        }
+
+        /**
+         * Loads the vector of rows starting at a row, copying the next chunk first if needed.
+         *
+         * @param row the first row of the vector
+         * @return the vector
+         */
+        @Override
+        public IntVector apply(int row) {
+            if (row - start >= chunk.length) {
+                start = row;
+                values.get(row, chunk, 0, Math.min(chunk.length, size - row));
+            }
+            return IntVector.fromArray(INTS, chunk, row - start);
+        }
+    }
+
+    /**
+     * Loads double vectors from a buffer column, copying it into a reused array a chunk at a time.
+     * The rows must be loaded in order, a vector apart.
+     */
+    private static final class DoubleChunks implements IntFunction<DoubleVector> {
+        /** The column. */
+        private final DoubleBuffer values;
+        /** The number of rows. */
+        private final int size;
+        /** The rows of the current chunk. */
+        private final double[] chunk = new double[DOUBLES.length() * CHUNK_VECTORS];
+        /** The row the current chunk starts at. */
+        private int start = -chunk.length;
+
+        /**
+         * Constructor for the loader.
+         *
+         * @param values the column
+         * @param size   the number of rows
+         */
+        DoubleChunks(DoubleBuffer values, int size) {
+            this.values = values;
+            this.size = size;
+        }
+
+        /**
+         * Loads the vector of rows starting at a row, copying the next chunk first if needed.
+         *
+         * @param row the first row of the vector
+         * @return the vector
+         */
+        @Override
+        public DoubleVector apply(int row) {
+            if (row - start >= chunk.length) {
+                start = row;
+                values.get(row, chunk, 0, Math.min(chunk.length, size - row));
+            }
+            return DoubleVector.fromArray(DOUBLES, chunk, row - start);
+        }
+    }
+}
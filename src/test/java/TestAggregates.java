@@ -0,0 +1,96 @@
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import student.BoardGame;
+import student.ColumnSummary;
+import student.GameData;
+import student.GameIndexes;
+import student.GameTable;
+import student.GamesLoader;
+import student.Operations;
+import student.Planner;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestAggregates {
+    private static Set<BoardGame> games;
+
+    @BeforeAll
+    public static void setUp() {
+        games = GamesLoader.loadGamesFile("/collection.csv");
+    }
+
+    private static void assertSummary(List<BoardGame> matched, ToDoubleFunction<BoardGame> value,
+                                      ColumnSummary summary) {
+        assertEquals(matched.size(), summary.getCount());
+        assertEquals(matched.stream().mapToDouble(value).sum(), summary.getSum(), 1e-6);
+        if (matched.isEmpty()) {
+            assertTrue(Double.isNaN(summary.getMin()));
+            assertTrue(Double.isNaN(summary.getAverage()));
+        } else {
+            assertEquals(matched.stream().mapToDouble(value).min().getAsDouble(), summary.getMin());
+            assertEquals(matched.stream().mapToDouble(value).max().getAsDouble(), summary.getMax());
+            assertEquals(matched.stream().mapToDouble(value).average().getAsDouble(), summary.getAverage(), 1e-9);
+        }
+    }
+
+    @Test
+    public void testAggregatesMatchFilter() {
+        List<String> filters = List.of("", "year>2010", "rating<7.5", "minPlayers==2", "maxPlayers>=99",
+                "name~=a", "year>2000,rating>7", "rating>8|minplaytime<20");
+        for (String filter : filters) {
+            List<BoardGame> matched = new Planner(games).filter(filter).toList();
+            Planner planner = new Planner(games);
+            assertEquals(matched.size(), planner.count(filter), filter);
+            assertSummary(matched, BoardGame::getRating, planner.summarize(filter, GameData.RATING));
+            assertSummary(matched, BoardGame::getYearPublished, planner.summarize(filter, GameData.YEAR));
+            assertSummary(matched, BoardGame::getId, planner.summarize(filter, GameData.ID));
+        }
+    }
+
+    @Test
+    public void testAggregatesAfterRefinement() {
+        Planner planner = new Planner(games);
+        List<BoardGame> matched = planner.filter("minPlayers>2").toList();
+        List<BoardGame> older = matched.stream().filter(g -> g.getYearPublished() < 2015).toList();
+        assertEquals(matched.size(), planner.count(""));
+        assertEquals(older.size(), planner.count("year<2015"));
+        assertEquals(older.stream().mapToDouble(BoardGame::getYearPublished).max().getAsDouble(),
+                planner.max("year<2015", GameData.YEAR));
+        assertEquals(matched.stream().mapToDouble(BoardGame::getRating).min().getAsDouble(),
+                planner.min("", GameData.RATING));
+        // aggregating doesn't refine the session
+        assertEquals(matched.size(), planner.getRemainingRows().cardinality());
+    }
+
+    @Test
+    public void testSortedIndexSummary() {
+        GameTable table = new GameTable(games);
+        GameIndexes indexes = new GameIndexes(table);
+        for (Operations op : List.of(Operations.EQUALS, Operations.LESS_THAN, Operations.GREATER_THAN_EQUALS)) {
+            ColumnSummary summary = indexes.sortedIndex(GameData.MIN_TIME).summarize(op, 30);
+            List<BoardGame> matched = games.stream()
+                    .filter(g -> op == Operations.EQUALS ? g.getMinPlayTime() == 30
+                            : op == Operations.LESS_THAN ? g.getMinPlayTime() < 30 : g.getMinPlayTime() >= 30)
+                    .toList();
+            assertSummary(matched, BoardGame::getMinPlayTime, summary);
+        }
+        assertEquals(0, indexes.sortedIndex(GameData.YEAR).summarize(Operations.GREATER_THAN, 9999).getCount());
+    }
+
+    @Test
+    public void testEmptyAndInvalid() {
+        Planner planner = new Planner(games);
+        assertEquals(0, planner.count("year>9999"));
+        assertEquals(0, planner.sum("year>9999", GameData.RATING));
+        assertTrue(Double.isNaN(planner.avg("year>9999", GameData.RATING)));
+        assertThrows(IllegalArgumentException.class, () -> planner.summarize("", GameData.NAME));
+        assertThrows(IllegalArgumentException.class, () -> planner.count("year>>2"));
+    }
+}
@@ -0,0 +1,93 @@
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import student.BoardGame;
+import student.Catalog;
+import student.GameData;
+import student.GameDelta;
+import student.GamesLoader;
+import student.Planner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class TestCatalog {
+    private static Set<BoardGame> games;
+
+    @BeforeAll
+    public static void setUp() {
+        games = GamesLoader.loadGamesFile("/collection.csv");
+    }
+
+    @Test
+    public void testSessionsAreIndependent() {
+        Catalog catalog = new Catalog(games);
+        Planner first = new Planner(catalog);
+        Planner second = new Planner(catalog);
+        long players = first.filter("minPlayers>=2").count();
+        assertEquals(games.size(), second.filter("").count());
+        assertEquals(players, first.filter("").count());
+        assertSame(catalog, first.getCatalog());
+        assertSame(first.getCatalog().getTable(), second.getCatalog().getTable());
+    }
+
+    @Test
+    public void testSessionsShareResults() {
+        Catalog catalog = new Catalog(games);
+        List<BoardGame> expected = new Planner(catalog).filter("rating>7", GameData.YEAR).toList();
+        assertEquals(expected, new Planner(catalog).filter("rating > 7", GameData.YEAR).toList());
+        assertEquals(1, catalog.getCacheHits());
+    }
+
+    @Test
+    public void testConcurrentSessions() throws Exception {
+        Catalog catalog = new Catalog(games);
+        List<String> filters = List.of("minPlayers>=2", "name~=a", "rating>7|year<2000", "maxPlayers<=4,!name~=the");
+        List<Long> expected = new ArrayList<>();
+        for (String filter : filters) {
+            expected.add(new Planner(catalog).filter(filter).count());
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> sessions = new ArrayList<>();
+            for (int session = 0; session < 200; session++) {
+                int which = session % filters.size();
+                sessions.add(pool.submit(() -> {
+                    Planner planner = new Planner(catalog);
+                    for (int i = 0; i < 20; i++) {
+                        if (planner.filter(filters.get(which)).count() != expected.get(which)) {
+                            return false;
+                        }
+                        planner.reset();
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> session : sessions) {
+                assertEquals(true, session.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testSwitchCatalog() {
+        Catalog catalog = new Catalog(games);
+        Planner moved = new Planner(catalog);
+        Planner stays = new Planner(catalog);
+        moved.filter("minPlayers>=2");
+        moved.applyDelta(GameDelta.diff(games, Set.of()));
+        assertNotSame(catalog, moved.getCatalog());
+        assertEquals(0, moved.filter("").count());
+        assertEquals(games.size(), stays.filter("").count());
+    }
+}
@@ -0,0 +1,117 @@
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import student.BoardGame;
+import student.Catalog;
+import student.CatalogStore;
+import student.GameDelta;
+import student.GamesLoader;
+import student.Planner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestCatalogStore {
+    private static Set<BoardGame> games;
+
+    @BeforeAll
+    public static void setUp() {
+        games = GamesLoader.loadGamesFile("/collection.csv");
+    }
+
+    @Test
+    public void testPublish() {
+        Catalog first = new Catalog(games);
+        CatalogStore store = new CatalogStore(first);
+        assertEquals(1, store.getVersion());
+        assertSame(first, store.current());
+        Catalog second = new Catalog(Set.of());
+        assertEquals(2, store.publish(second));
+        assertSame(second, store.current());
+        assertEquals(1, store.getLiveSnapshots());
+    }
+
+    @Test
+    public void testPinnedSnapshotOutlivesPublish() {
+        Catalog first = new Catalog(games);
+        CatalogStore store = new CatalogStore(first);
+        CatalogStore.Snapshot pinned = store.acquire();
+        store.applyDelta(GameDelta.diff(games, Set.of()));
+
+        assertEquals(2, store.getLiveSnapshots());
+        assertFalse(pinned.isFreed());
+        assertSame(first, pinned.getCatalog());
+        assertEquals(games.size(), pinned.getCatalog().getTable().size());
+        try (CatalogStore.Snapshot latest = store.acquire()) {
+            assertEquals(2, latest.getVersion());
+            assertEquals(0, latest.getCatalog().getTable().size());
+        }
+
+        pinned.close();
+        assertTrue(pinned.isFreed());
+        assertEquals(1, store.getLiveSnapshots());
+        assertThrows(IllegalStateException.class, pinned::getCatalog);
+    }
+
+    @Test
+    public void testSessionsShareReload() {
+        CatalogStore store = new CatalogStore(new Catalog(games));
+        Planner first = new Planner(store);
+        Planner second = new Planner(store);
+        first.filter("minPlayers>=2");
+        second.applyDelta(GameDelta.diff(games, Set.of()));
+        assertEquals(0, first.getRemainingRows().cardinality());
+        assertEquals(0, first.filter("").count());
+        assertEquals(0, second.filter("").count());
+        assertEquals(1, store.getLiveSnapshots());
+    }
+
+    @Test
+    public void testQueriesDuringReloads() throws Exception {
+        CatalogStore store = new CatalogStore(new Catalog(games));
+        long expected = new Planner(store).filter("minPlayers>=2").count();
+        GameDelta none = GameDelta.diff(games, games);
+        AtomicBoolean done = new AtomicBoolean();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> sessions = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                sessions.add(pool.submit(() -> {
+                    Planner planner = new Planner(store);
+                    for (int run = 0; run < 200; run++) {
+                        if (planner.filter("minPlayers>=2").count() != expected) {
+                            return false;
+                        }
+                        planner.reset();
+                    }
+                    return true;
+                }));
+            }
+            Future<?> reloads = pool.submit(() -> {
+                do {
+                    store.applyDelta(none);
+                } while (!done.get());
+            });
+            for (Future<Boolean> session : sessions) {
+                assertTrue(session.get());
+            }
+            done.set(true);
+            reloads.get();
+        } finally {
+            pool.shutdown();
+        }
+        assertTrue(store.getVersion() > 1);
+        assertEquals(1, store.getLiveSnapshots());
+    }
+}
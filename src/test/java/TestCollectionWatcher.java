@@ -0,0 +1,98 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import student.BoardGame;
+import student.CollectionWatcher;
+import student.GameDelta;
+import student.GameData;
+import student.GameTable;
+import student.GamesLoader;
+import student.OffHeapGameTable;
+import student.Planner;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestCollectionWatcher {
+    private static final String HEADER = "objectname,objectid,average,avgweight,rank,"
+            + "minplayers,maxplayers,minplaytime,maxplaytime,yearpublished\n";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testDiffById() {
+        List<BoardGame> current = List.of(
+                new BoardGame("Go", 1, 2, 2, 30, 30, 8.0, 100, 7.5, 2000),
+                new BoardGame("Chess", 2, 2, 2, 10, 20, 10.0, 700, 10.0, 2006),
+                new BoardGame("Tucano", 3, 10, 20, 60, 90, 6.0, 500, 8.0, 2004));
+        List<BoardGame> next = List.of(
+                new BoardGame("Go", 1, 2, 2, 30, 30, 8.0, 100, 7.5, 2000),
+                new BoardGame("Chess", 2, 2, 2, 10, 20, 10.0, 650, 10.0, 2006),
+                new BoardGame("Monopoly", 4, 6, 10, 20, 1000, 1.0, 800, 5.0, 2007));
+
+        GameDelta delta = GameDelta.diff(current, next);
+        assertEquals(List.of(next.get(2)), delta.getInserts());
+        assertEquals(1, delta.getUpdates().size());
+        assertEquals(650, delta.getUpdates().get(0).getRank());
+        assertEquals(700, delta.getReplaced().get(0).getRank());
+        assertEquals(List.of(current.get(2)), delta.getDeletes());
+        assertTrue(GameDelta.diff(current, current).isEmpty());
+    }
+
+    @Test
+    public void testTableDiffMatchesGames() {
+        List<BoardGame> current = List.of(
+                new BoardGame("Go", 1, 2, 2, 30, 30, 8.0, 100, 7.5, 2000),
+                new BoardGame("Chess", 2, 2, 2, 10, 20, 10.0, 700, 10.0, 2006),
+                new BoardGame("Tucano", 3, 10, 20, 60, 90, 6.0, 500, 8.0, 2004));
+        List<BoardGame> next = List.of(
+                new BoardGame("Monopoly", 4, 6, 10, 20, 1000, 1.0, 800, 5.0, 2007),
+                new BoardGame("Chess", 2, 2, 2, 10, 20, 10.0, 650, 10.0, 2006),
+                new BoardGame("Go", 1, 2, 2, 30, 30, 8.0, 100, 7.5, 2000));
+
+        GameDelta delta = GameDelta.diff(new OffHeapGameTable(current), new OffHeapGameTable(next));
+        assertEquals(List.of(next.get(0)), delta.getInserts());
+        assertEquals(650, delta.getUpdates().get(0).getRank());
+        assertEquals(700, delta.getReplaced().get(0).getRank());
+        assertEquals(List.of(current.get(2)), delta.getDeletes());
+        assertTrue(GameDelta.diff(new GameTable(current), new OffHeapGameTable(current)).isEmpty());
+    }
+
+    @Test
+    public void testReloadAppliesChanges() throws IOException {
+        Path csv = dir.resolve("collection.csv");
+        Files.writeString(csv, HEADER
+                + "Go,1,7.5,8.0,100,2,2,30,30,2000\n"
+                + "Chess,2,10.0,10.0,700,2,2,10,20,2006\n"
+                + "Tucano,3,8.0,6.0,500,10,20,60,90,2004\n");
+        Planner planner = new Planner(GamesLoader.loadGamesFile(csv));
+        Stream<BoardGame> inFlight = planner.filter("minplayers<5", GameData.NAME, true);
+        Files.writeString(csv, HEADER
+                + "Go,1,7.5,8.0,100,2,2,30,30,2000\n"
+                + "Chess,2,10.0,10.0,650,3,4,10,20,2006\n"
+                + "Monopoly,4,5.0,1.0,800,2,10,20,1000,2007\n");
+        try (CollectionWatcher watcher = new CollectionWatcher(csv, planner)) {
+            GameDelta delta = watcher.reload();
+            assertEquals(1, delta.getInserts().size());
+            assertEquals(1, delta.getUpdates().size());
+            assertEquals(1, delta.getDeletes().size());
+        }
+
+        // a stream handed out before the change still sees the old games
+        assertEquals(List.of("Chess", "Go"), inFlight.map(BoardGame::getName).toList());
+
+        // the current filter (minplayers<5) is kept, and now runs over the new games
+        assertEquals(List.of("Chess", "Go", "Monopoly"),
+                planner.filter("").map(BoardGame::getName).toList());
+        planner.reset();
+        assertEquals(3, planner.getGames().size());
+        assertEquals(4, planner.filter("name==chess").toList().get(0).getMaxPlayers());
+    }
+}
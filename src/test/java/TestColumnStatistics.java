@@ -0,0 +1,109 @@
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import student.ColumnStatistics;
+import student.CompressedBitmap;
+import student.FilterPlan;
+import student.GameData;
+import student.GameIndexes;
+import student.GameTable;
+import student.GamesLoader;
+import student.Operations;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestColumnStatistics {
+    private static GameTable table;
+    private static GameIndexes indexes;
+
+    @BeforeAll
+    public static void setUp() {
+        table = new GameTable(GamesLoader.loadGamesFile("/collection.csv"));
+        indexes = new GameIndexes(table);
+    }
+
+    @Test
+    public void testSummary() {
+        ColumnStatistics years = indexes.statistics(GameData.YEAR);
+        int[] values = IntStream.range(0, table.size())
+                .map(row -> table.toBoardGame(row).getYearPublished()).sorted().toArray();
+        assertEquals(table.size(), years.getRows());
+        assertEquals(values[0], years.getMin());
+        assertEquals(values[values.length - 1], years.getMax());
+        assertEquals(Arrays.stream(values).distinct().count(), years.getDistinct());
+        assertEquals(0, years.selectivity(Operations.LESS_THAN, years.getMin()));
+        assertEquals(1, years.selectivity(Operations.LESS_THAN_EQUALS, years.getMax()));
+        assertEquals(0, years.selectivity(Operations.GREATER_THAN, Double.NaN));
+        assertEquals(0, years.selectivity(Operations.LESS_THAN_EQUALS, Double.NaN));
+        assertEquals(1, years.selectivity(Operations.NOT_EQUALS, Double.NaN));
+        assertEquals(0, years.lessFraction(Double.NaN));
+    }
+
+    @Test
+    public void testSelectivityIsClose() {
+        for (GameData column : List.of(GameData.YEAR, GameData.RATING, GameData.MAX_TIME, GameData.MIN_PLAYERS)) {
+            ColumnStatistics stats = indexes.statistics(column);
+            for (double value : new double[] {2, 5, 7.5, 60, 2000, 2010}) {
+                for (Operations op : List.of(Operations.LESS_THAN, Operations.GREATER_THAN_EQUALS)) {
+                    double actual = (double) indexes.sortedIndex(column).count(op, value) / table.size();
+                    double estimate = stats.selectivity(op, value);
+                    assertTrue(Math.abs(actual - estimate) <= 2.0 / stats.getBuckets(),
+                            column + " " + op + " " + value + ": " + actual + " vs " + estimate);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testPlanOrder() {
+        int rows = table.size();
+        FilterPlan plan = FilterPlan.compile("rating>0,year==2017,name~=a");
+        List<String> steps = plan.explain(rows, indexes);
+        assertEquals(3, steps.size());
+        assertTrue(steps.get(0).endsWith("YEAR==2017.0"), steps.toString());
+        assertTrue(steps.get(2).endsWith("RATING>0.0"), steps.toString());
+        assertEquals("scan RATING>0.0", steps.get(2));
+        // one candidate is cheaper to check than most of the index
+        assertEquals(List.of("scan YEAR>2000.0"), FilterPlan.compile("year>2000").explain(1, indexes));
+    }
+
+    @Test
+    public void testOptimizedMatchesScan() {
+        List<String> filters = List.of("rating>0,year==2017,name~=a", "name>=m,minPlayers<3,maxPlayers!=4",
+                "name~=the,rating>7", "year>2000,year<2010,minplaytime>=30", "name==chess,maxPlayers>1",
+                "rating>=NaN,year>2000", "minPlayers>NaN|rating!=NaN");
+        CompressedBitmap all = indexes.allRows();
+        for (String filter : filters) {
+            FilterPlan plan = FilterPlan.compile(filter);
+            int[] scanned = plan.apply(IntStream.range(0, table.size()), table).toArray();
+            assertArrayEquals(scanned, plan.select(all, table, indexes).toArray(), filter);
+        }
+    }
+
+    @Test
+    public void testSampledStatistics() {
+        for (GameData column : List.of(GameData.YEAR, GameData.RATING, GameData.MAX_TIME, GameData.MIN_PLAYERS)) {
+            ColumnStatistics exact = indexes.statistics(column);
+            ColumnStatistics whole = ColumnStatistics.sample(table, column, ColumnStatistics.DEFAULT_BUCKETS,
+                    table.size());
+            assertEquals(exact.toString(), whole.toString());
+            ColumnStatistics sampled = ColumnStatistics.sample(table, column, ColumnStatistics.DEFAULT_BUCKETS, 256);
+            assertEquals(exact.getRows(), sampled.getRows(), table.size() / 100.0);
+            assertTrue(sampled.getDistinct() <= sampled.getRows());
+            for (double value : new double[] {2, 5, 7.5, 60, 2000, 2010}) {
+                for (Operations op : List.of(Operations.LESS_THAN, Operations.GREATER_THAN_EQUALS)) {
+                    assertEquals(exact.selectivity(op, value), sampled.selectivity(op, value), 0.1,
+                            column + " " + op + " " + value);
+                }
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> ColumnStatistics.sample(table, GameData.NAME, 8, 8));
+    }
+}
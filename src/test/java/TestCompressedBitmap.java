@@ -0,0 +1,111 @@
+import org.junit.jupiter.api.Test;
+
+import student.BitmapIndex;
+import student.CompressedBitmap;
+import student.FilterPlan;
+import student.Filters;
+import student.GameData;
+import student.GameIndexes;
+import student.GameTable;
+import student.GamesLoader;
+import student.Operations;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestCompressedBitmap {
+
+    private static BitSet randomSet(Random random, int rows, double density) {
+        BitSet set = new BitSet(rows);
+        for (int row = 0; row < rows; row++) {
+            if (random.nextDouble() < density) {
+                set.set(row);
+            }
+        }
+        return set;
+    }
+
+    @Test
+    public void testAndOrMatchBitSet() {
+        Random random = new Random(42);
+        double[] densities = {0.001, 0.05, 0.5, 0.99};
+        for (double a : densities) {
+            for (double b : densities) {
+                BitSet left = randomSet(random, 200_000, a);
+                BitSet right = randomSet(random, 200_000, b);
+                CompressedBitmap l = CompressedBitmap.ofSorted(left.stream().toArray());
+                CompressedBitmap r = CompressedBitmap.of(right.stream().toArray());
+                assertEquals(left.cardinality(), l.cardinality());
+
+                BitSet and = (BitSet) left.clone();
+                and.and(right);
+                assertArrayEquals(and.stream().toArray(), l.and(r).toArray(), a + " and " + b);
+                BitSet or = (BitSet) left.clone();
+                or.or(right);
+                assertArrayEquals(or.stream().toArray(), l.or(r).toArray(), a + " or " + b);
+            }
+        }
+    }
+
+    @Test
+    public void testPageAndContains() {
+        CompressedBitmap bitmap = CompressedBitmap.range(60_000, 140_000).or(CompressedBitmap.of(5, 3, 200_000, 3));
+        assertEquals(80_003, bitmap.cardinality());
+        assertTrue(bitmap.contains(3));
+        assertTrue(bitmap.contains(70_000));
+        assertFalse(bitmap.contains(4));
+        assertFalse(bitmap.contains(-1));
+        assertArrayEquals(new int[] {3, 5, 60_000}, bitmap.page(0, 3));
+        assertArrayEquals(new int[] {65_535, 65_536, 65_537}, bitmap.page(5537, 3));
+        assertArrayEquals(new int[] {139_999, 200_000}, bitmap.page(80_001, 10));
+        assertEquals(0, bitmap.page(90_000, 10).length);
+        assertTrue(CompressedBitmap.EMPTY.isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> CompressedBitmap.ofSorted(new int[] {2, 1}));
+    }
+
+    @Test
+    public void testBitmapIndexMatchesScan() {
+        GameTable table = new GameTable(GamesLoader.loadGamesFile("/collection.csv"));
+        for (GameData column : List.of(GameData.MIN_PLAYERS, GameData.MAX_PLAYERS, GameData.YEAR)) {
+            BitmapIndex index = BitmapIndex.build(table, column);
+            assertTrue(index.distinctValues() < 200);
+            for (Operations op : Operations.values()) {
+                if (!BitmapIndex.supports(op)) {
+                    continue;
+                }
+                for (String value : List.of("0", "1", "2.5", "4", "2010", "-5", "NaN")) {
+                    int[] scan = IntStream.range(0, table.size())
+                            .filter(row -> Filters.filter(table.toBoardGame(row), column, op, value))
+                            .toArray();
+                    assertArrayEquals(scan, index.select(op, Double.parseDouble(value)).toArray(),
+                            column + " " + op + value);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testPlanWithBitmaps() {
+        GameTable table = new GameTable(GamesLoader.loadGamesFile("/collection.csv"));
+        GameIndexes indexes = new GameIndexes(table);
+        for (String filter : List.of("minPlayers>=2,maxPlayers<=4,year>2010", "year==2017,rating>7",
+                "minPlayers!=2,name~=the", "maxPlayers>100", "minPlayers>NaN", "year>=NaN", "year!=NaN")) {
+            FilterPlan plan = FilterPlan.compile(filter);
+            CompressedBitmap indexed = plan.select(indexes.allRows(), table, indexes);
+            int[] scanned = plan.select(indexes.allRows(), table, null).toArray();
+            assertArrayEquals(scanned, indexed.toArray(), filter);
+            assertEquals(scanned.length, indexed.cardinality());
+            assertArrayEquals(Arrays.copyOfRange(scanned, Math.min(3, scanned.length),
+                    Math.min(8, scanned.length)), indexed.page(3, 5));
+        }
+    }
+}
@@ -0,0 +1,100 @@
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import student.BoardGame;
+import student.CompressedBitmap;
+import student.Facet;
+import student.GameData;
+import student.GameIndexes;
+import student.GameTable;
+import student.GamesLoader;
+import student.Planner;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.ToDoubleFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestFacet {
+    private static Set<BoardGame> games;
+
+    @BeforeAll
+    public static void setUp() {
+        games = GamesLoader.loadGamesFile("/collection.csv");
+    }
+
+    private static SortedMap<Double, Integer> expected(List<BoardGame> matched, Facet facet,
+                                                       ToDoubleFunction<BoardGame> value) {
+        SortedMap<Double, Integer> buckets = new TreeMap<>();
+        for (BoardGame game : matched) {
+            double bucket = facet.bucketOf(value.applyAsDouble(game));
+            if (!Double.isNaN(bucket)) {
+                buckets.merge(bucket, 1, Integer::sum);
+            }
+        }
+        return buckets;
+    }
+
+    @Test
+    public void testBucketOf() {
+        assertEquals(2010.0, Facet.width(GameData.YEAR, 10).bucketOf(2017));
+        assertEquals(7.5, Facet.width(GameData.RATING, 0.5).bucketOf(7.9));
+        Facet bounds = Facet.bounds(GameData.RATING, 5, 7, 8);
+        assertTrue(Double.isNaN(bounds.bucketOf(4.9)));
+        assertEquals(5.0, bounds.bucketOf(5));
+        assertEquals(7.0, bounds.bucketOf(7.99));
+        assertEquals(8.0, bounds.bucketOf(9.5));
+        assertEquals(3.0, Facet.distinct(GameData.MIN_PLAYERS).bucketOf(3));
+    }
+
+    @Test
+    public void testFacetsMatchFilter() {
+        Facet players = Facet.distinct(GameData.MIN_PLAYERS);
+        Facet decades = Facet.width(GameData.YEAR, 10);
+        Facet ratings = Facet.bounds(GameData.RATING, 6, 7, 7.5, 8);
+        Facet times = Facet.width(GameData.MAX_TIME, 30);
+        List<Facet> facets = List.of(players, decades, ratings, times);
+        for (String filter : List.of("", "year>2010", "rating>7.5", "name~=the", "year>9999")) {
+            List<BoardGame> matched = new Planner(games).filter(filter).toList();
+            Map<Facet, SortedMap<Double, Integer>> counts = new Planner(games).facets(filter, facets);
+            assertEquals(facets, List.copyOf(counts.keySet()));
+            assertEquals(expected(matched, players, BoardGame::getMinPlayers), counts.get(players), filter);
+            assertEquals(expected(matched, decades, BoardGame::getYearPublished), counts.get(decades), filter);
+            assertEquals(expected(matched, ratings, BoardGame::getRating), counts.get(ratings), filter);
+            assertEquals(expected(matched, times, BoardGame::getMaxPlayTime), counts.get(times), filter);
+        }
+    }
+
+    @Test
+    public void testBitmapAndScanAgree() {
+        GameTable table = new GameTable(games);
+        GameIndexes indexes = new GameIndexes(table);
+        CompressedBitmap rows = indexes.allRows();
+        List<Facet> facets = List.of(Facet.distinct(GameData.MAX_PLAYERS), Facet.width(GameData.YEAR, 5));
+        assertEquals(Facet.count(facets, rows, table, null), Facet.count(facets, rows, table, indexes));
+    }
+
+    @Test
+    public void testFacetsKeepSession() {
+        Planner planner = new Planner(games);
+        int remaining = (int) planner.filter("minPlayers>2").count();
+        Map<Facet, SortedMap<Double, Integer>> counts =
+                planner.facets("", List.of(Facet.distinct(GameData.MIN_PLAYERS)));
+        assertEquals(remaining, counts.values().iterator().next().values().stream().mapToInt(c -> c).sum());
+        assertEquals(remaining, planner.getRemainingRows().cardinality());
+    }
+
+    @Test
+    public void testInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> Facet.distinct(GameData.NAME));
+        assertThrows(IllegalArgumentException.class, () -> Facet.width(GameData.YEAR, 0));
+        assertThrows(IllegalArgumentException.class, () -> Facet.bounds(GameData.RATING));
+        assertThrows(IllegalArgumentException.class, () -> Facet.bounds(GameData.RATING, 7, 6));
+    }
+}
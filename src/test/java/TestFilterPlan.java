@@ -0,0 +1,135 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import student.BoardGame;
+import student.FilterPlan;
+import student.FilterPredicate;
+import student.GameData;
+import student.GameIndexes;
+import student.GameTable;
+import student.Operations;
+import student.Planner;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestFilterPlan {
+    private List<BoardGame> games;
+
+    @BeforeEach
+    public void setUp() {
+        games = List.of(
+                new BoardGame("17 days", 6, 1, 8, 70, 70, 9.0, 600, 9.0, 2005),
+                new BoardGame("Chess", 7, 2, 2, 10, 20, 10.0, 700, 10.0, 2006),
+                new BoardGame("Go", 1, 2, 5, 30, 30, 8.0, 100, 7.5, 2000));
+    }
+
+    @Test
+    public void testCompilePredicate() {
+        FilterPredicate predicate = FilterPredicate.compile(" minPlayers >= 2 ");
+        assertEquals(GameData.MIN_PLAYERS, predicate.getColumn());
+        assertEquals(Operations.GREATER_THAN_EQUALS, predicate.getOperator());
+        assertEquals(2.0, predicate.getNumber());
+        assertNull(predicate.getText());
+
+        FilterPredicate name = FilterPredicate.compile("name~=Go Fish");
+        assertEquals(Operations.CONTAINS, name.getOperator());
+        assertEquals("gofish", name.getText());
+    }
+
+    @Test
+    public void testCompilePlan() {
+        FilterPlan plan = FilterPlan.compile("minPlayers>1, name == Chess,");
+        assertEquals(2, plan.getPredicates().size());
+        assertEquals("MIN_PLAYERS>1.0,NAME==chess", plan.toString());
+        assertEquals(plan.toString(), FilterPlan.compile("minplayers > 1.0,NAME==CHESS").toString());
+        assertTrue(FilterPlan.compile("").isEmpty());
+        assertTrue(FilterPlan.compile(" , ").isEmpty());
+    }
+
+    @Test
+    public void testInvalidFilters() {
+        assertThrows(IllegalArgumentException.class, () -> FilterPlan.compile("minPlayers"));
+        assertThrows(IllegalArgumentException.class, () -> FilterPlan.compile("players>2"));
+        assertThrows(IllegalArgumentException.class, () -> FilterPlan.compile("minPlayers>two"));
+        assertThrows(IllegalArgumentException.class, () -> FilterPlan.compile("minPlayers~=2"));
+        assertThrows(IllegalArgumentException.class, () -> FilterPlan.compile("id==6"));
+        assertThrows(IllegalArgumentException.class, () -> FilterPlan.compile("name=="));
+        assertThrows(IllegalArgumentException.class, () -> FilterPlan.compile("minPlayers>1,rating>>2"));
+    }
+
+    @Test
+    public void testBind() {
+        GameTable table = new GameTable(games);
+        IntPredicate predicate = FilterPlan.compile("minPlayers==2,rating<8").bind(table);
+        assertFalse(predicate.test(0));
+        assertFalse(predicate.test(1));
+        assertTrue(predicate.test(2));
+        assertTrue(FilterPlan.compile("").bind(table).test(0));
+    }
+
+    @Test
+    public void testPlannerRejectsInvalidFilter() {
+        Planner planner = new Planner(Set.copyOf(games));
+        assertEquals(2, planner.filter("minPlayers>1").count());
+        assertThrows(IllegalArgumentException.class, () -> planner.filter("maxPlayers>lots"));
+        planner.reset();
+        assertEquals(3, planner.filter("").count());
+    }
+
+    @Test
+    public void testCompileBoolean() {
+        assertEquals("(NAME==chess|NAME==go)", FilterPlan.compile("name==chess | name==go").toString());
+        assertEquals("MIN_PLAYERS>1.0,!NAME==go", FilterPlan.compile("minPlayers>1,!name==go").toString());
+        assertEquals("(NAME==go|(MIN_PLAYERS>1.0,RATING<8.0))",
+                FilterPlan.compile("name==go|(minPlayers>1,rating<8)").toString());
+        assertEquals("!(NAME~=go|MIN_PLAYERS!=2.0)", FilterPlan.compile("!(name~=go|minPlayers!=2)").toString());
+        // a comma binds tighter than |
+        assertEquals("((NAME==go,RATING<8.0)|NAME==chess)",
+                FilterPlan.compile("name==go,rating<8|name==chess").toString());
+        // parentheses inside a value belong to the value
+        assertEquals("NAME==catan(2015)", FilterPlan.compile("name==Catan (2015)").toString());
+        assertEquals("(NAME==catan(2015)|NAME==go)", FilterPlan.compile("(name==Catan (2015)|name==go)").toString());
+
+        assertThrows(IllegalArgumentException.class, () -> FilterPlan.compile("name==go|"));
+        assertThrows(IllegalArgumentException.class, () -> FilterPlan.compile("(name==go"));
+        assertThrows(IllegalArgumentException.class, () -> FilterPlan.compile("name==go)"));
+        assertThrows(IllegalArgumentException.class, () -> FilterPlan.compile("()"));
+        assertThrows(IllegalArgumentException.class, () -> FilterPlan.compile("!"));
+        assertThrows(IllegalArgumentException.class, () -> FilterPlan.compile("!=2"));
+    }
+
+    @Test
+    public void testBooleanSelect() {
+        GameTable table = new GameTable(games);
+        GameIndexes indexes = new GameIndexes(table);
+        for (String filter : List.of("name==chess|name==go", "!minPlayers==2", "!(name~=go|rating>9)",
+                "rating>8|(minPlayers==2,!name==chess)", "year<2001|year>2005|name~=days")) {
+            FilterPlan plan = FilterPlan.compile(filter);
+            int[] scanned = plan.apply(IntStream.range(0, table.size()), table).toArray();
+            assertArrayEquals(scanned, plan.select(indexes.allRows(), table, indexes).toArray(), filter);
+            assertArrayEquals(scanned, plan.select(indexes.allRows(), table, null).toArray(), filter);
+        }
+        IntPredicate either = FilterPlan.compile("name==chess|name==go").bind(table);
+        assertFalse(either.test(0));
+        assertTrue(either.test(1));
+        assertTrue(either.test(2));
+    }
+
+    @Test
+    public void testPlannerOr() {
+        Planner planner = new Planner(Set.copyOf(games));
+        assertEquals(List.of("Chess", "Go"),
+                planner.filter("name==chess|name==go").map(BoardGame::getName).toList());
+        assertEquals(List.of("Go"), planner.filter("!name==chess").map(BoardGame::getName).toList());
+    }
+}
@@ -0,0 +1,216 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import student.BoardGame;
+import student.Filters;
+import student.GameData;
+import student.GameDelta;
+import student.GameIndexes;
+import student.GameTable;
+import student.GamesLoader;
+import student.IGameTable;
+import student.MappedCsvReader;
+import student.NameDictionary;
+import student.OffHeapGameTable;
+import student.Operations;
+import student.Planner;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntPredicate;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestGameTable {
+    private List<BoardGame> games;
+
+    @BeforeEach
+    public void setUp() {
+        games = List.of(
+                new BoardGame("17 days", 6, 1, 8, 70, 70, 9.0, 600, 9.0, 2005),
+                new BoardGame("Chess", 7, 2, 2, 10, 20, 10.0, 700, 10.0, 2006),
+                new BoardGame("Go", 1, 2, 5, 30, 30, 8.0, 100, 7.5, 2000));
+    }
+
+    @Test
+    public void testColumns() {
+        GameTable table = new GameTable(games);
+        assertEquals(3, table.size());
+        assertEquals("Chess", table.getName(1));
+        assertEquals(2.0, table.getNumber(GameData.MAX_PLAYERS, 1));
+        assertEquals(7.5, table.getNumber(GameData.RATING, 2));
+        assertEquals(2005.0, table.getNumber(GameData.YEAR, 0));
+        assertThrows(IllegalArgumentException.class, () -> table.getNumber(GameData.NAME, 0));
+    }
+
+    @Test
+    public void testRowsBecomeBoardGames() {
+        GameTable table = new GameTable(games);
+        for (int row = 0; row < games.size(); row++) {
+            assertEquals(games.get(row).toString(), table.toBoardGame(row).toString());
+        }
+        assertEquals(Set.copyOf(games), table.toBoardGames());
+    }
+
+    @Test
+    public void testApplyDelta() {
+        GameTable table = new GameTable(games);
+        BoardGame monopoly = new BoardGame("Monopoly", 8, 6, 10, 20, 1000, 1.0, 800, 5.0, 2007);
+        BoardGame chess = new BoardGame("Chess", 7, 2, 2, 10, 20, 10.0, 650, 10.0, 2006);
+        GameDelta delta = GameDelta.diff(games, List.of(games.get(0), chess, monopoly));
+
+        GameTable next = table.applyDelta(delta);
+        assertEquals(3, table.size());
+        assertEquals(3, next.size());
+        assertEquals(Set.of("17 days (600)", "Chess (650)", "Monopoly (800)"), next.toBoardGames().stream()
+                .map(game -> game.toStringWithInfo(GameData.RANK)).collect(Collectors.toSet()));
+    }
+
+    @Test
+    public void testOffHeapMatchesHeap() {
+        Set<BoardGame> collection = GamesLoader.loadGamesFile("/collection.csv");
+        IGameTable heap = new GameTable(collection);
+        IGameTable offHeap = new OffHeapGameTable(collection);
+        assertEquals(heap.size(), offHeap.size());
+        for (int row = 0; row < heap.size(); row++) {
+            assertEquals(heap.toBoardGame(row).toString(), offHeap.toBoardGame(row).toString());
+        }
+
+        List<String> expected = new Planner(heap).filter("minplayers>=2,name~=a", GameData.RATING)
+                .map(BoardGame::toString).toList();
+        List<String> actual = new Planner(offHeap).filter("minplayers>=2,name~=a", GameData.RATING)
+                .map(BoardGame::toString).toList();
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testOffHeapLoad() throws IOException {
+        Path csv = Path.of("src/main/resources/collection.csv");
+        Set<BoardGame> collection = MappedCsvReader.readParallel(csv, 4);
+        OffHeapGameTable loaded = OffHeapGameTable.load(csv, 4);
+        assertEquals(collection.size(), loaded.size());
+        assertTrue(GameDelta.diff(new GameTable(collection), loaded).isEmpty());
+        NameDictionary expected = new GameTable(collection).getNameDictionary();
+        assertEquals(expected.size(), loaded.getNameDictionary().size());
+        for (int code = 0; code < expected.size(); code++) {
+            assertEquals(expected.get(code), loaded.getNameDictionary().get(code));
+        }
+    }
+
+    @Test
+    public void testOffHeapIndexesStaySmall() {
+        Set<BoardGame> collection = GamesLoader.loadGamesFile("/collection.csv");
+        IGameTable heap = new GameTable(collection);
+        IGameTable offHeap = new OffHeapGameTable(collection);
+        GameIndexes indexes = new GameIndexes(offHeap);
+        assertNull(indexes.sortedIndex(GameData.RATING));
+        assertNull(indexes.bitmapIndex(GameData.YEAR));
+        assertNull(indexes.nameTrie());
+        assertNull(indexes.trigramIndex());
+        assertEquals(new GameIndexes(heap).distinctNames(), indexes.distinctNames());
+
+        for (String filter : List.of("year>2010", "name>m,rating>7", "name==15days", "name~=the", "name<=b")) {
+            List<String> expected = new Planner(heap).filter(filter, GameData.NAME).map(BoardGame::toString).toList();
+            List<String> actual = new Planner(offHeap).filter(filter, GameData.NAME).map(BoardGame::toString).toList();
+            assertEquals(expected, actual, filter);
+        }
+        assertEquals(new Planner(heap).completions("th", 5), new Planner(offHeap).completions("th", 5));
+        assertEquals("15 Days", new Planner(offHeap).findByName("15 days").getName());
+        assertEquals(new Planner(heap).summarize("", GameData.RATING).getSum(),
+                new Planner(offHeap).summarize("", GameData.RATING).getSum(), 1e-6);
+    }
+
+    @Test
+    public void testOffHeapApplyDelta() {
+        IGameTable table = new OffHeapGameTable(List.of(new BoardGame("G\u00f4", 1, 2, 5, 30, 30, 8.0, 100, 7.5, 2000),
+                games.get(0), games.get(1)));
+        BoardGame chess = new BoardGame("Chess", 7, 2, 2, 10, 20, 10.0, 650, 10.0, 2006);
+        BoardGame monopoly = new BoardGame("Monopoly", 8, 6, 10, 20, 1000, 1.0, 800, 5.0, 2007);
+        IGameTable next = table.applyDelta(GameDelta.diff(table.toBoardGames(),
+                List.of(table.toBoardGame(0), chess, monopoly)));
+
+        assertEquals(3, next.size());
+        assertEquals("G\u00f4", next.getName(0));
+        assertEquals(Set.of("G\u00f4 (100)", "Chess (650)", "Monopoly (800)"), next.toBoardGames().stream()
+                .map(game -> game.toStringWithInfo(GameData.RANK)).collect(Collectors.toSet()));
+
+        // a delta diffed between two off heap tables hands back the table it was diffed into
+        IGameTable target = new OffHeapGameTable(List.of(table.toBoardGame(0), chess, monopoly));
+        GameDelta delta = GameDelta.diff(table, target);
+        assertSame(target, table.applyDelta(delta));
+        IGameTable copied = next.applyDelta(delta);
+        assertNotSame(target, copied);
+        assertEquals(target.toBoardGames(), copied.toBoardGames());
+    }
+
+    @Test
+    public void testNameDictionary() {
+        List<BoardGame> named = List.of(games.get(0), games.get(1),
+                new BoardGame("17 Days", 8, 1, 8, 70, 70, 9.0, 601, 9.0, 2005));
+        for (IGameTable table : List.of(new GameTable(named), new OffHeapGameTable(named))) {
+            NameDictionary dictionary = table.getNameDictionary();
+            assertEquals(2, dictionary.size());
+            assertEquals("17days", dictionary.get(0));
+            assertEquals(0, table.nameCodeColumn().applyAsInt(0));
+            assertEquals(1, table.nameCodeColumn().applyAsInt(1));
+            assertEquals(0, table.nameCodeColumn().applyAsInt(2));
+            assertEquals(-1, dictionary.find("go"));
+            assertEquals(1, dictionary.lowerBound("chess"));
+            assertEquals(2, dictionary.upperBound("chess"));
+        }
+    }
+
+    @Test
+    public void testOffHeapDictionaryMatchesHeap() {
+        List<String> names = List.of("Zebra", "\u00c9clair", "\uD83C\uDFB2 Dice", "\uE000 Private", "\uFF21 Wide",
+                "Caf\u00e9", "cafe", "CAFE ", "A b C", "", "\u0130stanbul");
+        List<BoardGame> named = new ArrayList<>();
+        for (int i = 0; i < names.size(); i++) {
+            named.add(new BoardGame(names.get(i), i, 1, 2, 10, 20, 1.0, i, 5.0, 2000));
+        }
+        IGameTable heap = new GameTable(named);
+        IGameTable offHeap = new OffHeapGameTable(named);
+        NameDictionary expected = heap.getNameDictionary();
+        NameDictionary actual = offHeap.getNameDictionary();
+        assertEquals(expected.size(), actual.size());
+        for (int code = 0; code < expected.size(); code++) {
+            assertEquals(expected.get(code), actual.get(code));
+        }
+        for (int row = 0; row < named.size(); row++) {
+            assertEquals(heap.nameCodeColumn().applyAsInt(row), offHeap.nameCodeColumn().applyAsInt(row));
+        }
+        for (String value : List.of("cafe", "caf\u00e9", "\uE000", "\uD83C\uDFB2", "m", "", "zz", "\uff41")) {
+            assertEquals(expected.find(value), actual.find(value), value);
+            assertEquals(expected.lowerBound(value), actual.lowerBound(value), value);
+            assertEquals(expected.upperBound(value), actual.upperBound(value), value);
+            for (int code = 0; code < expected.size(); code++) {
+                assertEquals(expected.containing(value).test(code), actual.containing(value).test(code), value);
+            }
+        }
+    }
+
+    @Test
+    public void testNameRowFilterMatchesFilter() {
+        Set<BoardGame> all = GamesLoader.loadGamesFile("/collection.csv");
+        List<BoardGame> rows = List.copyOf(all);
+        GameTable table = new GameTable(rows);
+        for (Operations op : Operations.values()) {
+            for (String value : List.of("go", "Chess", "17days", "zz", "a", "the", "17 days", "")) {
+                IntPredicate predicate = Filters.nameFilter(table, op, value.toLowerCase());
+                for (int row = 0; row < rows.size(); row++) {
+                    assertEquals(Filters.filter(rows.get(row), GameData.NAME, op, value), predicate.test(row),
+                            op + " " + value + " " + rows.get(row).getName());
+                }
+            }
+        }
+    }
+}
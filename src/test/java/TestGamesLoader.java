@@ -0,0 +1,163 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import student.BoardGame;
+import student.CsvProjection;
+import student.GameData;
+import student.GameSnapshot;
+import student.GamesLoader;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestGamesLoader {
+    private static final String HEADER = "objectname,objectid,average,avgweight,rank,"
+            + "minplayers,maxplayers,minplaytime,maxplaytime,yearpublished,comment";
+
+    @TempDir
+    Path dir;
+
+    private static List<String> describe(Set<BoardGame> games) {
+        return games.stream().sorted(Comparator.comparing(BoardGame::getId))
+                .map(BoardGame::toString).toList();
+    }
+
+    @Test
+    public void testMappedMatchesResourceLoader() {
+        Set<BoardGame> expected = GamesLoader.loadGamesFile("/collection.csv");
+        Set<BoardGame> mapped = GamesLoader.loadGamesFile(Path.of("src/main/resources/collection.csv"));
+        assertTrue(expected.size() > 0);
+        assertEquals(describe(expected), describe(mapped));
+    }
+
+    @Test
+    public void testMappedParsesFields() throws IOException {
+        Path csv = dir.resolve("games.csv");
+        Files.writeString(csv, HEADER + "\r\n"
+                + "G\u00f4 Fish,2,6.5,3.25,200,2,10,20,120,2001,great\r\n"
+                + "Broken,3,abc,3.0,200,2,10,20,120,2001,\r\n"
+                + "Short,4,6.5\r\n"
+                + "Exp,5,1e1,-0.5,1,1,1,1,1,-1,", StandardCharsets.UTF_8);
+
+        List<BoardGame> games = GamesLoader.loadGamesFile(csv).stream()
+                .sorted(Comparator.comparing(BoardGame::getId)).toList();
+        assertEquals(2, games.size());
+        assertEquals(new BoardGame("G\u00f4 Fish", 2, 2, 10, 20, 120, 3.25, 200, 6.5, 2001).toString(),
+                games.get(0).toString());
+        assertEquals(10.0, games.get(1).getRating());
+        assertEquals(-0.5, games.get(1).getDifficulty());
+        assertEquals(-1, games.get(1).getYearPublished());
+    }
+
+    @Test
+    public void testProjectionStopsAtLastNeededField() {
+        CsvProjection projection = CsvProjection.fromHeader("wishlist," + HEADER + ",rating,numplays");
+        assertEquals(10, projection.getLastField());
+        assertNull(projection.columnAt(0));
+        assertEquals(GameData.NAME, projection.columnAt(1));
+        assertNull(projection.columnAt(11));
+
+        // everything after yearpublished is never looked at, even if it would not parse
+        BoardGame game = projection.parse("x,Go,1,7.5,8.0,100,2,2,30,30,2000,n/a,abc,def,ghi");
+        assertEquals(new BoardGame("Go", 1, 2, 2, 30, 30, 8.0, 100, 7.5, 2000).toString(), game.toString());
+        assertNull(projection.parse("x,Go,1,7.5,8.0,100,2,2,30,30"));
+        assertNull(projection.parse("x,Go,1,7.5,8.0,many,2,2,30,30,2000"));
+    }
+
+    @Test
+    public void testParallelMatchesSequential() throws IOException {
+        // large enough to be split into several chunks, with the last rows reusing earlier ids
+        StringBuilder sb = new StringBuilder(HEADER).append('\n');
+        for (int i = 0; i < 100_000; i++) {
+            sb.append("Game ").append(i).append(',').append(i % 90_000).append(",7.5,2.25,")
+                    .append(i).append(",2,4,30,60,2010,some trailing comment text\n");
+        }
+        Path csv = dir.resolve("large.csv");
+        Files.writeString(csv, sb.toString(), StandardCharsets.UTF_8);
+
+        Set<BoardGame> parallel = GamesLoader.loadGamesFileParallel(csv);
+        assertEquals(90_000, parallel.size());
+        // the first row for an id wins
+        assertTrue(parallel.contains(new BoardGame("Game 5", 5, 0, 0, 0, 0, 0, 0, 0, 0)));
+        assertFalse(parallel.contains(new BoardGame("Game 90005", 5, 0, 0, 0, 0, 0, 0, 0, 0)));
+
+        Set<BoardGame> sequential = GamesLoader.loadGamesFile(csv);
+        sequential.removeIf(game -> game.getRank() >= 90_000);
+        assertEquals(describe(sequential), describe(parallel));
+    }
+
+    @Test
+    public void testSnapshotRebuiltWhenCsvChanges() throws IOException {
+        Path csv = dir.resolve("collection.csv");
+        Files.copy(Path.of("src/main/resources/collection.csv"), csv);
+        Path snapshot = GameSnapshot.snapshotFor(csv);
+
+        Set<BoardGame> first = GamesLoader.loadGamesFileCached(csv);
+        assertTrue(Files.exists(snapshot));
+        Set<BoardGame> fromSnapshot = GameSnapshot.read(snapshot, GameSnapshot.Source.of(csv));
+        assertEquals(describe(first), describe(fromSnapshot));
+        assertEquals(describe(first), describe(GamesLoader.loadGamesFileCached(csv)));
+
+        Files.writeString(csv, HEADER + "\nOnly,1,6.5,3.25,200,2,10,20,120,2001,\n");
+        assertNull(GameSnapshot.read(snapshot, GameSnapshot.Source.of(csv)));
+        Set<BoardGame> changed = GamesLoader.loadGamesFileCached(csv);
+        assertEquals(1, changed.size());
+        assertEquals(describe(changed), describe(GameSnapshot.read(snapshot, GameSnapshot.Source.of(csv))));
+    }
+
+    @Test
+    public void testFailedParseNotSnapshotted() throws IOException {
+        Path csv = dir.resolve("broken.csv");
+        Files.writeString(csv, HEADER + "\nBroken,3,abc,3.0,200,2,10,20,120,2001,\n");
+        assertTrue(GamesLoader.loadGamesFileCached(csv).isEmpty());
+        assertFalse(Files.exists(GameSnapshot.snapshotFor(csv)));
+
+        // once the csv is fixed it loads, instead of an empty snapshot hiding it
+        Files.writeString(csv, HEADER + "\nFixed,3,6.5,3.0,200,2,10,20,120,2001,\n");
+        assertEquals(1, GamesLoader.loadGamesFileCached(csv).size());
+        assertTrue(Files.exists(GameSnapshot.snapshotFor(csv)));
+    }
+
+    @Test
+    public void testSnapshotSurvivesTouch() throws IOException {
+        Path csv = dir.resolve("touched.csv");
+        Files.writeString(csv, HEADER + "\nOnly,1,6.5,3.25,200,2,10,20,120,2001,\n");
+        Set<BoardGame> first = GamesLoader.loadGamesFileCached(csv);
+        Path snapshot = GameSnapshot.snapshotFor(csv);
+
+        Files.setLastModifiedTime(csv, FileTime.fromMillis(System.currentTimeMillis() + 60_000));
+        assertEquals(describe(first), describe(GameSnapshot.read(snapshot, GameSnapshot.Source.of(csv))));
+        assertEquals(describe(first), describe(GamesLoader.loadGamesFileCached(csv)));
+
+        // same size and a new time, but different bytes: rebuilt
+        Files.writeString(csv, HEADER + "\nOnlx,1,6.5,3.25,200,2,10,20,120,2001,\n");
+        Files.setLastModifiedTime(csv, FileTime.fromMillis(System.currentTimeMillis() + 120_000));
+        assertNull(GameSnapshot.read(snapshot, GameSnapshot.Source.of(csv)));
+        assertEquals("Onlx", GamesLoader.loadGamesFileCached(csv).iterator().next().getName());
+
+        // same size and the same time, but different bytes: still rebuilt
+        FileTime modified = Files.getLastModifiedTime(csv);
+        Files.writeString(csv, HEADER + "\nOnlx,1,6.6,3.25,200,2,10,20,120,2001,\n");
+        Files.setLastModifiedTime(csv, modified);
+        assertNull(GameSnapshot.read(snapshot, GameSnapshot.Source.of(csv)));
+        assertEquals(6.6, GamesLoader.loadGamesFileCached(csv).iterator().next().getRating());
+    }
+
+    @Test
+    public void testMissingFileIsEmpty() {
+        assertTrue(GamesLoader.loadGamesFile(dir.resolve("missing.csv")).isEmpty());
+        assertTrue(GamesLoader.loadGamesFileParallel(dir.resolve("missing.csv")).isEmpty());
+        assertTrue(GamesLoader.loadGamesFileCached(dir.resolve("missing.csv")).isEmpty());
+    }
+}
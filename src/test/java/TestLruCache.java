@@ -0,0 +1,83 @@
+import org.junit.jupiter.api.Test;
+
+import student.LruCache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestLruCache {
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        LruCache<String, String> cache = new LruCache<>(2, 100, String::length);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        assertEquals("1", cache.get("a"));
+        cache.put("c", "3");
+        assertNull(cache.get("b"));
+        assertEquals("1", cache.get("a"));
+        assertEquals("3", cache.get("c"));
+        assertEquals(2, cache.size());
+        assertEquals(3, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testEvictsByWeight() {
+        LruCache<String, String> cache = new LruCache<>(10, 6, String::length);
+        cache.put("a", "aaa");
+        cache.put("b", "bbb");
+        assertEquals(6, cache.getWeight());
+        cache.put("c", "cc");
+        assertNull(cache.get("a"));
+        assertEquals(5, cache.getWeight());
+        cache.put("d", "ddddddd");
+        assertNull(cache.get("d"));
+        cache.put("b", "b");
+        assertEquals(3, cache.getWeight());
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getWeight());
+    }
+
+    @Test
+    public void testGetsDuringEvictions() throws Exception {
+        LruCache<Integer, String> cache = new LruCache<>(64, Long.MAX_VALUE, String::length);
+        for (int i = 0; i < 64; i++) {
+            cache.put(i, "v" + i);
+        }
+        AtomicBoolean done = new AtomicBoolean();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> readers = new ArrayList<>();
+            for (int t = 0; t < 3; t++) {
+                readers.add(pool.submit(() -> {
+                    for (int i = 0; !done.get(); i = (i + 7) % 512) {
+                        cache.get(i);
+                    }
+                }));
+            }
+            Future<?> writer = pool.submit(() -> {
+                for (int i = 64; i < 20_000; i++) {
+                    cache.put(i % 512, "v" + i);
+                }
+            });
+            writer.get();
+            done.set(true);
+            for (Future<?> reader : readers) {
+                reader.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertTrue(cache.size() <= 64);
+    }
+}
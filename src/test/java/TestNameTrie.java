@@ -0,0 +1,121 @@
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import student.BoardGame;
+import student.FilterPlan;
+import student.GameIndexes;
+import student.GameList;
+import student.GameTable;
+import student.GamesLoader;
+import student.NameDictionary;
+import student.NameTrie;
+import student.Operations;
+import student.Planner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestNameTrie {
+    private static Set<BoardGame> games;
+    private static GameTable table;
+    private static NameDictionary dictionary;
+    private static NameTrie trie;
+
+    @BeforeAll
+    public static void setUp() {
+        games = GamesLoader.loadGamesFile("/collection.csv");
+        table = new GameTable(games);
+        dictionary = table.getNameDictionary();
+        trie = NameTrie.build(dictionary);
+    }
+
+    private static List<String> keys() {
+        Random random = new Random(7);
+        List<String> keys = new ArrayList<>(List.of("", "a", "z", "~", "17 days", "catan", "the", "zzzz", " "));
+        for (int i = 0; i < 500; i++) {
+            String name = dictionary.get(random.nextInt(dictionary.size()));
+            keys.add(name);
+            keys.add(name.substring(0, random.nextInt(name.length() + 1)));
+            keys.add(name + "a");
+            keys.add(name.substring(0, name.length() - 1) + (char) (name.charAt(name.length() - 1) + 1));
+        }
+        return keys;
+    }
+
+    @Test
+    public void testBoundsMatchDictionary() {
+        for (String key : keys()) {
+            assertEquals(dictionary.lowerBound(key), trie.lowerBound(key), key);
+            assertEquals(dictionary.upperBound(key), trie.upperBound(key), key);
+            assertEquals(dictionary.find(key), trie.find(key), key);
+        }
+    }
+
+    @Test
+    public void testPrefixRange() {
+        for (String key : keys()) {
+            int[] range = trie.prefixRange(key);
+            int count = 0;
+            for (int code = 0; code < dictionary.size(); code++) {
+                if (dictionary.get(code).startsWith(key)) {
+                    assertTrue(code >= range[0] && code < range[1], key);
+                    count++;
+                }
+            }
+            assertEquals(count, range[1] - range[0], key);
+        }
+    }
+
+    @Test
+    public void testCompletions() {
+        List<String> names = trie.completions("Cat", 3);
+        assertTrue(names.size() <= 3);
+        names.forEach(name -> assertTrue(name.startsWith("cat"), name));
+        assertEquals(0, trie.completions("qqqqq", 5).size());
+        assertEquals(0, NameTrie.build(new GameTable(List.of()).getNameDictionary()).completions("", 5).size());
+        assertThrows(IllegalArgumentException.class, () -> trie.range(Operations.NOT_EQUALS, "go"));
+    }
+
+    @Test
+    public void testNameFiltersUseTrie() {
+        GameIndexes indexes = new GameIndexes(table);
+        for (String filter : List.of("name==catan", "name<b", "name<=go", "name>tzolk", "name>=17 days",
+                "name==nosuchgame", "name>the,minPlayers>2")) {
+            FilterPlan plan = FilterPlan.compile(filter);
+            assertArrayEquals(plan.select(indexes.allRows(), table, null).toArray(),
+                    plan.select(indexes.allRows(), table, indexes).toArray(), filter);
+        }
+    }
+
+    @Test
+    public void testPlannerFindByName() {
+        Planner planner = new Planner(games);
+        BoardGame catan = planner.findByName("CATAN");
+        assertEquals("CATAN", catan.getName().toUpperCase());
+        assertNull(planner.findByName("No such game"));
+        planner.filter("minPlayers>" + (catan.getMinPlayers() + 1));
+        assertNull(planner.findByName("catan"));
+
+        List<String> completions = new Planner(games).completions("ca", 5);
+        assertEquals(5, completions.size());
+        completions.forEach(name -> assertTrue(name.toLowerCase().startsWith("ca"), name));
+    }
+
+    @Test
+    public void testGameListLookup() {
+        Planner planner = new Planner(games);
+        GameList list = new GameList(planner::findByName);
+        list.addToList("catan", Stream.empty());
+        assertEquals(1, list.count());
+        assertThrows(IllegalArgumentException.class, () -> list.addToList("No such game", Stream.empty()));
+    }
+}
@@ -0,0 +1,118 @@
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import student.BoardGame;
+import student.GameData;
+import student.GameDelta;
+import student.GamesLoader;
+import student.Page;
+import student.Planner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestPaging {
+    private static Set<BoardGame> games;
+
+    @BeforeAll
+    public static void setUp() {
+        games = GamesLoader.loadGamesFile("/collection.csv");
+    }
+
+    @Test
+    public void testOffsetPagesMatchFullSort() {
+        for (GameData column : List.of(GameData.NAME, GameData.RATING, GameData.YEAR, GameData.MIN_PLAYERS)) {
+            for (boolean ascending : new boolean[] {true, false}) {
+                List<BoardGame> all = new Planner(games).filter("minPlayers>1", column, ascending).toList();
+                for (int offset : new int[] {0, 3, 10, all.size() - 2, all.size() + 5}) {
+                    Page page = new Planner(games).filter("minPlayers>1", column, ascending, offset, 7);
+                    List<BoardGame> expected = all.subList(Math.min(offset, all.size()),
+                            Math.min(offset + 7, all.size()));
+                    assertEquals(expected, page.getGames(), column + " " + ascending + " " + offset);
+                    assertEquals(offset + 7 < all.size(), page.hasMore());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCursorWalksEveryPage() {
+        for (GameData column : List.of(GameData.NAME, GameData.RATING, GameData.MAX_PLAYERS)) {
+            for (boolean ascending : new boolean[] {true, false}) {
+                Planner planner = new Planner(games);
+                List<BoardGame> all = new Planner(games).filter("", column, ascending).toList();
+                Page page = planner.filter("", column, ascending, 0, 4);
+                List<BoardGame> walked = new ArrayList<>(page.getGames());
+                while (page.hasMore()) {
+                    page = planner.next(page.getCursor(), 4);
+                    walked.addAll(page.getGames());
+                }
+                assertEquals(all, walked, column + " " + ascending);
+            }
+        }
+    }
+
+    @Test
+    public void testPagingKeepsFilters() {
+        Planner planner = new Planner(games);
+        Page page = planner.filter("year>2010", GameData.YEAR, true, 0, 2);
+        List<BoardGame> rest = new Planner(games).filter("year>2010", GameData.YEAR).toList();
+        assertEquals(rest.size(), planner.getRemainingRows().cardinality());
+        assertEquals(rest.subList(0, 2), page.getGames());
+        // the cached full result serves the page too
+        assertEquals(rest.subList(2, 4), planner.filter("", GameData.YEAR, true, 2, 2).getGames());
+    }
+
+    @Test
+    public void testInvalidCursors() {
+        Planner planner = new Planner(games);
+        Page page = planner.filter("", GameData.RATING, false, 0, 1);
+        assertTrue(page.hasMore());
+        assertThrows(IllegalArgumentException.class, () -> planner.next("not a cursor", 5));
+        assertThrows(IllegalArgumentException.class, () -> planner.next(page.getCursor(), -1));
+        assertThrows(IllegalArgumentException.class, () -> planner.filter("", GameData.RATING, false, -1, 5));
+        planner.applyDelta(GameDelta.diff(games, games));
+        assertThrows(IllegalArgumentException.class, () -> planner.next(page.getCursor(), 5));
+
+        Page empty = planner.filter("year>9999", GameData.RATING, true, 0, 5);
+        assertTrue(empty.getGames().isEmpty());
+        assertFalse(empty.hasMore());
+        assertNull(empty.getCursor());
+    }
+
+    @Test
+    public void testCursorRejectedAfterFiltersChange() {
+        Planner planner = new Planner(games);
+        Page page = planner.filter("minPlayers>1", GameData.RATING, false, 0, 3);
+        assertTrue(page.hasMore());
+        assertEquals(3, planner.next(page.getCursor(), 3).getGames().size());
+
+        planner.filter("year>2010");
+        assertThrows(IllegalArgumentException.class, () -> planner.next(page.getCursor(), 3));
+        planner.undo();
+        assertEquals(3, planner.next(page.getCursor(), 3).getGames().size());
+        planner.reset();
+        assertThrows(IllegalArgumentException.class, () -> planner.next(page.getCursor(), 3));
+    }
+
+    @Test
+    public void testLastPageFillsResultCache() {
+        Planner planner = new Planner(games);
+        List<BoardGame> all = new Planner(games).filter("year>2015", GameData.RATING, true).toList();
+        Page partial = planner.filter("year>2015", GameData.RATING, true, 0, 2);
+        assertEquals(0, planner.getCatalog().getCacheHits());
+        planner.reset();
+        Page whole = planner.filter("year>2015", GameData.RATING, true, 0, all.size());
+        assertEquals(partial.getGames(), whole.getGames().subList(0, 2));
+        planner.reset();
+        assertEquals(all.subList(2, 4), planner.filter("year>2015", GameData.RATING, true, 2, 2).getGames());
+        assertEquals(1, planner.getCatalog().getCacheHits());
+    }
+}
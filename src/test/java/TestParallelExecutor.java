@@ -0,0 +1,103 @@
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import student.BoardGame;
+import student.Catalog;
+import student.FilterPlan;
+import student.GameData;
+import student.GameIndexes;
+import student.GameTable;
+import student.ParallelExecutor;
+import student.Planner;
+import student.Sorting;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestParallelExecutor {
+    private static final int SIZE = 20_000;
+    private static Set<BoardGame> games;
+    private static GameTable table;
+    private static ParallelExecutor executor;
+
+    @BeforeAll
+    public static void setUp() {
+        games = new HashSet<>();
+        for (int id = 0; id < SIZE; id++) {
+            // few distinct values, so the sorts have plenty of ties
+            games.add(new BoardGame("Game " + (id % 997), id, 1 + id % 4, 2 + id % 7, 10 * (id % 9), 100,
+                    id % 5, id, id % 10 + 0.5, 1990 + id % 30));
+        }
+        table = new GameTable(games);
+        executor = new ParallelExecutor(4, 0);
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void testFilterMatchesSequential() {
+        int[] rows = IntStream.range(0, SIZE).toArray();
+        FilterPlan plan = FilterPlan.compile("name~=9,minPlayers>=2");
+        int[] expected = ParallelExecutor.SEQUENTIAL.filter(rows, plan.bind(table));
+        assertArrayEquals(expected, executor.filter(rows, plan.bind(table)));
+        assertArrayEquals(plan.select(new GameIndexes(table).allRows(), table, null).toArray(),
+                plan.select(new GameIndexes(table).allRows(), table, null, executor).toArray());
+    }
+
+    @Test
+    public void testSortMatchesSequential() {
+        int[] rows = IntStream.range(0, SIZE).filter(row -> row % 3 != 0).toArray();
+        for (GameData sortOn : List.of(GameData.NAME, GameData.RATING, GameData.YEAR)) {
+            for (boolean ascending : new boolean[] {true, false}) {
+                assertArrayEquals(Sorting.sortRows(table, rows, sortOn, ascending),
+                        executor.sort(table, rows, sortOn, ascending), sortOn + " " + ascending);
+            }
+        }
+    }
+
+    @Test
+    public void testPlannerMatchesSequential() {
+        Planner sequential = new Planner(table, 0, 0, ParallelExecutor.SEQUENTIAL);
+        Planner parallel = new Planner(table, 0, 0, executor);
+        for (String filter : List.of("name~=99", "rating>5,year<2000", "")) {
+            assertEquals(sequential.filter(filter, GameData.RATING, false).toList(),
+                    parallel.filter(filter, GameData.RATING, false).toList(), filter);
+        }
+    }
+
+    @Test
+    public void testThreshold() {
+        ParallelExecutor large = new ParallelExecutor(2, 1_000_000);
+        assertFalse(large.isParallel(SIZE));
+        assertTrue(executor.isParallel(SIZE));
+        assertFalse(ParallelExecutor.SEQUENTIAL.isParallel(SIZE));
+        assertEquals(2, large.getParallelism());
+        large.shutdown();
+        assertFalse(large.isParallel(2_000_000));
+        assertThrows(IllegalArgumentException.class, () -> new ParallelExecutor(0, 10));
+        assertThrows(IllegalArgumentException.class, () -> new ParallelExecutor(2, -1));
+    }
+
+    @Test
+    public void testSharedExecutor() {
+        ParallelExecutor shared = ParallelExecutor.shared();
+        assertSame(shared, ParallelExecutor.shared());
+        assertSame(shared, new Catalog(Set.of()).getExecutor());
+        assertEquals(Runtime.getRuntime().availableProcessors(), shared.getParallelism());
+        shared.shutdown();
+        assertEquals(Runtime.getRuntime().availableProcessors(), shared.getParallelism());
+    }
+}
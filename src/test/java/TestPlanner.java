@@ -2,6 +2,7 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import student.BoardGame;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import java.util.HashSet;
 import java.util.List;
@@ -9,6 +10,8 @@ import java.util.Set;
 import student.Planner;
 import student.IPlanner;
 import student.GameData;
+import student.GameDelta;
+import student.GameTable;
 
 
 /**
@@ -81,4 +84,77 @@ public class TestPlanner {
         List<BoardGame> fullList = planner.filter("", GameData.NAME, true).toList();
         assertEquals(games.size(), fullList.size());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testResultCache() {
+        Planner planner = new Planner(games);
+        List<BoardGame> first = planner.filter("minPlayers>1,maxPlayers<6").toList();
+        assertEquals(0, planner.getCacheHits());
+        assertEquals(1, planner.getCacheMisses());
+
+        planner.reset();
+        planner.filter("maxPlayers<6");
+        List<BoardGame> second = planner.filter(" minplayers > 1 ").toList();
+        assertEquals(first, second);
+        assertEquals(1, planner.getCacheHits());
+
+        planner.reset();
+        assertEquals(List.of(first.get(1), first.get(0)),
+                planner.filter("maxPlayers<6,minPlayers>1", GameData.NAME, false).toList());
+        assertEquals(1, planner.getCacheHits());
+        // the state after a hit is the same as after a scan
+        assertEquals(List.of(first.get(1)), planner.filter("name==go").toList());
+    }
+
+    @Test
+    public void testResultCacheDroppedOnChange() {
+        Planner planner = new Planner(games);
+        assertEquals(8, planner.filter("").count());
+        planner.applyDelta(GameDelta.diff(games, List.of(games.iterator().next())));
+        planner.reset();
+        assertEquals(1, planner.filter("").count());
+        assertEquals(0, planner.getCacheHits());
+    }
+
+    @Test
+    public void testCacheOff() {
+        Planner planner = new Planner(new GameTable(games), 0, 0);
+        planner.filter("minPlayers>1");
+        planner.reset();
+        assertEquals(7, planner.filter("minPlayers>1").count());
+        assertEquals(0, planner.getCacheHits());
+        assertEquals(2, planner.getCacheMisses());
+    }
+
+    @Test
+    public void testUndo() {
+        Planner planner = new Planner(games);
+        assertFalse(planner.undo());
+        List<BoardGame> first = planner.filter("minPlayers>1").toList();
+        planner.filter("maxPlayers<6");
+        assertEquals(List.of("Chess", "Go"), planner.filter("", GameData.NAME).map(BoardGame::getName).toList());
+        assertTrue(planner.undo());
+        assertEquals(first, planner.filter("").toList());
+        assertEquals(1, planner.filter("name~=fish").count());
+        assertTrue(planner.undo());
+        assertTrue(planner.undo());
+        assertEquals(8, planner.filter("").count());
+        assertFalse(planner.undo());
+    }
+
+    @Test
+    public void testUndoAfterChange() {
+        Planner planner = new Planner(games);
+        planner.filter("minPlayers>1");
+        planner.filter("maxPlayers<6");
+        BoardGame chess = games.stream().filter(g -> g.getName().equals("Chess")).findFirst().orElseThrow();
+        Set<BoardGame> changed = new HashSet<>(games);
+        changed.remove(chess);
+        planner.applyDelta(GameDelta.diff(games, changed));
+        assertEquals(1, planner.getRemainingRows().cardinality());
+        assertTrue(planner.undo());
+        assertEquals(6, planner.getRemainingRows().cardinality());
+        planner.reset();
+        assertFalse(planner.undo());
+    }
+}
@@ -0,0 +1,110 @@
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import student.BoardGame;
+import student.FilterPlan;
+import student.Filters;
+import student.GameData;
+import student.GameIndexes;
+import student.GameTable;
+import student.GamesLoader;
+import student.Operations;
+import student.SortedColumnIndex;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestSortedColumnIndex {
+    private static GameTable table;
+    private static GameIndexes indexes;
+
+    @BeforeAll
+    public static void setUp() {
+        table = new GameTable(GamesLoader.loadGamesFile("/collection.csv"));
+        indexes = new GameIndexes(table);
+    }
+
+    @Test
+    public void testSelectMatchesScan() {
+        List<String> values = List.of("-1", "0", "1", "2", "4", "7.5", "8", "60", "2000", "2019", "99999", "NaN");
+        for (GameData column : GameData.values()) {
+            SortedColumnIndex index = indexes.sortedIndex(column);
+            if (column == GameData.NAME || column == GameData.ID) {
+                assertNull(index);
+                continue;
+            }
+            for (Operations op : Operations.values()) {
+                if (!SortedColumnIndex.supports(op)) {
+                    continue;
+                }
+                for (String value : values) {
+                    int[] scan = IntStream.range(0, table.size())
+                            .filter(row -> Filters.filter(table.toBoardGame(row), column, op, value))
+                            .toArray();
+                    assertArrayEquals(scan, index.select(op, Double.parseDouble(value)), column + " " + op + value);
+                    assertEquals(scan.length, index.count(op, Double.parseDouble(value)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testNotEqualsIsNotIndexed() {
+        assertFalse(SortedColumnIndex.supports(Operations.NOT_EQUALS));
+        assertThrows(IllegalArgumentException.class,
+                () -> indexes.sortedIndex(GameData.YEAR).count(Operations.NOT_EQUALS, 2000));
+    }
+
+    @Test
+    public void testPlanUsesIndexWithSameResult() {
+        int[] all = IntStream.range(0, table.size()).toArray();
+        for (String filter : List.of("year==2010", "year>2019,minPlayers>=2", "rank<10,rating>8",
+                "minPlayers>1,maxPlayers<6", "difficulty>4.5", "maxPlayTime<=30,name~=a", "year!=2010",
+                "rating>NaN", "rating>=NaN", "rank<NaN")) {
+            FilterPlan plan = FilterPlan.compile(filter);
+            int[] scanned = plan.select(all, table, null);
+            assertArrayEquals(scanned, plan.select(all, table, indexes), filter);
+            int[] half = IntStream.range(0, table.size() / 2).toArray();
+            assertArrayEquals(plan.select(half, table, null), plan.select(half, table, indexes), filter);
+        }
+    }
+
+    @Test
+    public void testIndexOverSmallTable() {
+        GameTable small = new GameTable(List.of(
+                new BoardGame("Chess", 7, 2, 2, 10, 20, 10.0, 700, 10.0, -500),
+                new BoardGame("Go", 1, 2, 5, 30, 30, 8.0, 100, 7.5, -2000),
+                new BoardGame("Tucano", 5, 10, 20, 60, 90, 6.0, 500, 8.0, 2004)));
+        SortedColumnIndex years = SortedColumnIndex.build(small, GameData.YEAR);
+        assertArrayEquals(new int[] {0, 1}, years.select(Operations.LESS_THAN, 0));
+        assertArrayEquals(new int[] {0, 1}, SortedColumnIndex.build(small, GameData.MIN_PLAYERS)
+                .select(Operations.EQUALS, 2));
+        assertEquals(1, SortedColumnIndex.build(small, GameData.RATING).count(Operations.GREATER_THAN, 8));
+    }
+
+    @Test
+    public void testDoublesSortWithoutNaN() {
+        GameTable doubles = new GameTable(List.of(
+                new BoardGame("A", 1, 2, 2, 10, 20, 1.0, 700, Double.NaN, 2000),
+                new BoardGame("B", 2, 2, 2, 10, 20, 1.0, 700, -0.5, 2000),
+                new BoardGame("C", 3, 2, 2, 10, 20, 1.0, 700, 7.5, 2000),
+                new BoardGame("D", 4, 2, 2, 10, 20, 1.0, 700, -3.0, 2000),
+                new BoardGame("E", 5, 2, 2, 10, 20, 1.0, 700, 7.5, 2000)));
+        SortedColumnIndex ratings = SortedColumnIndex.build(doubles, GameData.RATING);
+        assertEquals(4, ratings.size());
+        assertArrayEquals(new double[] {-3.0, -0.5, 7.5, 7.5},
+                IntStream.range(0, ratings.size()).mapToDouble(ratings::valueAt).toArray());
+        assertArrayEquals(new int[] {2, 4}, ratings.select(Operations.GREATER_THAN, 0));
+        assertArrayEquals(new int[] {1, 2, 3, 4}, ratings.select(Operations.GREATER_THAN_EQUALS, -10));
+        assertEquals(7.5, ratings.summarize(Operations.GREATER_THAN, 0).getMax());
+        assertEquals(5, ratings.summarize().getCount());
+        assertTrue(Double.isNaN(ratings.summarize().getSum()));
+    }
+}
@@ -2,9 +2,15 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import student.BoardGame;
+import student.GameTable;
+import student.GamesLoader;
 import student.Sorting;
 import student.GameData;
+
+import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -43,4 +49,47 @@ public class TestSorting {
         assertEquals("Chess", result.get(1).getName());
         assertEquals("17 days", result.get(2).getName());
     }
+
+    @Test
+    public void testSortNumbersAsNumbers() {
+        List<BoardGame> ranked = List.of(
+                new BoardGame("Ten", 1, 2, 4, 30, 60, 2.0, 10, 7.0, 2010),
+                new BoardGame("Nine", 2, 2, 4, 30, 60, 2.0, 9, 7.0, 2010),
+                new BoardGame("Hundred", 3, 2, 4, 30, 60, 2.0, 100, 7.0, 2010));
+        List<String> names = Sorting.sort(ranked.stream(), GameData.RANK, true).map(BoardGame::getName).toList();
+        assertEquals(List.of("Nine", "Ten", "Hundred"), names);
+    }
+
+    @Test
+    public void testTiesSortByName() {
+        List<BoardGame> tied = List.of(
+                new BoardGame("b", 1, 2, 4, 30, 60, 2.0, 1, 7.0, 2010),
+                new BoardGame("C", 2, 2, 4, 30, 60, 2.0, 2, 8.0, 2010),
+                new BoardGame("A", 3, 2, 4, 30, 60, 2.0, 3, 7.0, 2010));
+        assertEquals(List.of("A", "b", "C"),
+                Sorting.sort(tied.stream(), GameData.YEAR, true).map(BoardGame::getName).toList());
+        // names stay ascending when the sort column is descending
+        assertEquals(List.of("C", "A", "b"),
+                Sorting.sort(tied.stream(), GameData.RATING, false).map(BoardGame::getName).toList());
+    }
+
+    @Test
+    public void testSortRowsMatchesSort() {
+        Set<BoardGame> collection = GamesLoader.loadGamesFile("/collection.csv");
+        GameTable table = new GameTable(collection);
+        int[] rows = IntStream.range(0, table.size()).toArray();
+        for (GameData column : GameData.values()) {
+            for (boolean ascending : new boolean[] {true, false}) {
+                List<BoardGame> expected = Sorting.sort(table.toBoardGames().stream(), column, ascending).toList();
+                List<BoardGame> sorted = IntStream.of(Sorting.sortRows(table, rows, column, ascending))
+                        .mapToObj(table::toBoardGame).toList();
+                assertEquals(expected.stream().map(BoardGame::getName).toList(),
+                        sorted.stream().map(BoardGame::getName).toList(), column + " " + ascending);
+            }
+        }
+        List<BoardGame> byRank = Sorting.sort(collection.stream(), GameData.RANK, true).toList();
+        List<BoardGame> check = collection.stream().sorted(Comparator.comparingInt(BoardGame::getRank)
+                .thenComparing(g -> g.getName().toLowerCase())).toList();
+        assertEquals(check.stream().map(BoardGame::getRank).toList(), byRank.stream().map(BoardGame::getRank).toList());
+    }
 }
@@ -0,0 +1,66 @@
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import student.BoardGame;
+import student.FilterPlan;
+import student.GameIndexes;
+import student.GameTable;
+import student.NameCodeRows;
+import student.GamesLoader;
+import student.TrigramIndex;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestTrigramIndex {
+    private static GameTable table;
+    private static GameIndexes indexes;
+
+    @BeforeAll
+    public static void setUp() {
+        table = new GameTable(GamesLoader.loadGamesFile("/collection.csv"));
+        indexes = new GameIndexes(table);
+    }
+
+    @Test
+    public void testSelectMatchesScan() {
+        TrigramIndex index = indexes.trigramIndex();
+        for (String text : List.of("the", "catan", "ofthe", "aaa", "war", "zzzzz", "ing", "a b", "terraformingmars")) {
+            int[] scan = IntStream.range(0, table.size())
+                    .filter(row -> table.getName(row).toLowerCase().replace(" ", "").contains(text))
+                    .toArray();
+            assertArrayEquals(scan, index.select(text).toArray(), text);
+            long names = IntStream.of(scan).map(table.nameCodeColumn()).distinct().count();
+            assertTrue(index.candidates(text).length >= names);
+        }
+    }
+
+    @Test
+    public void testRepeatedTrigrams() {
+        GameTable small = new GameTable(List.of(
+                new BoardGame("Aaaa", 1, 1, 2, 10, 20, 1.0, 1, 5.0, 2000),
+                new BoardGame("Baaa", 2, 1, 2, 10, 20, 1.0, 2, 5.0, 2000),
+                new BoardGame("aaa a", 3, 1, 2, 10, 20, 1.0, 3, 5.0, 2000)));
+        TrigramIndex index = TrigramIndex.build(small, NameCodeRows.build(small));
+        assertArrayEquals(new int[] {0, 2}, index.select("aaaa").toArray());
+        assertArrayEquals(new int[] {0, 1, 2}, index.select("aaa").toArray());
+        assertEquals(0, index.select("aab").cardinality());
+    }
+
+    @Test
+    public void testShortValuesScan() {
+        assertFalse(TrigramIndex.supports("go"));
+        assertThrows(IllegalArgumentException.class, () -> indexes.trigramIndex().select("go"));
+        for (String filter : List.of("name~=go", "name~=the", "name~=x", "name~=war,minPlayers>2")) {
+            FilterPlan plan = FilterPlan.compile(filter);
+            assertArrayEquals(plan.select(indexes.allRows(), table, null).toArray(),
+                    plan.select(indexes.allRows(), table, indexes).toArray(), filter);
+        }
+    }
+}
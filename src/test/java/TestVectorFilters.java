@@ -0,0 +1,98 @@
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import student.BoardGame;
+import student.CompressedBitmap;
+import student.Filters;
+import student.GameData;
+import student.GameTable;
+import student.GamesLoader;
+import student.IGameTable;
+import student.OffHeapGameTable;
+import student.Operations;
+import student.VectorFilters;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TestVectorFilters {
+    private static Set<BoardGame> games;
+
+    @BeforeAll
+    public static void setUp() {
+        games = GamesLoader.loadGamesFile("/collection.csv");
+    }
+
+    @Test
+    public void testMaskMatchesFilter() {
+        double[] values = {-1e300, Integer.MIN_VALUE, -1, 0, 1, 1.5, 2, 4, 7.5, 60, 2000, 2019.99,
+                Integer.MAX_VALUE, 1e300, Double.NaN};
+        for (IGameTable table : List.of(new GameTable(games), new OffHeapGameTable(games))) {
+            for (GameData column : GameData.values()) {
+                if (column == GameData.NAME) {
+                    continue;
+                }
+                for (Operations op : Operations.values()) {
+                    if (op == Operations.CONTAINS) {
+                        continue;
+                    }
+                    for (double value : values) {
+                        IntPredicate filter = Filters.numberFilter(table, column, op, value);
+                        assertArrayEquals(VectorFilters.select(table.size(), filter),
+                                table.numberMask(column, op, value), column + " " + op + " " + value);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testTail() {
+        // sizes around the vector width, so rows past the last whole vector are covered
+        for (int size = 0; size < 70; size++) {
+            int[] ints = new int[size];
+            double[] doubles = new double[size];
+            for (int i = 0; i < size; i++) {
+                ints[i] = i % 5;
+                doubles[i] = i % 5 + 0.5;
+            }
+            long[] mask = VectorFilters.select(ints, Operations.GREATER_THAN_EQUALS, 2);
+            long[] doubleMask = VectorFilters.select(doubles, Operations.GREATER_THAN, 2);
+            assertEquals(VectorFilters.words(size), mask.length);
+            int[] expected = IntStream.range(0, size).filter(i -> i % 5 >= 2).toArray();
+            assertArrayEquals(expected, CompressedBitmap.fromWords(mask).toArray());
+            assertArrayEquals(expected, CompressedBitmap.fromWords(doubleMask).toArray());
+        }
+    }
+
+    @Test
+    public void testBuffersAcrossChunks() {
+        int size = 100_003;
+        int[] ints = IntStream.range(0, size).map(i -> (i * 7919) % 1000).toArray();
+        double[] doubles = IntStream.range(0, size).mapToDouble(i -> ints[i] / 100.0).toArray();
+        ByteBuffer intBuffer = ByteBuffer.allocateDirect(size * Integer.BYTES).order(ByteOrder.nativeOrder());
+        intBuffer.asIntBuffer().put(ints);
+        ByteBuffer doubleBuffer = ByteBuffer.allocateDirect(size * Double.BYTES).order(ByteOrder.nativeOrder());
+        doubleBuffer.asDoubleBuffer().put(doubles);
+        for (Operations op : List.of(Operations.EQUALS, Operations.LESS_THAN, Operations.GREATER_THAN_EQUALS)) {
+            assertArrayEquals(VectorFilters.select(ints, op, 500), VectorFilters.selectInts(intBuffer, size, op, 500));
+            assertArrayEquals(VectorFilters.select(doubles, op, 5), VectorFilters.selectDoubles(doubleBuffer, size,
+                    op, 5));
+        }
+    }
+
+    @Test
+    public void testInvalid() {
+        GameTable table = new GameTable(games);
+        assertThrows(IllegalArgumentException.class, () -> table.numberMask(GameData.NAME, Operations.EQUALS, 1));
+        assertThrows(IllegalArgumentException.class, () -> table.numberMask(GameData.YEAR, Operations.CONTAINS, 1));
+    }
+}